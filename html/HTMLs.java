@@ -16,6 +16,8 @@ Copyright (C) 2004 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.html;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -37,8 +39,7 @@ public class HTMLs {
 	public static final
 	void appendAttribute(StringBuffer sb, String name, String val) {
 		if (val != null && val.length() != 0)
-			sb.append(' ').append(name).append("=\"")
-				.append(XMLs.encodeAttribute(val)).append('"');
+			appendAttribute0(sb, name, val);
 	}
 	/** Appends an attribute to the string buffer for HTML/XML (name="val").
 	 * If emptyIgnored is true and val is null or empty (if String),
@@ -54,9 +55,46 @@ public class HTMLs {
 	void appendAttribute(StringBuffer sb, String name, String val,
 	boolean emptyIgnored) {
 		if (!emptyIgnored || (val != null && val.length() != 0))
-			sb.append(' ').append(name).append("=\"")
-				.append(val != null ? XMLs.encodeAttribute(val): null)
-				.append('"');
+			appendAttribute0(sb, name, val);
+	}
+	private static void appendAttribute0(StringBuffer sb, String name, String val) {
+		try {
+			appendAttribute((Appendable)sb, name, val, false);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
+		}
+	}
+	/** Appends an attribute to the given output, such as StringBuilder
+	 * and Writer, for HTML/XML (name="val").
+	 * If val is null or empty, nothing is generated.
+	 * <p>Unlike {@link #appendAttribute(StringBuffer, String, String)},
+	 * the value is encoded directly into the output, without creating
+	 * an intermediate string.
+	 * @since 8.5.0
+	 */
+	public static final
+	void appendAttribute(Appendable out, String name, String val)
+	throws IOException {
+		appendAttribute(out, name, val, true);
+	}
+	/** Appends an attribute to the given output, such as StringBuilder
+	 * and Writer, for HTML/XML (name="val").
+	 * @param emptyIgnored whether to ignore a null or empty string.
+	 * If false, it is always generated (null is generated as "null").
+	 * @since 8.5.0
+	 */
+	public static final
+	void appendAttribute(Appendable out, String name, String val,
+	boolean emptyIgnored) throws IOException {
+		if (!emptyIgnored || (val != null && val.length() != 0)) {
+			out.append(' ');
+			if (out instanceof Writer) ((Writer)out).write(name);
+			else out.append(name);
+			out.append("=\"");
+			if (val != null) XMLs.writeAttribute(out, val);
+			else out.append("null");
+			out.append('"');
+		}
 	}
 	/** Appends an attribute with a int value to the string buffer for HTML/XML (name="val").
 	 */
@@ -216,6 +254,12 @@ public class HTMLs {
 	// which is licensed under New BSD License - http://opensource.org/licenses/BSD-3-Clause
 	private static char[] IMMUNE_JAVASCRIPT = { ',', '.', '_' };
 	private static final String[] hex = new String[256];
+	/** Whether an ASCII character is not encoded by {@link #encodeJavaScript}:
+	 * alphanumeric and {@link #IMMUNE_JAVASCRIPT}. */
+	private static final boolean[] JS_IMMUNES = new boolean[128];
+	/** The encoded string (\\xHH) of characters less than 256. */
+	private static final String[] JS_HEX = new String[256];
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
 	private static boolean containsCharacter(char c, char[] array) {
 		for (char ch : array) {
@@ -234,6 +278,12 @@ public class HTMLs {
 				hex[c] = toHex(c).intern();
 			}
 		}
+
+		for (char c = 0; c < 128; c++)
+			JS_IMMUNES[c] = hex[c] == null || containsCharacter(c, IMMUNE_JAVASCRIPT);
+		for (int c = 0; c < 256; c++)
+			JS_HEX[c] = new StringBuilder(4).append("\\x")
+				.append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]).toString();
 	}
 
 	private static String toHex(char c) {
@@ -261,13 +311,65 @@ public class HTMLs {
 	 * @since 7.0.2
 	 */
 	public static String encodeJavaScript(String input) {
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < input.length(); i++) {
-			char c = input.charAt(i);
-			sb.append(encodeCharacter(IMMUNE_JAVASCRIPT, c));
+		final int len = input.length();
+		int j = 0;
+		while (j < len && isJavaScriptImmune(input.charAt(j)))
+			++j;
+		if (j == len)
+			return input; //nothing to encode
+
+		final StringBuilder sb = new StringBuilder(len + 32).append(input, 0, j);
+		try {
+			writeJavaScript(sb, input, j, len);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
 		}
 		return sb.toString();
 	}
+	/** Encodes the JavaScript content and appends it to the given output,
+	 * such as StringBuilder and Writer.
+	 * It is the same as {@link #encodeJavaScript(String)}, except no
+	 * intermediate string is created.
+	 * @since 8.5.0
+	 */
+	public static void writeJavaScript(Appendable out, CharSequence input)
+	throws IOException {
+		writeJavaScript(out, input, 0, input.length());
+	}
+	private static void writeJavaScript(Appendable out, CharSequence input,
+	int begin, int end) throws IOException {
+		int k = begin;
+		for (int j = begin; j < end; ++j) {
+			final char c = input.charAt(j);
+			if (isJavaScriptImmune(c))
+				continue;
+
+			if (k < j) { //append the run of immune characters at once
+				if (out instanceof Writer && input instanceof String)
+					((Writer)out).write((String)input, k, j - k);
+				else
+					out.append(input, k, j);
+			}
+			k = j + 1;
+			if (c < 256) {
+				out.append(JS_HEX[c]);
+			} else {
+				out.append("\\u").append(HEX_DIGITS[c >> 12])
+					.append(HEX_DIGITS[(c >> 8) & 0xf])
+					.append(HEX_DIGITS[(c >> 4) & 0xf])
+					.append(HEX_DIGITS[c & 0xf]);
+			}
+		}
+		if (k < end) {
+			if (out instanceof Writer && input instanceof String)
+				((Writer)out).write((String)input, k, end - k);
+			else
+				out.append(input, k, end);
+		}
+	}
+	private static boolean isJavaScriptImmune(char c) {
+		return c < 128 && JS_IMMUNES[c];
+	}
 
 	/**
 	 * Encodes the JavaScript content for <a href=
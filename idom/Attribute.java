@@ -174,6 +174,8 @@ public class Attribute extends AbstractItem implements Namespaceable, Attr {
 			ns = reuseNamespace(_owner, ns); //check and reuse
 
 		_ns = ns;
+		if (_owner instanceof Element)
+			((Element)_owner).onAttributesChanged();
 	}
 	public final Namespace getNamespace() {
 		return _ns;
@@ -211,6 +213,8 @@ public class Attribute extends AbstractItem implements Namespaceable, Attr {
 		if (!Objects.equals(lname, getLocalName())) {
 			Verifier.checkAttributeName(lname, getLocator());
 			_lname = lname;
+			if (_owner instanceof Element)
+				((Element)_owner).onAttributesChanged();
 		}
 	}		
 
@@ -16,12 +16,14 @@ Copyright (C) 2001 Potix Corporation. All Rights Reserved.
 package org.zkoss.idom;
 
 import java.util.Map;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Collection;
 import java.util.List;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Collections;
+import java.util.RandomAccess;
 import java.util.regex.Pattern;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
@@ -30,7 +32,7 @@ import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.TypeInfo;
 
 import static org.zkoss.lang.Generics.cast;
-import org.zkoss.util.NotableLinkedList;
+import org.zkoss.util.NotableArrayList;
 import org.zkoss.idom.impl.FacadeNodeList;
 import org.zkoss.idom.impl.*;
 
@@ -50,6 +52,16 @@ implements Attributable, Namespaceable, org.w3c.dom.Element {
 	protected List<Attribute> _attrs = null;
 	/** Additional namespaces. May be null*/
 	protected Map<String, Namespace> _addNamespaces = null;
+	/** Map(tag name, index) of {@link #_attrs}, or null if not built yet.
+	 * It is built only if there are more than {@link #ATTR_INDEX_THRESHOLD}
+	 * attributes, and reset whenever the attributes are changed.
+	 * <p>It is built lazily by a lookup, which might be called by multiple
+	 * threads (as a parsed document is read-only), so it is volatile to
+	 * publish a completely built map. Once published, it is never modified.
+	 */
+	private transient volatile Map<String, Integer> _attrIndex;
+	/** The number of attributes to start building {@link #_attrIndex}. */
+	private static final int ATTR_INDEX_THRESHOLD = 8;
 
 	/**
 	 * Constructor.
@@ -572,16 +584,54 @@ implements Attributable, Namespaceable, org.w3c.dom.Element {
 		if (_attrs == null || indexFrom < 0 || indexFrom >= _attrs.size())
 			return -1;
 
-		final Pattern ptn =
-			(mode & FIND_BY_REGEX) != 0 ? Pattern.compile(name): null;
-
-		final Iterator it = _attrs.listIterator(indexFrom);
-		for (int j = indexFrom; it.hasNext(); ++j)
-			if (match((Attribute)it.next(), namespace, name, ptn, mode))
-				return j;
+		if (namespace == null && name != null && mode == FIND_BY_TAGNAME) {
+			final Map<String, Integer> index = getAttributeIndexMap();
+			if (index != null) {
+				final Integer j = index.get(name);
+				if (j == null)
+					return -1;
+				if (j.intValue() >= indexFrom)
+					return j.intValue();
+				//the name is not unique (renamed improperly): search it
+			}
+		}
 
+		final Pattern ptn = getPattern(name, mode);
+		if (_attrs instanceof RandomAccess) {
+			for (int j = indexFrom, sz = _attrs.size(); j < sz; ++j)
+				if (match(_attrs.get(j), namespace, name, ptn, mode))
+					return j;
+		} else {
+			final Iterator it = _attrs.listIterator(indexFrom);
+			for (int j = indexFrom; it.hasNext(); ++j)
+				if (match((Attribute)it.next(), namespace, name, ptn, mode))
+					return j;
+		}
 		return -1;
 	}
+	/** Returns Map(tag name, index) of the attributes, or null if
+	 * not available (too few attributes, or not {@link AttrArray}).
+	 * If two attributes have the same name (renamed improperly),
+	 * the first one is indexed.
+	 */
+	private Map<String, Integer> getAttributeIndexMap() {
+		Map<String, Integer> index = _attrIndex;
+		if (index == null && _attrs instanceof AttrArray
+		&& _attrs.size() > ATTR_INDEX_THRESHOLD) {
+			final int sz = _attrs.size();
+			index = new HashMap<String, Integer>(sz * 2);
+			for (int j = sz; --j >= 0;) //backward so the first one wins
+				index.put(_attrs.get(j).getTagName(), new Integer(j));
+			_attrIndex = index;
+		}
+		return index;
+	}
+	/** Called when an attribute is added, removed or renamed, such
+	 * that the index of attributes will be rebuilt.
+	 */
+	/*package*/ final void onAttributesChanged() {
+		_attrIndex = null;
+	}
 	public final int getAttributeIndex(int indexFrom, String tname) {
 		return getAttributeIndex(indexFrom, null, tname, FIND_BY_TAGNAME);
 	}
@@ -598,8 +648,7 @@ implements Attributable, Namespaceable, org.w3c.dom.Element {
 		if (_attrs == null)
 			return Collections.emptyList();
 
-		Pattern ptn =
-			(mode & FIND_BY_REGEX) != 0 ? Pattern.compile(name): null;
+		final Pattern ptn = getPattern(name, mode);
 
 		final List<Attribute> list = new LinkedList<Attribute>();
 		for (Attribute attr: _attrs)
@@ -638,6 +687,7 @@ implements Attributable, Namespaceable, org.w3c.dom.Element {
 	//Cloneable//
 	public Object clone() {
 		Element elem = (Element)super.clone();
+		elem._attrIndex = null;
 
 		if (_addNamespaces != null)
 			elem._addNamespaces = new LinkedHashMap<String, Namespace>(_addNamespaces);
@@ -796,11 +846,34 @@ implements Attributable, Namespaceable, org.w3c.dom.Element {
 	}
 
 	//-- AttrArray --//
-	protected class AttrArray extends NotableLinkedList<Attribute> {
+	protected class AttrArray extends NotableArrayList<Attribute> {
 		protected AttrArray() {
 		}
 
-		//-- NotableLinkedList --//
+		//-- List --//
+		public Attribute set(int index, Attribute element) {
+			try {
+				return super.set(index, element);
+			} finally {
+				onAttributesChanged();
+			}
+		}
+		public void add(int index, Attribute element) {
+			try {
+				super.add(index, element);
+			} finally {
+				onAttributesChanged();
+			}
+		}
+		public Attribute remove(int index) {
+			try {
+				return super.remove(index);
+			} finally {
+				onAttributesChanged();
+			}
+		}
+
+		//-- NotableArrayList --//
 		protected void onAdd(Attribute newElement, Attribute followingElement) {
 			checkAdd(newElement, followingElement, false);
 		}
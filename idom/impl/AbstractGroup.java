@@ -127,8 +127,7 @@ public abstract class AbstractGroup extends AbstractItem implements Group {
 		if (indexFrom < 0 || indexFrom >= _children.size())
 			return -1;
 
-		final Pattern ptn =
-			(mode & FIND_BY_REGEX) != 0 ? Pattern.compile(name): null;
+		final Pattern ptn = getPattern(name, mode);
 
 		final Iterator it = _children.listIterator(indexFrom);
 		for (int j = indexFrom; it.hasNext(); ++j) {
@@ -175,8 +174,7 @@ public abstract class AbstractGroup extends AbstractItem implements Group {
 		if (_elemMap != null && namespace == null && mode == FIND_BY_TAGNAME)
 			return getElements(name); //use the speed version
 
-		final Pattern ptn =
-			(mode & FIND_BY_REGEX) != 0 ? Pattern.compile(name): null;
+		final Pattern ptn = getPattern(name, mode);
 
 		final List<Element> list = new LinkedList<Element>();
 		for (Item item: _children) {
@@ -26,6 +26,8 @@ import org.w3c.dom.NodeList;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.UserDataHandler;
 
+import org.zkoss.util.Cache;
+import org.zkoss.util.FastReadCache;
 import org.zkoss.xml.Locator;
 import org.zkoss.xml.Nodes;
 import org.zkoss.idom.*;
@@ -107,6 +109,24 @@ implements Item, Node, Serializable, Cloneable {
 		}
 		return true;
 	}
+	/** Returns the pattern of the given regular expression, or null if
+	 * mode doesn't contain FIND_BY_REGEX.
+	 * The patterns are compiled once and cached, since the same expression
+	 * is usually used repeatedly.
+	 * @since 8.5.0
+	 */
+	protected static Pattern getPattern(String regex, int mode) {
+		if ((mode & FIND_BY_REGEX) == 0)
+			return null;
+
+		Pattern ptn = _ptns.get(regex);
+		if (ptn == null)
+			_ptns.put(regex, ptn = Pattern.compile(regex));
+		return ptn;
+	}
+	/** Map(String regex, Pattern). */
+	private static final Cache<String, Pattern> _ptns =
+		new FastReadCache<String, Pattern>(256, 4*60*60*1000);
 
 	//-- Item --//
 	public void setName(String name) {
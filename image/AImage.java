@@ -30,6 +30,7 @@ import javax.swing.ImageIcon;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,18 +108,51 @@ public class AImage implements Image, java.io.Serializable {
 		_name = name;
 		_data = data;
 
-		//retrieve format
+		//retrieve format and size from the header (without decoding)
+		final ImageProbe probe = ImageProbe.probe(data);
+		if (probe != null) {
+			_format = probe.format;
+			_width = probe.width;
+			_height = probe.height;
+		} else {
+			initByReader(name, data);
+		}
+		_ctype = getContentType(_format);
+	}
+
+	/** Retrieves the format and size with ImageIO's reader.
+	 * Only the header is read if the reader supports it.
+	 */
+	private void initByReader(String name, byte[] data) throws IOException {
 		String format = null;
+		ImageReader rd = null;
+		ImageInputStream imis = null;
 		try {
-			final ImageInputStream imis =
-				ImageIO.createImageInputStream(new ByteArrayInputStream(data));
+			imis = new MemoryCacheImageInputStream(new ByteArrayInputStream(data));
 			final Iterator it = ImageIO.getImageReaders(imis);
 			if (it.hasNext()) {
-				final ImageReader rd = (ImageReader)it.next();
+				rd = (ImageReader)it.next();
 				format = rd.getFormatName().toLowerCase(java.util.Locale.ENGLISH);
+				try {
+					rd.setInput(imis, true, true);
+					_width = rd.getWidth(0);
+					_height = rd.getHeight(0);
+				} catch (Exception ex) { //malformed, or not supported by the reader
+					final ImageIcon ii = new ImageIcon(data);
+					_width = ii.getIconWidth();
+					_height = ii.getIconHeight();
+				}
 			}
 		} catch (IOException ex) {
 			//not possible, but eat it and recover it later
+		} finally {
+			if (rd != null)
+				rd.dispose();
+			if (imis != null)
+				try {
+					imis.close();
+				} catch (IOException ex) { //ignore
+				}
 		}
 
 		if (format == null) {
@@ -129,12 +163,7 @@ public class AImage implements Image, java.io.Serializable {
 			_width = _height = 0;
 		} else { //recognized by J2SDK
 			_format = format;
-
-			final ImageIcon ii = new ImageIcon(_data);
-			_width = ii.getIconWidth();
-			_height = ii.getIconHeight();
 		}
-		_ctype = getContentType(_format);
 	}
 
 	private static String getName(URL url) {
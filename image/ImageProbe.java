@@ -0,0 +1,109 @@
+/* ImageProbe.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 17:40:36     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.image;
+
+/**
+ * Retrieves the format and the size of an image from its header,
+ * without decoding the pixels.
+ * PNG, JPEG, GIF and BMP are supported.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ final class ImageProbe {
+	/** The format name (the same as ImageIO's, in lower case). */
+	/*package*/ final String format;
+	/*package*/ final int width, height;
+
+	private ImageProbe(String format, int width, int height) {
+		this.format = format;
+		this.width = width;
+		this.height = height;
+	}
+
+	/** Probes the header of the given image, or returns null if the format
+	 * is not supported or the header is malformed.
+	 */
+	/*package*/ static ImageProbe probe(byte[] data) {
+		if (data.length >= 24 && u8(data, 0) == 0x89 && data[1] == 'P'
+		&& data[2] == 'N' && data[3] == 'G' && data[12] == 'I'
+		&& data[13] == 'H' && data[14] == 'D' && data[15] == 'R')
+			return newProbe("png", s32be(data, 16), s32be(data, 20));
+
+		if (data.length >= 10 && data[0] == 'G' && data[1] == 'I'
+		&& data[2] == 'F' && data[3] == '8')
+			return newProbe("gif", u16le(data, 6), u16le(data, 8));
+
+		if (data.length >= 26 && data[0] == 'B' && data[1] == 'M') {
+			if (s32le(data, 14) == 12) //OS/2 BITMAPCOREHEADER
+				return newProbe("bmp", u16le(data, 18), u16le(data, 20));
+			return newProbe("bmp", s32le(data, 18), Math.abs(s32le(data, 22)));
+				//height is negative if top-down
+		}
+
+		if (data.length >= 4 && u8(data, 0) == 0xff && u8(data, 1) == 0xd8)
+			return probeJPEG(data);
+		return null;
+	}
+	private static ImageProbe probeJPEG(byte[] data) {
+		for (int j = 2; j + 3 < data.length;) {
+			if (u8(data, j) != 0xff)
+				return null; //malformed
+			final int marker = u8(data, ++j);
+			++j;
+			if (marker == 0xff) { //fill byte
+				--j;
+				continue;
+			}
+			if (marker == 0x01 || (marker >= 0xd0 && marker <= 0xd8))
+				continue; //standalone marker
+			if (marker == 0xd9 || marker == 0xda)
+				return null; //EOI or SOS: no SOF found
+
+			final int len = u16be(data, j);
+			if (marker >= 0xc0 && marker <= 0xcf
+			&& marker != 0xc4 && marker != 0xc8 && marker != 0xcc) { //SOFn
+				if (j + 7 > data.length)
+					return null;
+				return newProbe("jpeg", u16be(data, j + 5), u16be(data, j + 3));
+			}
+			if (len < 2)
+				return null;
+			j += len;
+		}
+		return null;
+	}
+	private static ImageProbe newProbe(String format, int width, int height) {
+		return width > 0 && height > 0 ? new ImageProbe(format, width, height): null;
+	}
+
+	private static int u8(byte[] data, int j) {
+		return data[j] & 0xff;
+	}
+	private static int u16be(byte[] data, int j) {
+		return (u8(data, j) << 8) | u8(data, j + 1);
+	}
+	private static int u16le(byte[] data, int j) {
+		return u8(data, j) | (u8(data, j + 1) << 8);
+	}
+	private static int s32be(byte[] data, int j) {
+		return (u16be(data, j) << 16) | u16be(data, j + 2);
+	}
+	private static int s32le(byte[] data, int j) {
+		return u16le(data, j) | (u16le(data, j + 2) << 16);
+	}
+}
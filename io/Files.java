@@ -23,14 +23,24 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.io.Reader;
-import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.FileNotFoundException;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.zkoss.lang.Library;
 import org.zkoss.util.Locales;
 
 /**
@@ -60,15 +70,57 @@ public class Files {
 	 * (but its length might zero).
 	 * <p>Notice: this method is memory hungry.
 	 * <p>Notice: it doesn't close <code>in</code>
+	 * <p>If the length is known in advance (by <code>in.available()</code>,
+	 * such as a file), the content is read into an array of the exact size
+	 * without copying.
 	 */
 	public static final byte[] readAll(InputStream in)
 	throws IOException {
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		final byte[] buf = new byte[1024*16];
-		for (int v; (v = in.read(buf)) >= 0;) { //including 0
-			out.write(buf, 0, v);
+		final int avail = in.available();
+		byte[] buf = new byte[avail > 0 ? avail: 1024*16];
+		int len = 0;
+		for (;;) {
+			if (len == buf.length) {
+				if (len == avail) { //check whether the estimation is exact
+					final int b = in.read();
+					if (b < 0)
+						return buf; //no need to copy
+					buf = resize(buf, len + 1);
+					buf[len++] = (byte)b;
+					continue;
+				}
+				buf = resize(buf, len + 1);
+			}
+
+			final int v = in.read(buf, len, buf.length - len);
+			if (v < 0)
+				break;
+			len += v; //including 0
 		}
-		return out.toByteArray();
+		return len == buf.length ? buf: resize0(buf, len);
+	}
+	/** The maximal size of an array to allocate
+	 * (some VMs reserve some header words in an array). */
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	/** Returns a larger array (at least the given length) with
+	 * the content of the given array.
+	 * The length is doubled but capped at {@link #MAX_ARRAY_SIZE}
+	 * (the comparisons are overflow-conscious).
+	 */
+	private static byte[] resize(byte[] buf, int minlen) {
+		if (minlen < 0) //overflow
+			throw new OutOfMemoryError("Required array size too large");
+		int newlen = buf.length << 1; //might overflow
+		if (newlen - minlen < 0)
+			newlen = Math.max(minlen, 1024*16);
+		if (newlen - MAX_ARRAY_SIZE > 0)
+			newlen = minlen > MAX_ARRAY_SIZE ? Integer.MAX_VALUE: MAX_ARRAY_SIZE;
+		return resize0(buf, newlen);
+	}
+	private static byte[] resize0(byte[] buf, int len) {
+		final byte[] newbuf = new byte[len];
+		System.arraycopy(buf, 0, newbuf, 0, Math.min(buf.length, len));
+		return newbuf;
 	}
 
 	/** Returns all characters in the reader, never null
@@ -97,11 +149,21 @@ public class Files {
 	}
 	/** Copies an input stream to a output stream.
 	 * <p>Notice: it doesn't close <code>in</code> or <code>out</code>
+	 * <p>If both of them are file streams of a regular file, the content
+	 * is transferred by the file channels without copying to the Java heap.
 	 * @param out the destination
 	 * @param in the source
 	 */
 	public static final void copy(OutputStream out, InputStream in)
 	throws IOException {
+		if (in.getClass() == FileInputStream.class
+		&& out.getClass() == FileOutputStream.class) {
+			final FileChannel ic = ((FileInputStream)in).getChannel();
+			if (ic.size() > 0) //procfs files, FIFOs and devices report 0
+				transfer(((FileOutputStream)out).getChannel(), ic, ic.position());
+			//then drain what size() didn't tell (such as appended content)
+		}
+
 		final byte[] buf = new byte[1024*8];
 		for (int v; (v = in.read(buf)) >= 0;) {
 			if (v > 0)
@@ -144,7 +206,8 @@ public class Files {
 		if (parent != null)
 			parent.mkdirs();
 
-		final OutputStream out =
+		final OutputStream out = in.getClass() == FileInputStream.class ?
+			new FileOutputStream(dst): //transfer by channels; no buffer needed
 			new BufferedOutputStream(new FileOutputStream(dst));
 		try {
 			copy(out, in);
@@ -166,6 +229,14 @@ public class Files {
 	 * @see #copy(File, File, int)
 	 */
 	public static int CP_OVERWRITE = 0x0004;
+	/** Copies the files of a directory in parallel.
+	 * The number of threads is specified by the library property called
+	 * <code>org.zkoss.io.Files.copy.threads</code> (default: the number
+	 * of processors).
+	 * @see #copy(File, File, int)
+	 * @since 8.5.0
+	 */
+	public static int CP_PARALLEL = 0x0008;
 	/** Skips the SVN related files.
 	 * @since 5.0.0
 	 */
@@ -176,37 +247,82 @@ public class Files {
 	 * <p>If neither {@link #CP_UPDATE} nor {@link #CP_OVERWRITE},
 	 * IOException is thrown if the destination exists.
 	 *
+	 * <p>The content of a file is transferred by the file channels
+	 * without copying to the Java heap.
+	 *
 	 * @param flags any combination of {@link #CP_UPDATE}, {@link #CP_PRESERVE},
-	 * {@link #CP_OVERWRITE}.	 
+	 * {@link #CP_OVERWRITE}, {@link #CP_PARALLEL}.
 	 */
 	public static final void copy(File dst, File src, int flags)
 	throws IOException {
+		if ((flags & CP_PARALLEL) == 0) {
+			copy0(dst, src, flags, null);
+			return;
+		}
+
+		//walk the tree in this thread, and copy the files in parallel
+		final List<Future<?>> tasks = new LinkedList<Future<?>>();
+		try {
+			copy0(dst, src, flags, tasks);
+		} catch (IOException ex) {
+			cancel(tasks);
+			throw ex;
+		}
+		for (Future<?> task: tasks) {
+			try {
+				task.get();
+			} catch (ExecutionException ex) {
+				cancel(tasks);
+				final Throwable t = ex.getCause();
+				if (t instanceof IOException)
+					throw (IOException)t;
+				if (t instanceof RuntimeException)
+					throw (RuntimeException)t;
+				if (t instanceof Error)
+					throw (Error)t;
+				throw new IOException(String.valueOf(t));
+			} catch (InterruptedException ex) {
+				cancel(tasks);
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted: "+src);
+			}
+		}
+	}
+	private static void cancel(List<Future<?>> tasks) {
+		for (Future<?> task: tasks)
+			task.cancel(false);
+	}
+	/** @param tasks the tasks copying the files in parallel, or null
+	 * if not to copy in parallel.
+	 */
+	private static final void copy0(File dst, File src, int flags,
+	List<Future<?>> tasks) throws IOException {
 		if (!src.exists())
 			throw new FileNotFoundException(src.toString());
 
 		if (dst.isDirectory()) {
 			if (src.isDirectory()) {
-				copyDir(dst, src, flags);
+				copyDir(dst, src, flags, tasks);
 			} else {
-				copyFile(new File(dst, src.getName()), src, flags);
+				copyFile(new File(dst, src.getName()), src, flags, tasks);
 			}
 		} else if (dst.isFile()) {
 			if (src.isDirectory()) {
 				throw new IOException("Unable to copy a directory, "+src+", to a file, "+dst);
 			} else {
-				copyFile(dst, src, flags);
+				copyFile(dst, src, flags, tasks);
 			}
 		} else {
 			if (src.isDirectory()) {
-				copyDir(dst, src, flags);
+				copyDir(dst, src, flags, tasks);
 			} else {
-				copyFile(dst, src, flags);
+				copyFile(dst, src, flags, tasks);
 			}
 		}
 	}
 	/** Assumes both dst and src is a file. */
-	private static final void copyFile(File dst, File src, int flags)
-	throws IOException {
+	private static final void copyFile(final File dst, final File src,
+	final int flags, List<Future<?>> tasks) throws IOException {
 		if (dst.equals(src))
 			throw new IOException("Copy to the same file, "+src);
 
@@ -219,28 +335,86 @@ public class Files {
 			}
 		}
 
-		InputStream is = new BufferedInputStream(new FileInputStream(src));
+		if (tasks != null) {
+			tasks.add(getCopier().submit(new Callable<Object>() {
+				public Object call() throws IOException {
+					copyContent(dst, src, flags);
+					return null;
+				}
+			}));
+		} else {
+			copyContent(dst, src, flags);
+		}
+	}
+	private static final void copyContent(File dst, File src, int flags)
+	throws IOException {
+		final File parent = dst.getParentFile();
+		if (parent != null)
+			parent.mkdirs();
+
+		final FileInputStream in = new FileInputStream(src);
 		try {
-			copy(dst, is);
+			final FileOutputStream out = new FileOutputStream(dst);
+			try {
+				copy(out, in);
+			} finally {
+				out.close();
+			}
 		} finally {
-			close(is);
+			close(in);
 		}
 
 		if ((flags & CP_PRESERVE) != 0) {
 			dst.setLastModified(src.lastModified());
 		}
 	}
-	/** Assumes both dst and src is a directory. */
-	private static final void copyDir(File dst, File src, int flags)
+	/** Transfers the content of the source channel, starting at the given
+	 * position up to its size, to the destination channel.
+	 * The position of the source channel is moved to where it stops.
+	 * <p>The source must be a regular file with a positive size.
+	 */
+	private static void transfer(FileChannel dst, FileChannel src, long pos)
 	throws IOException {
+		for (final long size = src.size(); pos < size;) {
+			final long v = src.transferTo(pos, size - pos, dst);
+			if (v <= 0)
+				break; //shrunk (unlikely)
+			pos += v;
+		}
+		src.position(pos);
+	}
+	/** Assumes both dst and src is a directory. */
+	private static final void copyDir(File dst, File src, int flags,
+	List<Future<?>> tasks) throws IOException {
 		if ((flags & CP_SKIP_SVN) != 0 && ".svn".equals(src.getName()))
 			return; //skip
 
 		final File[] srcs = src.listFiles();
 		for (int j = 0; j < srcs.length; ++j) {
-			copy(new File(dst, srcs[j].getName()), srcs[j], flags); //recursive
+			copy0(new File(dst, srcs[j].getName()), srcs[j], flags, tasks); //recursive
+		}
+	}
+	private static synchronized ThreadPoolExecutor getCopier() {
+		if (_copier == null) {
+			final int nthd = Math.max(1, Library.getIntProperty(
+				"org.zkoss.io.Files.copy.threads",
+				Runtime.getRuntime().availableProcessors()));
+			_copier = new ThreadPoolExecutor(nthd, nthd,
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger _cnt = new AtomicInteger();
+					public Thread newThread(Runnable r) {
+						final Thread t = new Thread(r,
+							"Files-copy-" + _cnt.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			_copier.allowCoreThreadTimeOut(true);
 		}
+		return _copier;
 	}
+	private static ThreadPoolExecutor _copier;
 	/** Deletes all files under the specified path.
 	 */
 	public static final boolean deleteAll(File file) {
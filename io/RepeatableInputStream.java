@@ -27,8 +27,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +62,11 @@ import org.zkoss.lang.Library;
  * "org.zkoss.io.bufferLimitSize", the content won't be buffered,
  * and it means the read is not repeatable. By default, it is 20MB.
  * Note: the maximal value is {@link Integer#MAX_VALUE}
+ *
+ * <p>The content buffered in the memory is kept in segments, so
+ * it is neither copied when growing nor when moved to a temporary file.
+ * If the library property called "org.zkoss.io.memoryMapped" is true,
+ * the temporary file is memory-mapped when read repeatedly (since 8.5.0).
  * 
  * @author jumperchen
  * @author tomyeh
@@ -68,8 +78,12 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 
 	/*package*/ static final String BUFFER_LIMIT_SIZE = "org.zkoss.io.bufferLimitSize";
 	/*package*/ static final String MEMORY_LIMIT_SIZE = "org.zkoss.io.memoryLimitSize";
+	private static final String MEMORY_MAPPED = "org.zkoss.io.memoryMapped";
 
 	private transient InputStream _org;
+	/** The content buffered in the memory (before moved to _f). */
+	private transient Segments _mem;
+	/** The output stream to write to _f. */
 	private transient OutputStream _out;
 	private transient InputStream _in;
 	private transient File _f;
@@ -170,32 +184,42 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 		return new RepeatableURLInputStream(url);
 	}
 
-	private OutputStream getOutputStream() throws IOException {
-		if (_out == null)
-			return _nobuf ? null: (_out = new ByteArrayOutputStream());
-				//it is possible _membufsz <= 0, but OK to use memory first
-
-		if (_cntsz >= _bufmaxsz) { //too large to buffer
+	/** Prepares to buffer the given number of bytes, and returns
+	 * whether to buffer them. If true, they shall be written to _out if
+	 * _f is not null, or to _mem otherwise.
+	 */
+	private boolean prepareBuffer(int len) {
+		if (_nobuf)
+			return false;
+		if ((long)_cntsz + len > _bufmaxsz) { //too large to buffer
 			disableBuffering();
-			return null;
+			return false;
 		}
 
-		if (_f == null && _cntsz >= _memmaxsz) { //memory to file
-			try {
-				final File f =
-					new File(System.getProperty("java.io.tmpdir"), "zk");
-				if (!f.isDirectory())
-					f.mkdir();
-				_f = File.createTempFile("zk.io", ".zk.io", f);
-				final byte[] bs = ((ByteArrayOutputStream)_out).toByteArray();
-				_out = new BufferedOutputStream(new FileOutputStream(_f));
-				_out.write(bs);
-			} catch (Throwable ex) {
-				log.warn("Ignored: failed to buffer to a file, "+_f+"\nCause: "+ex.getMessage());
-				disableBuffering();
-			}
+		if (_f == null) {
+			if (_mem == null)
+				_mem = new Segments();
+			if ((long)_cntsz + len > _memmaxsz) //memory to file
+				spill();
+		}
+		_cntsz += len;
+		return !_nobuf;
+	}
+	/** Moves the content buffered in the memory to a temporary file. */
+	private void spill() {
+		try {
+			final File f =
+				new File(System.getProperty("java.io.tmpdir"), "zk");
+			if (!f.isDirectory())
+				f.mkdir();
+			_f = File.createTempFile("zk.io", ".zk.io", f);
+			_out = new BufferedOutputStream(new FileOutputStream(_f));
+			_mem.writeTo(_out); //no need to copy to a single array
+			_mem = null;
+		} catch (Throwable ex) {
+			log.warn("Ignored: failed to buffer to a file, "+_f+"\nCause: "+ex.getMessage());
+			disableBuffering();
 		}
-		return _out;
 	}
 	private void disableBuffering() {
 		_nobuf = true;
@@ -206,6 +230,7 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 			}
 			_out = null;
 		}
+		_mem = null;
 		if (_f != null) {
 			try {
 				_f.delete();
@@ -218,19 +243,84 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 	public int read() throws IOException {
 		if (_org != null) {
 			final int b = _org.read();
-			if (!_nobuf)
-				if (b >= 0) {
-					final OutputStream out = getOutputStream();
-					if (out != null) out.write(b);
-					++_cntsz;
-				}
+			if (b >= 0 && prepareBuffer(1)) {
+				if (_f != null) _out.write(b);
+				else _mem.write(b);
+			}
 			return b;
 		} else {
-			if (_in == null)
-				_in = new BufferedInputStream(new FileInputStream(_f)); //_f must be non-null
+			return getReplay().read();
+		}
+	}
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (_org != null) {
+			final int n = _org.read(b, off, len);
+			if (n > 0 && prepareBuffer(n)) {
+				if (_f != null) _out.write(b, off, n);
+				else _mem.write(b, off, n);
+			}
+			return n;
+		} else {
+			return getReplay().read(b, off, len);
+		}
+	}
+	public long skip(long n) throws IOException {
+		if (n <= 0)
+			return 0;
+		if (_org == null)
+			return getReplay().skip(n);
 
-			return _in.read();
+		//the skipped content has to be buffered, too
+		final byte[] buf = new byte[(int)Math.min(n, 8192)];
+		long skipped = 0;
+		for (int v; skipped < n
+		&& (v = read(buf, 0, (int)Math.min(n - skipped, buf.length))) >= 0;)
+			skipped += v;
+		return skipped;
+	}
+	public int available() throws IOException {
+		return _org != null ? _org.available(): getReplay().available();
+	}
+	/** Reads all remaining bytes and writes them to the given output stream.
+	 * If it is read repeatedly and the content is buffered in the memory,
+	 * the segments are written directly without copying.
+	 * @return the number of bytes transferred
+	 * @since 8.5.0
+	 */
+	public long transferTo(OutputStream out) throws IOException {
+		if (_org == null) {
+			final InputStream in = getReplay();
+			if (in instanceof SegmentInputStream)
+				return ((SegmentInputStream)in).transferTo(out);
 		}
+
+		final byte[] buf = new byte[8192];
+		long cnt = 0;
+		for (int v; (v = read(buf, 0, buf.length)) >= 0;) {
+			out.write(buf, 0, v);
+			cnt += v;
+		}
+		return cnt;
+	}
+	/** Returns the input stream to read the buffered content repeatedly.
+	 * It is called only if _org is null.
+	 */
+	private InputStream getReplay() throws IOException {
+		if (_in == null) { //_f must be non-null
+			if ("true".equals(Library.getProperty(MEMORY_MAPPED))) {
+				final RandomAccessFile raf = new RandomAccessFile(_f, "r");
+				try {
+					final FileChannel fc = raf.getChannel();
+					_in = new MappedInputStream(
+						fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+				} finally {
+					raf.close();
+				}
+			} else {
+				_in = new BufferedInputStream(new FileInputStream(_f));
+			}
+		}
+		return _in;
 	}
 
 	/** Closes the current access, and the next call of {@link #close}
@@ -249,16 +339,17 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 					disableBuffering();
 					return;
 				}
-				if (_f == null)
-					_in = new ByteArrayInputStream(
-						((ByteArrayOutputStream)_out).toByteArray());
-					//we don't initialize _in if _f is not null
-					//to reduce memory use (after all, read might not be called)
+				//we don't initialize _in if _f is not null
+				//to reduce memory use (after all, read might not be called)
 				_out = null;
 				_org = null;
+			} else if (_mem != null) {
+				_in = new SegmentInputStream(_mem); //no copy
+				_mem = null;
+				_org = null;
 			}
 		} else if (_in != null) {
-			if (_f != null) {
+			if (_in instanceof BufferedInputStream) { //reading _f
 				_in.close();
 				_in = null;
 			} else {
@@ -274,7 +365,8 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 		s.defaultWriteObject();
 		if (_org != null) {
 			// write to buffer
-			while(read() != -1);
+			final byte[] buf = new byte[8192];
+			while (read(buf, 0, buf.length) >= 0);
 		}
 
 		close();
@@ -327,6 +419,15 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 		public int read() throws IOException {
 			return _org.read();
 		}
+		public int read(byte[] b, int off, int len) throws IOException {
+			return _org.read(b, off, len);
+		}
+		public long skip(long n) throws IOException {
+			return _org.skip(n);
+		}
+		public int available() throws IOException {
+			return _org.available();
+		}
 		/** Closes the current access, and the next call of {@link #read}
 		 * re-opens the buffered input stream.
 		 */
@@ -350,9 +451,21 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 		}
 
 		public int read() throws IOException {
+			return getInputStream().read();
+		}
+		public int read(byte[] b, int off, int len) throws IOException {
+			return getInputStream().read(b, off, len);
+		}
+		public long skip(long n) throws IOException {
+			return getInputStream().skip(n);
+		}
+		public int available() throws IOException {
+			return getInputStream().available();
+		}
+		private InputStream getInputStream() throws IOException {
 			if (_in == null)
 				_in = new BufferedInputStream(new FileInputStream(_file));
-			return _in.read();
+			return _in;
 		}
 		/** Closes the current access, and the next call of {@link #read}
 		 * re-opens the buffered input stream.
@@ -380,12 +493,24 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 		}
 
 		public int read() throws IOException {
+			return getInputStream().read();
+		}
+		public int read(byte[] b, int off, int len) throws IOException {
+			return getInputStream().read(b, off, len);
+		}
+		public long skip(long n) throws IOException {
+			return getInputStream().skip(n);
+		}
+		public int available() throws IOException {
+			return getInputStream().available();
+		}
+		private InputStream getInputStream() throws IOException {
 			if (_in == null) {
 				_in = _url.openStream();
 				if (_in == null) throw new FileNotFoundException(_url.toExternalForm());
 				_in = new BufferedInputStream(_in);
 			}
-			return _in.read();
+			return _in;
 		}
 		/** Closes the current access, and the next call of {@link #read}
 		 * re-opens the buffered input stream.
@@ -403,4 +528,173 @@ public class RepeatableInputStream extends InputStream implements Repeatable,
 			super.finalize();
 		}
 	}
+
+	/** The content buffered in the memory. It is kept in segments (with
+	 * growing sizes), so the content is never copied when growing.
+	 */
+	private static class Segments {
+		private static final int MIN_SIZE = 4096, MAX_SIZE = 1024 * 1024;
+		private final List<byte[]> _bufs = new ArrayList<byte[]>();
+		/** The last segment. */
+		private byte[] _cur;
+		/** The number of bytes in _cur. */
+		private int _curlen;
+		private int _size;
+
+		private void write(int b) {
+			if (_cur == null || _curlen == _cur.length)
+				grow();
+			_cur[_curlen++] = (byte)b;
+			++_size;
+		}
+		private void write(byte[] b, int off, int len) {
+			while (len > 0) {
+				if (_cur == null || _curlen == _cur.length)
+					grow();
+				final int n = Math.min(len, _cur.length - _curlen);
+				System.arraycopy(b, off, _cur, _curlen, n);
+				_curlen += n;
+				_size += n;
+				off += n;
+				len -= n;
+			}
+		}
+		private void grow() {
+			_bufs.add(_cur = new byte[_cur == null ? MIN_SIZE:
+				Math.min(_cur.length << 1, MAX_SIZE)]);
+			_curlen = 0;
+		}
+		/** Returns the number of bytes in the given segment. */
+		private int length(int j) {
+			return j == _bufs.size() - 1 ? _curlen: _bufs.get(j).length;
+		}
+		private void writeTo(OutputStream out) throws IOException {
+			for (int j = 0, n = _bufs.size(); j < n; ++j)
+				out.write(_bufs.get(j), 0, length(j));
+		}
+	}
+	/** An input stream to read {@link Segments}.
+	 * {@link #reset} moves back to the beginning (unless {@link #mark}
+	 * is called).
+	 */
+	private static class SegmentInputStream extends InputStream {
+		private final Segments _segs;
+		/** The current segment, the position in it, and the offset
+		 * from the beginning. */
+		private int _seg, _pos, _off;
+		private int _markSeg, _markPos, _markOff;
+
+		private SegmentInputStream(Segments segs) {
+			_segs = segs;
+		}
+		/** Moves to the next segment if the current one is consumed.
+		 * @return false if no more data
+		 */
+		private boolean next() {
+			if (_off >= _segs._size)
+				return false;
+			if (_pos == _segs.length(_seg)) {
+				++_seg;
+				_pos = 0;
+			}
+			return true;
+		}
+		public int read() {
+			if (!next())
+				return -1;
+			++_off;
+			return _segs._bufs.get(_seg)[_pos++] & 0xff;
+		}
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			int cnt = 0;
+			while (cnt < len && next()) {
+				final int n = Math.min(len - cnt, _segs.length(_seg) - _pos);
+				System.arraycopy(_segs._bufs.get(_seg), _pos, b, off + cnt, n);
+				_pos += n;
+				_off += n;
+				cnt += n;
+			}
+			return cnt > 0 ? cnt: -1;
+		}
+		public long skip(long n) {
+			long cnt = 0;
+			while (cnt < n && next()) {
+				final int v = (int)Math.min(n - cnt, _segs.length(_seg) - _pos);
+				_pos += v;
+				_off += v;
+				cnt += v;
+			}
+			return cnt;
+		}
+		public int available() {
+			return _segs._size - _off;
+		}
+		public long transferTo(OutputStream out) throws IOException {
+			long cnt = 0;
+			while (next()) {
+				final int n = _segs.length(_seg) - _pos;
+				out.write(_segs._bufs.get(_seg), _pos, n);
+				_pos += n;
+				_off += n;
+				cnt += n;
+			}
+			return cnt;
+		}
+		public boolean markSupported() {
+			return true;
+		}
+		public void mark(int readlimit) {
+			_markSeg = _seg;
+			_markPos = _pos;
+			_markOff = _off;
+		}
+		public void reset() {
+			_seg = _markSeg;
+			_pos = _markPos;
+			_off = _markOff;
+		}
+	}
+	/** An input stream to read a memory-mapped file.
+	 * {@link #reset} moves back to the beginning (unless {@link #mark}
+	 * is called).
+	 */
+	private static class MappedInputStream extends InputStream {
+		private final ByteBuffer _buf;
+		private int _mark;
+
+		private MappedInputStream(ByteBuffer buf) {
+			_buf = buf;
+		}
+		public int read() {
+			return _buf.hasRemaining() ? _buf.get() & 0xff: -1;
+		}
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			final int n = Math.min(len, _buf.remaining());
+			if (n == 0)
+				return -1;
+			_buf.get(b, off, n);
+			return n;
+		}
+		public long skip(long n) {
+			final int v = (int)Math.max(0, Math.min(n, _buf.remaining()));
+			_buf.position(_buf.position() + v);
+			return v;
+		}
+		public int available() {
+			return _buf.remaining();
+		}
+		public boolean markSupported() {
+			return true;
+		}
+		public void mark(int readlimit) {
+			_mark = _buf.position();
+		}
+		public void reset() {
+			_buf.position(_mark);
+		}
+	}
 }
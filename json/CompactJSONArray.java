@@ -0,0 +1,66 @@
+/* CompactJSONArray.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 17:12:40 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A compact JSON array. The JSON text is the same as {@link JSONArray}.
+ *
+ * <p>Unlike {@link JSONArray}, which is a linked list, the elements are
+ * stored in an array, so no node is allocated for each element, and
+ * accessing an element by index takes constant time.
+ * It is created by {@link org.zkoss.json.parser.CompactContainerFactory}.
+ *
+ * <p>Not thread safe.
+ * @author agent
+ * @since 8.5.0
+ */
+public class CompactJSONArray extends ArrayList<Object>
+implements JSONStreamAware {
+	private static final long serialVersionUID = 20261017L;
+
+	public CompactJSONArray() {
+	}
+	/** Constructs an empty array with the specified initial capacity.
+	 */
+	public CompactJSONArray(int initialCapacity) {
+		super(initialCapacity);
+	}
+	/** Constructs an array containing the elements of the given collection.
+	 */
+	public CompactJSONArray(Collection<?> c) {
+		super(c);
+	}
+
+	//JSONAware//
+	/** Encodes this array to a JSON string.
+	 * It is the same as {@link #toString()}.
+	 */
+	public String toJSONString() {
+		return JSONArray.toJSONString(this);
+	}
+	public void writeJSONString(Appendable out) throws IOException {
+		final JSONWriter writer = new JSONWriter(out);
+		writer.writeCollection(this);
+		writer.flush();
+	}
+	/** Encodes this array to a JSON string.
+	 * It is the same as {@link #toJSONString()}.
+	 */
+	public String toString() {
+		return toJSONString();
+	}
+}
@@ -0,0 +1,296 @@
+/* CompactJSONObject.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 17:05:52 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact JSON object. Key value pairs are in the order of adding,
+ * the same as {@link JSONObject}, and the JSON text is the same too.
+ *
+ * <p>Unlike {@link JSONObject}, the keys and values are stored in two
+ * arrays, so no entry is allocated for each pair.
+ * A key is looked up by scanning the keys if there are only a few pairs,
+ * or by an open-addressed hash index otherwise.
+ * It is suitable for the small objects, such as the objects in
+ * a parsed AU request (see {@link org.zkoss.json.parser.CompactContainerFactory}).
+ * Removing a pair takes linear time.
+ *
+ * <p>Not thread safe.
+ * @author agent
+ * @since 8.5.0
+ */
+public class CompactJSONObject extends AbstractMap<Object, Object>
+implements JSONStreamAware, Cloneable, java.io.Serializable {
+	private static final long serialVersionUID = 20261017L;
+	/** The number of pairs to start using the hash index. */
+	private static final int INDEX_THRESHOLD = 8;
+
+	private Object[] _keys, _values;
+	private int _size;
+	/** The hash index (open addressing with linear probing). Each slot
+	 * is the position in _keys plus one, or 0 if empty.
+	 * It is null if _size is not more than INDEX_THRESHOLD. */
+	private transient int[] _index;
+	private transient int _modCount;
+	private transient Set<Map.Entry<Object, Object>> _entrySet;
+
+	public CompactJSONObject() {
+		this(4);
+	}
+	/** Constructs an empty object with the specified initial capacity.
+	 */
+	public CompactJSONObject(int initialCapacity) {
+		if (initialCapacity < 1)
+			initialCapacity = 1;
+		_keys = new Object[initialCapacity];
+		_values = new Object[initialCapacity];
+	}
+
+	private static int hash(Object key) {
+		if (key == null)
+			return 0;
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+	private static boolean eq(Object a, Object b) {
+		return a == b || (a != null && a.equals(b));
+	}
+	/** Returns the position of the given key, or -1 if not found. */
+	private int indexOf(Object key) {
+		if (_index == null) {
+			for (int j = 0; j < _size; ++j)
+				if (eq(key, _keys[j]))
+					return j;
+			return -1;
+		}
+
+		final int mask = _index.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			final int pos = _index[slot] - 1;
+			if (pos < 0)
+				return -1;
+			if (eq(key, _keys[pos]))
+				return pos;
+		}
+	}
+	private void rebuildIndex() {
+		if (_size <= INDEX_THRESHOLD) {
+			_index = null;
+			return;
+		}
+
+		int cap = 16;
+		while (cap < _size * 2)
+			cap <<= 1;
+		_index = new int[cap];
+		for (int j = 0; j < _size; ++j)
+			addIndex(j);
+	}
+	private void addIndex(int pos) {
+		final int mask = _index.length - 1;
+		int slot = hash(_keys[pos]) & mask;
+		while (_index[slot] != 0)
+			slot = (slot + 1) & mask;
+		_index[slot] = pos + 1;
+	}
+	private void removeAt(int pos) {
+		final int cnt = _size - pos - 1;
+		if (cnt > 0) {
+			System.arraycopy(_keys, pos + 1, _keys, pos, cnt);
+			System.arraycopy(_values, pos + 1, _values, pos, cnt);
+		}
+		_keys[--_size] = null;
+		_values[_size] = null;
+		++_modCount;
+		if (_index != null)
+			rebuildIndex();
+	}
+
+	//Map//
+	public int size() {
+		return _size;
+	}
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+	public Object get(Object key) {
+		final int pos = indexOf(key);
+		return pos >= 0 ? _values[pos]: null;
+	}
+	public Object put(Object key, Object value) {
+		final int pos = indexOf(key);
+		if (pos >= 0) {
+			final Object old = _values[pos];
+			_values[pos] = value;
+			return old;
+		}
+
+		if (_size == _keys.length) {
+			final int cap = _size + (_size >> 1) + 1;
+			final Object[] keys = new Object[cap], values = new Object[cap];
+			System.arraycopy(_keys, 0, keys, 0, _size);
+			System.arraycopy(_values, 0, values, 0, _size);
+			_keys = keys;
+			_values = values;
+		}
+		_keys[_size] = key;
+		_values[_size++] = value;
+		++_modCount;
+		if (_index != null && _size * 2 <= _index.length)
+			addIndex(_size - 1);
+		else if (_size > INDEX_THRESHOLD)
+			rebuildIndex();
+		return null;
+	}
+	public Object remove(Object key) {
+		final int pos = indexOf(key);
+		if (pos < 0)
+			return null;
+		final Object old = _values[pos];
+		removeAt(pos);
+		return old;
+	}
+	public void clear() {
+		for (int j = 0; j < _size; ++j)
+			_keys[j] = _values[j] = null;
+		_size = 0;
+		_index = null;
+		++_modCount;
+	}
+	public Set<Map.Entry<Object, Object>> entrySet() {
+		if (_entrySet == null)
+			_entrySet = new EntrySet();
+		return _entrySet;
+	}
+
+	private class EntrySet extends AbstractSet<Map.Entry<Object, Object>> {
+		public int size() {
+			return _size;
+		}
+		public void clear() {
+			CompactJSONObject.this.clear();
+		}
+		public Iterator<Map.Entry<Object, Object>> iterator() {
+			return new EntryIter();
+		}
+	}
+	private class EntryIter implements Iterator<Map.Entry<Object, Object>> {
+		private int _next, _last = -1, _expectedModCount = _modCount;
+
+		public boolean hasNext() {
+			return _next < _size;
+		}
+		public Map.Entry<Object, Object> next() {
+			if (_expectedModCount != _modCount)
+				throw new ConcurrentModificationException();
+			if (_next >= _size)
+				throw new NoSuchElementException();
+			return new Entry(_last = _next++);
+		}
+		public void remove() {
+			if (_last < 0)
+				throw new IllegalStateException();
+			if (_expectedModCount != _modCount)
+				throw new ConcurrentModificationException();
+			removeAt(_last);
+			_next = _last;
+			_last = -1;
+			_expectedModCount = _modCount;
+		}
+	}
+	private class Entry implements Map.Entry<Object, Object> {
+		private final int _pos;
+
+		private Entry(int pos) {
+			_pos = pos;
+		}
+		public Object getKey() {
+			return _keys[_pos];
+		}
+		public Object getValue() {
+			return _values[_pos];
+		}
+		public Object setValue(Object value) {
+			final Object old = _values[_pos];
+			_values[_pos] = value;
+			return old;
+		}
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			final Map.Entry e = (Map.Entry)o;
+			return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+		}
+		public int hashCode() {
+			final Object key = getKey(), value = getValue();
+			return (key == null ? 0: key.hashCode())
+				^ (value == null ? 0: value.hashCode());
+		}
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	//JSONAware//
+	/** Encodes this object to a JSON string.
+	 * It is the same as {@link #toString()}.
+	 */
+	public String toJSONString() {
+		return JSONObject.toJSONString(this);
+	}
+	public void writeJSONString(Appendable out) throws IOException {
+		final JSONWriter writer = new JSONWriter(out);
+		writer.writeMap(this);
+		writer.flush();
+	}
+	/** Encodes this object to a JSON string.
+	 * It is the same as {@link #toJSONString()}.
+	 */
+	public String toString() {
+		return toJSONString();
+	}
+
+	//Cloneable//
+	public Object clone() {
+		final CompactJSONObject clone;
+		try {
+			clone = (CompactJSONObject)super.clone();
+		} catch (CloneNotSupportedException ex) {
+			throw new InternalError();
+		}
+		clone._keys = _keys.clone();
+		clone._values = _values.clone();
+		clone._index = _index != null ? _index.clone(): null;
+		clone._entrySet = null;
+		clone._modCount = 0;
+		return clone;
+	}
+
+	//Serializable//
+	private void readObject(java.io.ObjectInputStream s)
+	throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		rebuildIndex();
+	}
+}
@@ -6,7 +6,6 @@ package org.zkoss.json;
 
 import java.util.Collection;
 import java.util.LinkedList;
-import java.util.Iterator;
 import java.util.List;
 
 
@@ -31,25 +30,12 @@ public class JSONArray extends LinkedList<Object> implements List<Object>, JSONA
 		if(collection == null)
 			return "null";
 		
-        boolean first = true;
-        StringBuffer sb = new StringBuffer();
-		Iterator iter=collection.iterator();
-        
-        sb.append('[');
-		while(iter.hasNext()){
-            if(first)
-                first = false;
-            else
-                sb.append(',');
-            
-			Object value=iter.next();
-			if(value == null){
-				sb.append("null");
-				continue;
-			}
-			sb.append(JSONValue.toJSONString(value));
+		final StringBuilder sb = new StringBuilder();
+		try {
+			new JSONWriter(sb).writeCollection(collection);
+		} catch (java.io.IOException ex) {
+			throw new RuntimeException(ex); //not possible
 		}
-        sb.append(']');
 		return sb.toString();
 	}
 	
@@ -60,12 +46,13 @@ public class JSONArray extends LinkedList<Object> implements List<Object>, JSONA
 		if (ary == null)
 			return "null";
 
-		final StringBuffer sb = new StringBuffer().append('[');
-		for (int j = 0; j < ary.length; j++) {
-			if (j > 0) sb.append(',');
-			sb.append(JSONValue.toJSONString(ary[j]));
+		final StringBuilder sb = new StringBuilder();
+		try {
+			new JSONWriter(sb).writeArray(ary);
+		} catch (java.io.IOException ex) {
+			throw new RuntimeException(ex); //not possible
 		}
-		return sb.append(']').toString();
+		return sb.toString();
 	}
 	/** Convert an integer array to JSON text.
 	 * <p>patched by tomyeh
@@ -5,7 +5,6 @@
 package org.zkoss.json;
 
 import java.util.LinkedHashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -30,21 +29,12 @@ public class JSONObject extends LinkedHashMap<Object, Object> implements Map<Obj
 		if(map == null)
 			return "null";
 		
-        StringBuffer sb = new StringBuffer();
-        boolean first = true;
-		Iterator iter=map.entrySet().iterator();
-		
-        sb.append('{');
-		while(iter.hasNext()){
-            if(first)
-                first = false;
-            else
-                sb.append(',');
-            
-			Map.Entry entry=(Map.Entry)iter.next();
-			toJSONString(String.valueOf(entry.getKey()),entry.getValue(), sb);
+		final StringBuilder sb = new StringBuilder();
+		try {
+			new JSONWriter(sb).writeMap(map);
+		} catch (java.io.IOException ex) {
+			throw new RuntimeException(ex); //not possible
 		}
-        sb.append('}');
 		return sb.toString();
 	}
 	
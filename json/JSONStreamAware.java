@@ -0,0 +1,31 @@
+/* JSONStreamAware.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 16:10:25 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json;
+
+import java.io.IOException;
+
+/**
+ * Beans that support customized output of JSON text directly to
+ * a stream shall implement this interface.
+ * It is called by {@link JSONWriter} instead of {@link JSONAware#toJSONString},
+ * so no intermediate string is created.
+ * <p>The output must be the same as {@link JSONAware#toJSONString}.
+ * @author agent
+ * @since 8.5.0
+ */
+public interface JSONStreamAware extends JSONAware {
+	/**
+	 * Writes the JSON text to the given output.
+	 */
+	void writeJSONString(Appendable out) throws IOException;
+}
@@ -73,60 +73,27 @@ public class JSONValue {
 		if(value instanceof String)
 			return "\""+escape((String)value)+"\"";
 		
-		if(value instanceof Double){
-			if(((Double)value).isInfinite() || ((Double)value).isNaN())
-				return "null";
-			else
-				return value.toString();
-		}
-		
-		if(value instanceof Float){
-			if(((Float)value).isInfinite() || ((Float)value).isNaN())
-				return "null";
-			else
-				return value.toString();
-		}		
-		
-		if(value instanceof Number)
-			return value.toString();
-		
-		if(value instanceof Boolean)
-			return value.toString();
-		
-		if((value instanceof JSONAware))
-			return ((JSONAware)value).toJSONString();
-		
-		if(value instanceof Map)
-			return JSONObject.toJSONString((Map)value);
-		
-		if(value instanceof Collection) //proposed enhancement F65-ZK-1866 use Collection instead of List
-			return JSONArray.toJSONString((Collection)value);
-		
-		if (value.getClass().isArray()) {
-			if (value instanceof Object[])
-				return JSONArray.toJSONString((Object[])value);
-			if (value instanceof int[])
-				return JSONArray.toJSONString((int[])value);
-			if (value instanceof double[])
-				return JSONArray.toJSONString((double[])value);
-			if (value instanceof long[])
-				return JSONArray.toJSONString((long[])value);
-			if (value instanceof float[])
-				return JSONArray.toJSONString((float[])value);
-			if (value instanceof short[])
-				return JSONArray.toJSONString((short[])value);
-			if (value instanceof byte[])
-				return JSONArray.toJSONString((byte[])value);
-			if (value instanceof boolean[])
-				return JSONArray.toJSONString((boolean[])value);
-			if (value instanceof char[])
-				return JSONArray.toJSONString((char[])value);
+		final StringBuilder sb = new StringBuilder();
+		try {
+			new JSONWriter(sb).write(value);
+		} catch (java.io.IOException ex) {
+			throw new RuntimeException(ex); //not possible
 		}
-
-		if(value instanceof Enum) //proposed enhancement F65-ZK-1866 provide a default Enum conversion 
-			return "\"" + escape(value.toString()) + "\"";
-		
-		return value.toString();
+		return sb.toString();
+	}
+	/**
+	 * Encodes an object to JSON text, and writes it directly to the given
+	 * output. The result is the same as {@link #toJSONString(Object)}.
+	 * <p>If the output is a {@link java.io.Writer}, it is flushed after
+	 * written.
+	 * @see JSONWriter
+	 * @since 8.5.0
+	 */
+	public static void writeJSONString(Object value, Appendable out)
+	throws java.io.IOException {
+		final JSONWriter writer = new JSONWriter(out);
+		writer.write(value);
+		writer.flush();
 	}
 	/** Converts an integer to JSON text
 	 * <p>patched by tomyeh
@@ -0,0 +1,343 @@
+/* JSONWriter.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 16:02:41 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A writer to encode objects to JSON text directly to an output, such as
+ * a {@link Writer}, a {@link OutputStream} or a {@link StringBuilder}.
+ * Unlike {@link JSONValue#toJSONString}, no intermediate string is created
+ * for nested maps, collections and arrays.
+ *
+ * <p>The type conversions are the same as {@link JSONValue#toJSONString}.
+ * If an object implements {@link JSONStreamAware}, its
+ * {@link JSONStreamAware#writeJSONString} is called. Otherwise, if it
+ * implements {@link JSONAware}, the result of {@link JSONAware#toJSONString}
+ * is written.
+ *
+ * <p>If the output is a {@link Writer} (or a {@link OutputStream}),
+ * the output is buffered, so {@link #flush} must be called after writing.
+ *
+ * <p>Not thread safe.
+ * @author agent
+ * @since 8.5.0
+ */
+public class JSONWriter implements Flushable {
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+	private static final int BUFFER_SIZE = 2048;
+
+	private final Appendable _out;
+	/** The buffer if the output is a Writer, or null if not buffered. */
+	private final char[] _buf;
+	private final Writer _writer;
+	private int _len;
+
+	/** Constructs a writer that writes to the given output.
+	 * If the output is a {@link Writer}, the output is buffered.
+	 */
+	public JSONWriter(Appendable out) {
+		if (out == null)
+			throw new IllegalArgumentException();
+		_out = out;
+		if (out instanceof Writer) {
+			_writer = (Writer)out;
+			_buf = new char[BUFFER_SIZE];
+		} else {
+			_writer = null;
+			_buf = null;
+		}
+	}
+	/** Constructs a writer that writes to the given output stream
+	 * in UTF-8.
+	 */
+	public JSONWriter(OutputStream out) {
+		this(newWriter(out));
+	}
+	private static Writer newWriter(OutputStream out) {
+		try {
+			return new OutputStreamWriter(out, "UTF-8");
+		} catch (java.io.UnsupportedEncodingException ex) {
+			throw new RuntimeException(ex); //not possible
+		}
+	}
+
+	/** Returns the output.
+	 */
+	public Appendable getOutput() {
+		return _out;
+	}
+
+	/** Writes the buffered text to the output, and flushes the output
+	 * if it is {@link Flushable}.
+	 */
+	public void flush() throws IOException {
+		flushBuffer();
+		if (_out instanceof Flushable)
+			((Flushable)_out).flush();
+	}
+	private void flushBuffer() throws IOException {
+		if (_len > 0) {
+			_writer.write(_buf, 0, _len);
+			_len = 0;
+		}
+	}
+
+	//raw output//
+	private void put(char c) throws IOException {
+		if (_buf == null) {
+			_out.append(c);
+		} else {
+			if (_len == _buf.length)
+				flushBuffer();
+			_buf[_len++] = c;
+		}
+	}
+	private void put(String s) throws IOException {
+		put(s, 0, s.length());
+	}
+	private void put(String s, int start, int end) throws IOException {
+		if (_buf == null) {
+			_out.append(s, start, end);
+		} else {
+			for (;;) {
+				final int n = Math.min(end - start, _buf.length - _len);
+				s.getChars(start, start + n, _buf, _len);
+				_len += n;
+				if ((start += n) >= end)
+					break;
+				flushBuffer();
+			}
+		}
+	}
+
+	//JSON//
+	/** Writes an object as JSON text.
+	 * @see JSONValue#toJSONString(Object)
+	 */
+	public JSONWriter write(Object value) throws IOException {
+		if (value == null) {
+			put("null");
+		} else if (value instanceof String) {
+			writeString((String)value);
+		} else if (value instanceof Double) {
+			final Double d = (Double)value;
+			put(d.isInfinite() || d.isNaN() ? "null": d.toString());
+		} else if (value instanceof Float) {
+			final Float f = (Float)value;
+			put(f.isInfinite() || f.isNaN() ? "null": f.toString());
+		} else if (value instanceof Number || value instanceof Boolean) {
+			put(value.toString());
+		} else if (value instanceof JSONAware) {
+			writeJSONAware((JSONAware)value);
+		} else if (value instanceof Map) {
+			writeMap((Map)value);
+		} else if (value instanceof Collection) {
+			writeCollection((Collection)value);
+		} else if (value.getClass().isArray()) {
+			writeArray(value);
+		} else if (value instanceof Enum) {
+			writeString(value.toString());
+		} else {
+			put(value.toString());
+		}
+		return this;
+	}
+	private void writeJSONAware(JSONAware value) throws IOException {
+		//Don't stream a subclass of JSONObject and JSONArray since
+		//it might override toJSONString
+		final Class<?> cls = value.getClass();
+		if (cls == JSONObject.class || cls == CompactJSONObject.class)
+			writeMap((Map)value);
+		else if (cls == JSONArray.class || cls == CompactJSONArray.class)
+			writeCollection((Collection)value);
+		else if (value instanceof JSONStreamAware) {
+			flushBuffer(); //so it can write to the output directly
+			((JSONStreamAware)value).writeJSONString(_out);
+		} else
+			put(value.toJSONString());
+	}
+	/** Writes a map as a JSON object.
+	 * If map is null, "null" is written.
+	 * @see JSONObject#toJSONString(Map)
+	 */
+	public JSONWriter writeMap(Map map) throws IOException {
+		if (map == null) {
+			put("null");
+			return this;
+		}
+
+		put('{');
+		boolean first = true;
+		for (Iterator it = map.entrySet().iterator(); it.hasNext();) {
+			if (first)
+				first = false;
+			else
+				put(',');
+
+			final Map.Entry me = (Map.Entry)it.next();
+			writeString(String.valueOf(me.getKey()));
+			put(':');
+			write(me.getValue());
+		}
+		put('}');
+		return this;
+	}
+	/** Writes a collection as a JSON array.
+	 * If collection is null, "null" is written.
+	 * @see JSONArray#toJSONString(Collection)
+	 */
+	public JSONWriter writeCollection(Collection collection) throws IOException {
+		if (collection == null) {
+			put("null");
+			return this;
+		}
+
+		put('[');
+		boolean first = true;
+		for (Iterator it = collection.iterator(); it.hasNext();) {
+			if (first)
+				first = false;
+			else
+				put(',');
+			write(it.next());
+		}
+		put(']');
+		return this;
+	}
+	/** Writes an array (either an object array or a primitive array)
+	 * as a JSON array.
+	 * If ary is null, "null" is written.
+	 * @exception IllegalArgumentException if ary is not an array
+	 */
+	public JSONWriter writeArray(Object ary) throws IOException {
+		if (ary == null) {
+			put("null");
+			return this;
+		}
+
+		put('[');
+		if (ary instanceof Object[]) {
+			final Object[] a = (Object[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				write(a[j]);
+			}
+		} else if (ary instanceof int[]) {
+			final int[] a = (int[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Integer.toString(a[j]));
+			}
+		} else if (ary instanceof long[]) {
+			final long[] a = (long[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Long.toString(a[j]));
+			}
+		} else if (ary instanceof double[]) {
+			final double[] a = (double[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Double.toString(a[j]));
+			}
+		} else if (ary instanceof float[]) {
+			final float[] a = (float[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Float.toString(a[j]));
+			}
+		} else if (ary instanceof short[]) {
+			final short[] a = (short[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Integer.toString(a[j]));
+			}
+		} else if (ary instanceof byte[]) {
+			final byte[] a = (byte[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(Integer.toString(a[j]));
+			}
+		} else if (ary instanceof boolean[]) {
+			final boolean[] a = (boolean[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				put(a[j] ? "true": "false");
+			}
+		} else if (ary instanceof char[]) {
+			final char[] a = (char[])ary;
+			for (int j = 0; j < a.length; j++) {
+				if (j > 0) put(',');
+				writeString(String.valueOf(a[j]));
+			}
+		} else {
+			throw new IllegalArgumentException("Not an array: " + ary.getClass());
+		}
+		put(']');
+		return this;
+	}
+	/** Writes a string as a JSON string, i.e., quoted and escaped.
+	 * If s is null, "null" is written.
+	 */
+	public JSONWriter writeString(String s) throws IOException {
+		if (s == null) {
+			put("null");
+			return this;
+		}
+
+		put('"');
+		int start = 0;
+		for (int j = 0, len = s.length(); j < len; ++j) {
+			final char ch = s.charAt(j);
+			final String esc;
+			switch (ch) {
+			case '"': esc = "\\\""; break;
+			case '\\': esc = "\\\\"; break;
+			case '\b': esc = "\\b"; break;
+			case '\f': esc = "\\f"; break;
+			case '\n': esc = "\\n"; break;
+			case '\r': esc = "\\r"; break;
+			case '\t': esc = "\\t"; break;
+			case '/': esc = "\\/"; break;
+			default:
+				//the same as JSONValue.escape
+				if (ch <= 0x1f || (ch >= 0x7f && ch <= 0x9f)
+				|| (ch >= 0x2000 && ch <= 0x20ff)) {
+					put(s, start, j);
+					start = j + 1;
+					put('\\');
+					put('u');
+					put(HEX[(ch >> 12) & 0xf]);
+					put(HEX[(ch >> 8) & 0xf]);
+					put(HEX[(ch >> 4) & 0xf]);
+					put(HEX[ch & 0xf]);
+				}
+				continue;
+			}
+			put(s, start, j);
+			start = j + 1;
+			put(esc);
+		}
+		put(s, start, s.length());
+		put('"');
+		return this;
+	}
+}
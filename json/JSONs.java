@@ -14,9 +14,9 @@ package org.zkoss.json;
 
 import java.util.Locale;
 import java.util.Date;
-import java.text.SimpleDateFormat;
 import java.text.ParseException;
 
+import org.zkoss.text.FormatCache;
 import org.zkoss.util.TimeZones;
 
 /**
@@ -27,6 +27,8 @@ import org.zkoss.util.TimeZones;
  * @since 5.0.5
  */
 public class JSONs {
+	private static final String DATE_PATTERN = "yyyy.M.d.H.m.s.S";
+
 	/** Marshalls a Date object to a string, such that it can be add
 	 * to {@link JSONArray} or {@link JSONObject} (a.k.a., JSON-ize).
 	 * <p>It is used with {@link #j2d}. {@link #d2j} is used to JSON-ize a Date
@@ -39,7 +41,7 @@ public class JSONs {
 	 * the time zone is different).
 	 */
 	public static final String d2j(Date d) {
-		return getDateFormat().format(d);
+		return FormatCache.formatDate(d, DATE_PATTERN, Locale.US, TimeZones.getCurrent());
 	}
 	/**
 	 * Unmarshalls a string to a date.
@@ -49,11 +51,6 @@ public class JSONs {
 	 */
 	public static final Date j2d(String s)
 	throws ParseException {
-		return getDateFormat().parse(s);
-	}
-	private static final SimpleDateFormat getDateFormat() {
-		SimpleDateFormat df = new SimpleDateFormat("yyyy.M.d.H.m.s.S", Locale.US);
-		df.setTimeZone(TimeZones.getCurrent());
-		return df;
+		return FormatCache.parseDate(s, DATE_PATTERN, Locale.US, TimeZones.getCurrent());
 	}
 }
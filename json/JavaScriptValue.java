@@ -18,7 +18,7 @@ package org.zkoss.json;
  * @author tomyeh
  * @since 6.0.0
  */
-public class JavaScriptValue implements org.zkoss.json.JSONAware {
+public class JavaScriptValue implements org.zkoss.json.JSONStreamAware {
 	private final String _js;
 
 	/** Constructor
@@ -37,6 +37,10 @@ public class JavaScriptValue implements org.zkoss.json.JSONAware {
 	public String toJSONString() {
 		return _js;
 	}
+	//JSONStreamAware//
+	public void writeJSONString(Appendable out) throws java.io.IOException {
+		out.append(_js);
+	}
 	//Object//
 	public int hashCode() {
 		return _js.hashCode();
@@ -0,0 +1,49 @@
+/* CompactContainerFactory.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 17:24:16 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json.parser;
+
+import java.util.List;
+import java.util.Map;
+
+import org.zkoss.json.CompactJSONArray;
+import org.zkoss.json.CompactJSONObject;
+import org.zkoss.json.JSONArray;
+
+/**
+ * A container factory that creates the compact containers:
+ * {@link CompactJSONObject} for JSON objects, and {@link CompactJSONArray}
+ * for JSON arrays.
+ * It reduces the memory footprint of a parsed JSON tree, especially if
+ * there are many small objects.
+ *
+ * <p>Notice that the containers created by this factory are not instances
+ * of {@link org.zkoss.json.JSONObject} and {@link JSONArray}, so use it
+ * only if the caller accesses them through the java.util.Map and
+ * java.util.List interfaces.
+ *
+ * @author agent
+ * @since 8.5.0
+ * @see JSONParser#parse(java.io.Reader, ContainerFactory)
+ * @see JSONPullParser#readValue(ContainerFactory)
+ */
+public class CompactContainerFactory implements ContainerFactory {
+	/** The default instance. It is thread safe. */
+	public static final CompactContainerFactory INSTANCE = new CompactContainerFactory();
+
+	public Map createObjectContainer() {
+		return new CompactJSONObject();
+	}
+	public List creatArrayContainer() {
+		return new CompactJSONArray();
+	}
+}
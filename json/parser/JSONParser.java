@@ -7,7 +7,6 @@ package org.zkoss.json.parser;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -31,16 +30,51 @@ public class JSONParser {
 	public static final int S_END=6;
 	public static final int S_IN_ERROR=-1;
 	
-	private LinkedList handlerStatusStack;
 	private Yylex lexer = new Yylex((Reader)null);
 	private Yytoken token = null;
 	private int status = S_INIT;
+	//The stacks are arrays to avoid boxing (patched by agent)
+	private int[] statusStack = new int[16];
+	private int statusTop;
+	private Object[] valueStack = new Object[16];
+	private int valueTop;
 	
-	private int peekStatus(LinkedList statusStack){
-		if(statusStack.size()==0)
+	private int peekStatus(){
+		if(statusTop==0)
 			return -1;
-		Integer status=(Integer)statusStack.getFirst();
-		return status.intValue();
+		return statusStack[statusTop-1];
+	}
+	private void pushStatus(int status){
+		if(statusTop==statusStack.length){
+			int[] ary=new int[statusTop*2];
+			System.arraycopy(statusStack,0,ary,0,statusTop);
+			statusStack=ary;
+		}
+		statusStack[statusTop++]=status;
+	}
+	private void popStatus(){
+		--statusTop;
+	}
+	private void pushValue(Object value){
+		if(valueTop==valueStack.length){
+			Object[] ary=new Object[valueTop*2];
+			System.arraycopy(valueStack,0,ary,0,valueTop);
+			valueStack=ary;
+		}
+		valueStack[valueTop++]=value;
+	}
+	private Object popValue(){
+		Object value=valueStack[--valueTop];
+		valueStack[valueTop]=null;
+		return value;
+	}
+	private Object peekValue(){
+		return valueStack[valueTop-1];
+	}
+	private void clearStacks(){
+		while(valueTop>0)
+			valueStack[--valueTop]=null;
+		statusTop=0;
 	}
 	
     /**
@@ -50,7 +84,7 @@ public class JSONParser {
     public void reset(){
         token = null;
         status = S_INIT;
-        handlerStatusStack = null;
+        clearStacks();
     }
     
     /**
@@ -111,8 +145,6 @@ public class JSONParser {
 	 */
 	public Object parse(Reader in, ContainerFactory containerFactory) throws IOException, ParseException{
 		reset(in);
-		LinkedList statusStack = new LinkedList();
-		LinkedList valueStack = new LinkedList();
 		
 		try{
 			do{
@@ -122,18 +154,18 @@ public class JSONParser {
 					switch(token.type){
 					case Yytoken.TYPE_VALUE:
 						status=S_IN_FINISHED_VALUE;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(token.value);
+						pushStatus(status);
+						pushValue(token.value);
 						break;
 					case Yytoken.TYPE_LEFT_BRACE:
 						status=S_IN_OBJECT;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(createObjectContainer(containerFactory));
+						pushStatus(status);
+						pushValue(createObjectContainer(containerFactory));
 						break;
 					case Yytoken.TYPE_LEFT_SQUARE:
 						status=S_IN_ARRAY;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(createArrayContainer(containerFactory));
+						pushStatus(status);
+						pushValue(createArrayContainer(containerFactory));
 						break;
 					default:
 						status=S_IN_ERROR;
@@ -142,7 +174,7 @@ public class JSONParser {
 					
 				case S_IN_FINISHED_VALUE:
 					if(token.type==Yytoken.TYPE_EOF)
-						return valueStack.removeFirst();
+						return popValue();
 					else
 						throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
 					
@@ -153,19 +185,19 @@ public class JSONParser {
 					case Yytoken.TYPE_VALUE:
 						if(token.value instanceof String){
 							String key=(String)token.value;
-							valueStack.addFirst(key);
+							pushValue(key);
 							status=S_PASSED_PAIR_KEY;
-							statusStack.addFirst(new Integer(status));
+							pushStatus(status);
 						}
 						else{
 							status=S_IN_ERROR;
 						}
 						break;
 					case Yytoken.TYPE_RIGHT_BRACE:
-						if(valueStack.size()>1){
-							statusStack.removeFirst();
-							valueStack.removeFirst();
-							status=peekStatus(statusStack);
+						if(valueTop>1){
+							popStatus();
+							popValue();
+							status=peekStatus();
 						}
 						else{
 							status=S_IN_FINISHED_VALUE;
@@ -182,31 +214,31 @@ public class JSONParser {
 					case Yytoken.TYPE_COLON:
 						break;
 					case Yytoken.TYPE_VALUE:
-						statusStack.removeFirst();
-						String key=(String)valueStack.removeFirst();
-						Map parent=(Map)valueStack.getFirst();
+						popStatus();
+						String key=(String)popValue();
+						Map parent=(Map)peekValue();
 						parent.put(key,token.value);
-						status=peekStatus(statusStack);
+						status=peekStatus();
 						break;
 					case Yytoken.TYPE_LEFT_SQUARE:
-						statusStack.removeFirst();
-						key=(String)valueStack.removeFirst();
-						parent=(Map)valueStack.getFirst();
+						popStatus();
+						key=(String)popValue();
+						parent=(Map)peekValue();
 						List newArray=createArrayContainer(containerFactory);
 						parent.put(key,newArray);
 						status=S_IN_ARRAY;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(newArray);
+						pushStatus(status);
+						pushValue(newArray);
 						break;
 					case Yytoken.TYPE_LEFT_BRACE:
-						statusStack.removeFirst();
-						key=(String)valueStack.removeFirst();
-						parent=(Map)valueStack.getFirst();
+						popStatus();
+						key=(String)popValue();
+						parent=(Map)peekValue();
 						Map newObject=createObjectContainer(containerFactory);
 						parent.put(key,newObject);
 						status=S_IN_OBJECT;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(newObject);
+						pushStatus(status);
+						pushValue(newObject);
 						break;
 					default:
 						status=S_IN_ERROR;
@@ -218,34 +250,34 @@ public class JSONParser {
 					case Yytoken.TYPE_COMMA:
 						break;
 					case Yytoken.TYPE_VALUE:
-						List val=(List)valueStack.getFirst();
+						List val=(List)peekValue();
 						val.add(token.value);
 						break;
 					case Yytoken.TYPE_RIGHT_SQUARE:
-						if(valueStack.size()>1){
-							statusStack.removeFirst();
-							valueStack.removeFirst();
-							status=peekStatus(statusStack);
+						if(valueTop>1){
+							popStatus();
+							popValue();
+							status=peekStatus();
 						}
 						else{
 							status=S_IN_FINISHED_VALUE;
 						}
 						break;
 					case Yytoken.TYPE_LEFT_BRACE:
-						val=(List)valueStack.getFirst();
+						val=(List)peekValue();
 						Map newObject=createObjectContainer(containerFactory);
 						val.add(newObject);
 						status=S_IN_OBJECT;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(newObject);
+						pushStatus(status);
+						pushValue(newObject);
 						break;
 					case Yytoken.TYPE_LEFT_SQUARE:
-						val=(List)valueStack.getFirst();
+						val=(List)peekValue();
 						List newArray=createArrayContainer(containerFactory);
 						val.add(newArray);
 						status=S_IN_ARRAY;
-						statusStack.addFirst(new Integer(status));
-						valueStack.addFirst(newArray);
+						pushStatus(status);
+						pushValue(newArray);
 						break;
 					default:
 						status=S_IN_ERROR;
@@ -262,6 +294,9 @@ public class JSONParser {
 		catch(IOException ie){
 			throw ie;
 		}
+		finally{
+			clearStacks(); //don't hold the values
+		}
 		
 		throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
 	}
@@ -269,7 +304,7 @@ public class JSONParser {
 	private void nextToken() throws ParseException, IOException{
 		token = lexer.yylex();
 		if(token == null)
-			token = new Yytoken(Yytoken.TYPE_EOF, null);
+			token = Yytoken.EOF;
 	}
 	
 	private Map createObjectContainer(ContainerFactory containerFactory){
@@ -0,0 +1,289 @@
+/* JSONPullParser.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 16:35:08 TST 2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.json.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.zkoss.json.JSONArray;
+import org.zkoss.json.JSONObject;
+
+/**
+ * A pull parser for JSON text. Unlike {@link JSONParser#parse(Reader)},
+ * it doesn't materialize the objects and arrays. Rather, the caller
+ * pulls the events one-by-one with {@link #next}, and retrieves
+ * the value with {@link #getValue}. A subtree can be skipped with
+ * {@link #skipChildren}, or materialized with {@link #readValue}.
+ *
+ * <p>Example:
+ * <pre><code>
+ * JSONPullParser parser = new JSONPullParser(reader);
+ * for (int ev; (ev = parser.next()) != JSONPullParser.END;) {
+ *   if (ev == JSONPullParser.KEY &amp;&amp; "data".equals(parser.getValue())) {
+ *     parser.next();
+ *     Object data = parser.readValue();
+ *   }
+ * }
+ * </code></pre>
+ *
+ * <p>The syntax accepted is the same as {@link JSONParser}.
+ * Not thread safe.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class JSONPullParser {
+	/** The event: the end of the input. */
+	public static final int END = -1;
+	/** The event: a primitive value (string, number, boolean or null). */
+	public static final int VALUE = 0;
+	/** The event: the key of a pair in an object. */
+	public static final int KEY = 1;
+	/** The event: the start of an object. */
+	public static final int START_OBJECT = 2;
+	/** The event: the end of an object. */
+	public static final int END_OBJECT = 3;
+	/** The event: the start of an array. */
+	public static final int START_ARRAY = 4;
+	/** The event: the end of an array. */
+	public static final int END_ARRAY = 5;
+
+	private final Yylex _lexer;
+	/** The status stack (one of JSONParser.S_IN_OBJECT, S_IN_ARRAY
+	 * and S_PASSED_PAIR_KEY). */
+	private int[] _stack = new int[16];
+	private int _top;
+	/** The current event. */
+	private int _event = END;
+	/** The value of the current event. */
+	private Object _value;
+	/** Whether the top-level value has been parsed. */
+	private boolean _finished;
+
+	/** Constructs a parser to parse the given input.
+	 */
+	public JSONPullParser(Reader in) {
+		_lexer = new Yylex(in);
+	}
+	/** Constructs a parser to parse the given JSON text.
+	 */
+	public JSONPullParser(String s) {
+		this(new StringReader(s));
+	}
+
+	/** Returns the next event.
+	 * @return one of {@link #VALUE}, {@link #KEY}, {@link #START_OBJECT},
+	 * {@link #END_OBJECT}, {@link #START_ARRAY}, {@link #END_ARRAY}
+	 * and {@link #END}.
+	 */
+	public int next() throws IOException, ParseException {
+		for (;;) {
+			Yytoken token = _lexer.yylex();
+			if (token == null)
+				token = Yytoken.EOF;
+
+			final int status = _top > 0 ? _stack[_top - 1]:
+				_finished ? JSONParser.S_IN_FINISHED_VALUE: JSONParser.S_INIT;
+			switch (status) {
+			case JSONParser.S_INIT:
+				switch (token.type) {
+				case Yytoken.TYPE_VALUE:
+					_finished = true;
+					return event(VALUE, token.value);
+				case Yytoken.TYPE_LEFT_BRACE:
+					push(JSONParser.S_IN_OBJECT);
+					return event(START_OBJECT, null);
+				case Yytoken.TYPE_LEFT_SQUARE:
+					push(JSONParser.S_IN_ARRAY);
+					return event(START_ARRAY, null);
+				}
+				break;
+
+			case JSONParser.S_IN_FINISHED_VALUE:
+				if (token.type == Yytoken.TYPE_EOF)
+					return event(END, null);
+				break;
+
+			case JSONParser.S_IN_OBJECT:
+				switch (token.type) {
+				case Yytoken.TYPE_COMMA:
+					continue;
+				case Yytoken.TYPE_VALUE:
+					if (token.value instanceof String) {
+						push(JSONParser.S_PASSED_PAIR_KEY);
+						return event(KEY, token.value);
+					}
+					break;
+				case Yytoken.TYPE_RIGHT_BRACE:
+					pop();
+					return event(END_OBJECT, null);
+				}
+				break;
+
+			case JSONParser.S_PASSED_PAIR_KEY:
+				switch (token.type) {
+				case Yytoken.TYPE_COLON:
+					continue;
+				case Yytoken.TYPE_VALUE:
+					--_top;
+					return event(VALUE, token.value);
+				case Yytoken.TYPE_LEFT_SQUARE:
+					_stack[_top - 1] = JSONParser.S_IN_ARRAY;
+					return event(START_ARRAY, null);
+				case Yytoken.TYPE_LEFT_BRACE:
+					_stack[_top - 1] = JSONParser.S_IN_OBJECT;
+					return event(START_OBJECT, null);
+				}
+				break;
+
+			case JSONParser.S_IN_ARRAY:
+				switch (token.type) {
+				case Yytoken.TYPE_COMMA:
+					continue;
+				case Yytoken.TYPE_VALUE:
+					return event(VALUE, token.value);
+				case Yytoken.TYPE_RIGHT_SQUARE:
+					pop();
+					return event(END_ARRAY, null);
+				case Yytoken.TYPE_LEFT_BRACE:
+					push(JSONParser.S_IN_OBJECT);
+					return event(START_OBJECT, null);
+				case Yytoken.TYPE_LEFT_SQUARE:
+					push(JSONParser.S_IN_ARRAY);
+					return event(START_ARRAY, null);
+				}
+				break;
+			}
+			throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+		}
+	}
+	private int event(int event, Object value) {
+		_value = value;
+		return _event = event;
+	}
+	private void push(int status) {
+		if (_top == _stack.length) {
+			final int[] ary = new int[_top * 2];
+			System.arraycopy(_stack, 0, ary, 0, _top);
+			_stack = ary;
+		}
+		_stack[_top++] = status;
+	}
+	private void pop() {
+		if (--_top == 0)
+			_finished = true;
+	}
+
+	/** Returns the current event, i.e., the event returned by the last
+	 * invocation of {@link #next}.
+	 */
+	public int getEvent() {
+		return _event;
+	}
+	/** Returns the value of the current event.
+	 * If the current event is {@link #VALUE}, it is an instance of
+	 * String, Number, Boolean or null.
+	 * If the current event is {@link #KEY}, it is the key (a String).
+	 * Otherwise, null is returned.
+	 */
+	public Object getValue() {
+		return _value;
+	}
+	/** Returns the depth of the current event, i.e., the number of
+	 * enclosing objects and arrays. For example, it is 1 for
+	 * {@link #START_OBJECT} of the top-level object, and 0 for the
+	 * corresponding {@link #END_OBJECT}.
+	 */
+	public int getDepth() {
+		return _top > 0 && _stack[_top - 1] == JSONParser.S_PASSED_PAIR_KEY ?
+			_top - 1: _top;
+	}
+	/** Returns the position of the beginning of the current token.
+	 */
+	public int getPosition() {
+		return _lexer.getPosition();
+	}
+
+	/** Skips the children of the current object or array, if the current
+	 * event is {@link #START_OBJECT} or {@link #START_ARRAY}.
+	 * After called, the current event will be the corresponding
+	 * {@link #END_OBJECT} or {@link #END_ARRAY}.
+	 * If the current event is {@link #KEY}, the value of the pair is skipped.
+	 * Otherwise, nothing happens.
+	 */
+	public void skipChildren() throws IOException, ParseException {
+		if (_event == KEY) {
+			final int ev = next();
+			if (ev != START_OBJECT && ev != START_ARRAY)
+				return;
+		} else if (_event != START_OBJECT && _event != START_ARRAY) {
+			return;
+		}
+
+		for (final int depth = _top; _top >= depth;)
+			next(); //EOF causes ParseException
+	}
+	/** Materializes the current value, and returns it.
+	 * If the current event is {@link #START_OBJECT} or {@link #START_ARRAY},
+	 * the object or array is parsed, and the current event will be
+	 * the corresponding {@link #END_OBJECT} or {@link #END_ARRAY}.
+	 * If the current event is {@link #VALUE}, {@link #getValue} is returned.
+	 * @exception IllegalStateException if the current event is none of
+	 * the above
+	 */
+	public Object readValue() throws IOException, ParseException {
+		return readValue(null);
+	}
+	/** Materializes the current value with the given container factory,
+	 * and returns it.
+	 * @param containerFactory the factory to create the containers
+	 * for JSON objects and arrays. If null, {@link JSONObject} and
+	 * {@link JSONArray} are used.
+	 * @see #readValue()
+	 */
+	@SuppressWarnings("unchecked")
+	public Object readValue(ContainerFactory containerFactory)
+	throws IOException, ParseException {
+		switch (_event) {
+		case VALUE:
+			return _value;
+		case START_OBJECT:
+			final Map map = createObjectContainer(containerFactory);
+			while (next() != END_OBJECT) {
+				final Object key = _value; //next() must return KEY
+				next();
+				map.put(key, readValue(containerFactory));
+			}
+			return map;
+		case START_ARRAY:
+			final List list = createArrayContainer(containerFactory);
+			while (next() != END_ARRAY)
+				list.add(readValue(containerFactory));
+			return list;
+		}
+		throw new IllegalStateException("Not a value: " + _event);
+	}
+	private static Map createObjectContainer(ContainerFactory containerFactory) {
+		final Map m = containerFactory != null ?
+			containerFactory.createObjectContainer(): null;
+		return m != null ? m: new JSONObject();
+	}
+	private static List createArrayContainer(ContainerFactory containerFactory) {
+		final List l = containerFactory != null ?
+			containerFactory.creatArrayContainer(): null;
+		return l != null ? l: new JSONArray();
+	}
+}
@@ -264,7 +264,7 @@ class Yylex {
   private boolean zzAtEOF;
 
   /* user code: */
-private StringBuffer sb=new StringBuffer();
+private StringBuilder sb=new StringBuilder();
 
 int getPosition(){
 	return yychar;
@@ -583,15 +583,15 @@ int getPosition(){
           }
         case 27: break;
         case 6: 
-          { return new Yytoken(Yytoken.TYPE_RIGHT_BRACE,null);
+          { return Yytoken.RIGHT_BRACE;
           }
         case 28: break;
         case 23: 
-          { Boolean val=Boolean.valueOf(yytext()); return new Yytoken(Yytoken.TYPE_VALUE, val);
+          { return yycharat(0)=='t' ? Yytoken.TRUE: Yytoken.FALSE;
           }
         case 29: break;
         case 22: 
-          { return new Yytoken(Yytoken.TYPE_VALUE, null);
+          { return Yytoken.NULL;
           }
         case 30: break;
         case 13: 
@@ -611,7 +611,7 @@ int getPosition(){
           }
         case 34: break;
         case 8: 
-          { return new Yytoken(Yytoken.TYPE_RIGHT_SQUARE,null);
+          { return Yytoken.RIGHT_SQUARE;
           }
         case 35: break;
         case 19: 
@@ -623,7 +623,7 @@ int getPosition(){
           }
         case 37: break;
         case 10: 
-          { return new Yytoken(Yytoken.TYPE_COLON,null);
+          { return Yytoken.COLON;
           }
         case 38: break;
         case 14: 
@@ -631,7 +631,7 @@ int getPosition(){
           }
         case 39: break;
         case 5: 
-          { return new Yytoken(Yytoken.TYPE_LEFT_BRACE,null);
+          { return Yytoken.LEFT_BRACE;
           }
         case 40: break;
         case 17: 
@@ -653,13 +653,20 @@ int getPosition(){
           }
         case 43: break;
         case 7: 
-          { return new Yytoken(Yytoken.TYPE_LEFT_SQUARE,null);
+          { return Yytoken.LEFT_SQUARE;
           }
         case 44: break;
         case 2: 
-          { Object val;
+          { Object val = null;
           	String yyt = yytext();
-          	try {
+          	if (yyt.length() <= 18) { //fit in long; avoid exceptions for longs
+          		try {
+          			long l = Long.parseLong(yyt);
+          			val = l == (int)l ? (Object)Integer.valueOf((int)l): (Object)Long.valueOf(l);
+          		} catch (NumberFormatException ex) { //ignore; handled below
+          		}
+          	}
+          	if (val == null) try {
           		val = Integer.valueOf(yyt);
           	} catch (NumberFormatException ex1) {
               	try {
@@ -677,7 +684,7 @@ int getPosition(){
           }
         case 46: break;
         case 9: 
-          { return new Yytoken(Yytoken.TYPE_COMMA,null);
+          { return Yytoken.COMMA;
           }
         case 47: break;
         case 3: 
@@ -17,6 +17,18 @@ class Yytoken {
 	public static final int TYPE_COLON=6;
 	public static final int TYPE_EOF=-1;//end of file
 	
+	//The tokens without a value are shared (patched by agent)
+	static final Yytoken LEFT_BRACE=new Yytoken(TYPE_LEFT_BRACE,null);
+	static final Yytoken RIGHT_BRACE=new Yytoken(TYPE_RIGHT_BRACE,null);
+	static final Yytoken LEFT_SQUARE=new Yytoken(TYPE_LEFT_SQUARE,null);
+	static final Yytoken RIGHT_SQUARE=new Yytoken(TYPE_RIGHT_SQUARE,null);
+	static final Yytoken COMMA=new Yytoken(TYPE_COMMA,null);
+	static final Yytoken COLON=new Yytoken(TYPE_COLON,null);
+	static final Yytoken NULL=new Yytoken(TYPE_VALUE,null);
+	static final Yytoken TRUE=new Yytoken(TYPE_VALUE,Boolean.TRUE);
+	static final Yytoken FALSE=new Yytoken(TYPE_VALUE,Boolean.FALSE);
+	static final Yytoken EOF=new Yytoken(TYPE_EOF,null);
+	
 	public int type=0;
 	public Object value=null;
 	
@@ -24,10 +24,15 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +41,7 @@ import org.zkoss.math.BigIntegers;
 import org.zkoss.mesg.MCommon;
 import org.zkoss.mesg.Messages;
 import org.zkoss.util.Cache;
+import org.zkoss.util.Caches;
 import org.zkoss.util.FastReadCache;
 import org.zkoss.util.IllegalSyntaxException;
 
@@ -112,19 +118,12 @@ public class Classes {
 	 */
 	private static
 	Method match(Class<?> cls, String name, Object[] args, boolean loosely) {
-		final Method[] ms = cls.getMethods();
-		for (int j = 0; j < ms.length; ++j) {
-			if (!ms[j].getName().equals(name)
-			|| !matched(ms[j].getParameterTypes(), args, loosely))
-				continue; //not found; next
-
-			if (Modifier.isPublic(ms[j].getDeclaringClass().getModifiers()))
-				return ms[j]; //found
-			try {
-				return getMethodInPublic(
-					cls, ms[j].getName(), ms[j].getParameterTypes());
-			} catch (NoSuchMethodException ex) { //not found; next
-			}
+		final MethodEntry[] mes = getMethodTable(cls).get(name, args.length);
+		for (int j = 0; j < mes.length; ++j) {
+			final MethodEntry me = mes[j];
+			if (me.publicMethod != null //not found in public if null
+			&& matched(me.paramTypes, args, loosely))
+				return me.publicMethod; //found
 		}
 		return null;
 	}
@@ -252,11 +251,28 @@ public class Classes {
 	 *
 	 * <p>In additions, it handles the primitive types, such as int and double.
 	 *
+	 * <p>The names of the classes that are not found are cached
+	 * (per context class loader) for a while, such that
+	 * the class loaders won't be searched again.
+	 * The cache is controlled by the library properties called
+	 * <code>org.zkoss.lang.Classes.notFound.cache.maxSize</code>
+	 * (default: 1000; 0 to disable) and
+	 * <code>org.zkoss.lang.Classes.notFound.cache.lifetime</code>
+	 * (unit: second; default: 60).
+	 *
 	 * @param clsName fully qualified name of the desired class
 	 * @return the Class object representing the desired class
 	 * @exception ClassNotFoundException if the class cannot be located by the specified class loader
 	 */
 	public static final Class<?> forNameByThread(String clsName)
+	throws ClassNotFoundException {
+		final Class<?> cls = myForNameByThread(clsName);
+		if (cls == null)
+			throw new ClassNotFoundException(clsName);
+		return cls;
+	}
+	/** Returns the class, or null if not found. */
+	private static final Class<?> myForNameByThread(String clsName)
 	throws ClassNotFoundException {
 		clsName = toInternalForm(clsName);
 		final Class<?> cls = Primitives.toClass(clsName);
@@ -264,23 +280,67 @@ public class Classes {
 			return cls;
 
 		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		final Map<String, Long> notFounds = getNotFounds(cl);
+		if (notFounds != null) {
+			final Long expiry = notFounds.get(clsName);
+			if (expiry != null) {
+				if (expiry.longValue() > System.currentTimeMillis())
+					return null; //not found (cached)
+				notFounds.remove(clsName);
+			}
+		}
+
 		if (cl != null)
 			try {
 				return Class.forName(clsName, true, cl);
 			} catch (ClassNotFoundException ex) { //ignore and try the other
 			}
-		return Classes.class.forName(clsName);
+		try {
+			return Classes.class.forName(clsName);
+		} catch (ClassNotFoundException ex) {
+			if (notFounds == null)
+				throw ex; //not cached
+			if (notFounds.size() >= NOT_FOUND_MAX_SIZE.get())
+				notFounds.clear(); //simplest way to keep it bounded
+			notFounds.put(clsName, new Long(System.currentTimeMillis()
+				+ 1000L * NOT_FOUND_LIFETIME.get()));
+			return null;
+		}
 	}
+	/** Returns the names of the classes not found for the given class loader,
+	 * or null if the cache is disabled. Map(class name, expiry time).
+	 */
+	private static final Map<String, Long> getNotFounds(ClassLoader cl) {
+		if (NOT_FOUND_MAX_SIZE.get() <= 0)
+			return null;
+		synchronized (_notFounds) {
+			Map<String, Long> notFounds = _notFounds.get(cl);
+			if (notFounds == null)
+				_notFounds.put(cl, notFounds = new ConcurrentHashMap<String, Long>());
+			return notFounds;
+		}
+	}
+	/** Map(ClassLoader, Map(class name, expiry time)). The class loaders are
+	 * weakly referenced, so they can be garbage-collected when undeployed.
+	 */
+	private static final Map<ClassLoader, Map<String, Long>> _notFounds =
+		new WeakHashMap<ClassLoader, Map<String, Long>>();
+	private static final Library.IntProperty NOT_FOUND_MAX_SIZE =
+		new Library.IntProperty("org.zkoss.lang.Classes.notFound.cache.maxSize", 1000);
+	/** Unit: second. */
+	private static final Library.IntProperty NOT_FOUND_LIFETIME =
+		new Library.IntProperty("org.zkoss.lang.Classes.notFound.cache.lifetime", 60);
 
 	/** Returns whether the specified class exists for the current thread's
 	 * context class loader.
+	 * <p>Unlike {@link #forNameByThread}, no exception is created if
+	 * the class is known to be not found.
 	 * @param clsnm the class name to test
 	 * @since 3.0.7
 	 */
 	public static final boolean existsByThread(String clsnm) {
 		try {
-			forNameByThread(clsnm);
-			return true;
+			return myForNameByThread(clsnm) != null;
 		} catch (Throwable ex) {
 			return false;
 		}
@@ -844,9 +904,8 @@ public class Classes {
 		_closms.put(aoi, m);
 		return (Method) m;
 	}
-	private static Cache<AOInfo, Object> _closms = new FastReadCache<AOInfo, Object>(
-		Library.getIntProperty("org.zkoss.lang.Classes.methods.cache.maxSize", 600),
-		4*60*60*1000);
+	private static Cache<AOInfo, Object> _closms =
+		Caches.register("org.zkoss.lang.Classes.closeMethods", Classes.<AOInfo, Object>newMethodCache());
 	private static final
 	Method myGetCloseMethod(final Class<?> cls, final String name,
 	final Class<?>[] argTypes, final boolean bySubclass)
@@ -864,28 +923,16 @@ public class Classes {
 				break;
 		}
 
-		final Method [] ms = cls.getMethods();
-		for (int j = 0; j < ms.length; ++j) {
-			if (!ms[j].getName().equals(name))
-				continue;
-
-			final Class<?>[] mTypes = ms[j].getParameterTypes();
-			if (mTypes.length != argTypes.length)
-				continue; //not matched
+		final MethodEntry[] mes = getMethodTable(cls).get(name, argTypes.length);
+		for (int j = 0; j < mes.length; ++j) {
+			final MethodEntry me = mes[j];
+			if (me.publicMethod == null)
+				continue; //not declared in any public class/interface
 
-			final boolean bPublic =
-				Modifier.isPublic(ms[j].getDeclaringClass().getModifiers());
+			final Class<?>[] mTypes = me.paramTypes;
 			for (int k = 0;; ++k) {
-				if (k == argTypes.length) { //all matched
-					if (bPublic)
-						return ms[j];
-					try {
-						return getMethodInPublic(
-							cls, ms[j].getName(), ms[j].getParameterTypes());
-					} catch (NoSuchMethodException ex) {
-					}
-					break;//not match; look for next
-				}
+				if (k == argTypes.length) //all matched
+					return me.publicMethod;
 
 				final Class<?> argType = argTypes[k], mType = mTypes[k];
 				if (argType == null
@@ -904,7 +951,9 @@ public class Classes {
 	/** Returns all close methods that match the specified condition, or
 	 * a zero-length array if none is found.
 	 * <p>Unlike {@link #getCloseMethod}, we don't cache the searched result,
-	 * and it won't throw any exception.
+	 * and it won't throw any exception. However, the methods of the given
+	 * class are indexed by name and number of arguments, so it doesn't
+	 * scan all methods.
 	 */
 	public static final
 	Method[] getCloseMethods(Class<?> cls, String name, Class<?>[] argTypes) {
@@ -934,28 +983,16 @@ public class Classes {
 	final Class<?>[] argTypes, final boolean bySubclass) {
 //		assert argTypes != null: "Caller shall handle null";
 		final List<Method> mtds = new LinkedList<Method>();
-		final Method [] ms = cls.getMethods();
-		for (int j = 0; j < ms.length; ++j) {
-			if (!ms[j].getName().equals(name))
-				continue;
+		final MethodEntry[] mes = getMethodTable(cls).get(name, argTypes.length);
+		for (int j = 0; j < mes.length; ++j) {
+			final MethodEntry me = mes[j];
+			if (me.publicMethod == null)
+				continue; //not declared in any public class/interface
 
-			final Class<?>[] mTypes = ms[j].getParameterTypes();
-			if (mTypes.length != argTypes.length)
-				continue; //not matched
-
-			final boolean bPublic =
-				Modifier.isPublic(ms[j].getDeclaringClass().getModifiers());
+			final Class<?>[] mTypes = me.paramTypes;
 			for (int k = 0;; ++k) {
 				if (k == argTypes.length) { //all matched
-					if (bPublic) {
-						mtds.add(ms[j]);
-					} else {
-						try {
-							mtds.add(getMethodInPublic(
-							cls, ms[j].getName(), ms[j].getParameterTypes()));
-						} catch (NoSuchMethodException ex) { //ignore; not add
-						}
-					}
+					mtds.add(me.publicMethod);
 					break; //found; next method
 				}
 
@@ -1035,9 +1072,49 @@ public class Classes {
 		_acsos.put(aoi, ao);
 		return ao;
 	}
-	private static Cache<AOInfo, AccessibleObject> _acsos = new FastReadCache<AOInfo, AccessibleObject>(
-		Library.getIntProperty("org.zkoss.lang.Classes.methods.cache.maxSize", 600),
-		4*60*60*1000);
+	private static Cache<AOInfo, AccessibleObject> _acsos =
+		Caches.register("org.zkoss.lang.Classes.accessibleObjects", Classes.<AOInfo, AccessibleObject>newMethodCache());
+	private static final String METHODS_CACHE_MAX_SIZE =
+		"org.zkoss.lang.Classes.methods.cache.maxSize";
+	static {
+		//resize the method caches if the max size is changed at runtime
+		Library.addPropertyListener(METHODS_CACHE_MAX_SIZE,
+			new Library.PropertyListener() {
+				public void onChange(String key, String value) {
+					final int maxSize = Library.getIntProperty(key, 600);
+					_closms.setMaxSize(maxSize);
+					_acsos.setMaxSize(maxSize);
+				}
+			});
+	}
+	/** Instantiates the cache used to store the methods and accessible objects.
+	 * <p>The implementation is specified by the library property called
+	 * <code>org.zkoss.lang.Classes.methods.cache.class</code>
+	 * (such as {@link org.zkoss.util.ConcurrentCache}), and it must have
+	 * a public constructor with two int arguments: the max size and
+	 * the lifetime.
+	 * If not specified, {@link FastReadCache} is used.
+	 * <p>The max size is specified by the library property called
+	 * <code>org.zkoss.lang.Classes.methods.cache.maxSize</code> (default: 600).
+	 * If it is changed at runtime, the caches are resized accordingly.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <K, V> Cache<K, V> newMethodCache() {
+		final int maxSize =
+			Library.getIntProperty(METHODS_CACHE_MAX_SIZE, 600);
+		final int lifetime = 4*60*60*1000;
+		final String clsnm = Library.getProperty("org.zkoss.lang.Classes.methods.cache.class");
+		if (clsnm != null && clsnm.length() > 0) {
+			try {
+				return (Cache<K, V>)Class.forName(clsnm)
+					.getConstructor(new Class<?>[] {int.class, int.class})
+					.newInstance(new Object[] {new Integer(maxSize), new Integer(lifetime)});
+			} catch (Throwable ex) {
+				log.warn("Failed to instantiate " + clsnm + ", use FastReadCache instead", ex);
+			}
+		}
+		return new FastReadCache<K, V>(maxSize, lifetime);
+	}
 	private static final AccessibleObject
 	myGetAcsObj(Class<?> cls, String name, Class<?>[] argTypes, int flags)
 	throws NoSuchMethodException {
@@ -1108,6 +1185,86 @@ public class Classes {
 			throw newNoSuchMethodException(cls, name, argTypes);
 		}
 	}
+	/** Returns the table of the public methods of the given class.
+	 */
+	private static MethodTable getMethodTable(Class<?> cls) {
+		MethodTable mt = _mtables.get(cls);
+		if (mt == null)
+			_mtables.put(cls, mt = new MethodTable(cls));
+		return mt;
+	}
+	private static Cache<Class<?>, MethodTable> _mtables =
+		Caches.register("org.zkoss.lang.Classes.methodTables", Classes.<Class<?>, MethodTable>newMethodCache());
+
+	/** The public methods of a class ({@link Class#getMethods}),
+	 * grouped by name and the number of arguments.
+	 * The order of {@link Class#getMethods} is preserved in each group.
+	 */
+	private static class MethodTable {
+		private static final MethodEntry[] EMPTY = new MethodEntry[0];
+		/** Map(name, MethodEntry[number of arguments][]). */
+		private final Map<String, MethodEntry[][]> _methods;
+
+		private MethodTable(Class<?> cls) {
+			final Map<String, List<MethodEntry>> mes = new HashMap<String, List<MethodEntry>>();
+			final Method[] ms = cls.getMethods();
+			for (int j = 0; j < ms.length; ++j) {
+				final MethodEntry me = new MethodEntry(cls, ms[j]);
+				List<MethodEntry> l = mes.get(ms[j].getName());
+				if (l == null)
+					mes.put(ms[j].getName(), l = new ArrayList<MethodEntry>(4));
+				l.add(me);
+			}
+
+			_methods = new HashMap<String, MethodEntry[][]>(mes.size() * 4 / 3 + 1);
+			for (Map.Entry<String, List<MethodEntry>> me: mes.entrySet()) {
+				final List<MethodEntry> l = me.getValue();
+				int argc = 0;
+				for (MethodEntry e: l)
+					argc = Math.max(argc, e.paramTypes.length);
+
+				final MethodEntry[][] byArgc = new MethodEntry[argc + 1][];
+				for (int j = 0; j <= argc; ++j) {
+					final List<MethodEntry> found = new ArrayList<MethodEntry>(l.size());
+					for (MethodEntry e: l)
+						if (e.paramTypes.length == j)
+							found.add(e);
+					byArgc[j] = found.isEmpty() ? EMPTY: found.toArray(new MethodEntry[found.size()]);
+				}
+				_methods.put(me.getKey(), byArgc);
+			}
+		}
+		/** Returns the methods with the given name and number of arguments
+		 * (never null).
+		 */
+		private MethodEntry[] get(String name, int argc) {
+			final MethodEntry[][] byArgc = _methods.get(name);
+			return byArgc != null && argc < byArgc.length ? byArgc[argc]: EMPTY;
+		}
+	}
+	/** A public method with the precomputed information. */
+	private static class MethodEntry {
+		/** The parameter types (Method.getParameterTypes() clones each time). */
+		private final Class<?>[] paramTypes;
+		/** The same method but declared in a public class/interface
+		 * (see {@link #getMethodInPublic}), or null if not found. */
+		private final Method publicMethod;
+
+		private MethodEntry(Class<?> cls, Method m) {
+			this.paramTypes = m.getParameterTypes();
+			Method pm = null;
+			if (Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+				pm = m;
+			} else {
+				try {
+					pm = getMethodInPublic(cls, m.getName(), this.paramTypes);
+				} catch (NoSuchMethodException ex) { //ignore
+				}
+			}
+			this.publicMethod = pm;
+		}
+	}
+
 	/** The information of the access object. */
 	private static class AOInfo {
 		private Class<?> cls;
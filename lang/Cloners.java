@@ -0,0 +1,469 @@
+/* Cloners.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 23:52:18     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.lang;
+
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.rmi.MarshalledObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.util.ArraysX;
+import org.zkoss.util.Cache;
+import org.zkoss.util.FastReadCache;
+
+/**
+ * Used to implement {@link Objects#clone}. How to clone a class is
+ * analyzed once and cached, so the reflection is done only once per class:
+ *
+ * <ol>
+ * <li>Immutable objects, such as strings, boxed primitives and enums,
+ * are returned directly.</li>
+ * <li>Arrays are duplicated (shallow).</li>
+ * <li>Cloneable objects with a public clone() are cloned by it.</li>
+ * <li>Objects with a public copy constructor (i.e., taking an instance
+ * of the same class) are copied by it.</li>
+ * <li>Other serializable objects are deep-copied field by field, as if
+ * they were serialized and deserialized (transient fields are not copied).
+ * Shared and cyclic references are preserved with an identity map.
+ * The common collections are copied with their public API.</li>
+ * <li>If the object graph contains an object that cannot be copied
+ * this way, such as one with writeObject or readResolve, it falls back
+ * to the serialization.</li>
+ * </ol>
+ *
+ * <p>The cache size is specified by the library property called
+ * <code>org.zkoss.lang.Objects.clone.cache.maxSize</code> (default: 600).
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ class Cloners {
+	private static final Logger log = LoggerFactory.getLogger(Cloners.class);
+
+	/** Map(Class, Cloner). */
+	private static final Cache<Class<?>, Cloner> _cloners =
+		new FastReadCache<Class<?>, Cloner>(
+			Library.getIntProperty("org.zkoss.lang.Objects.clone.cache.maxSize", 600),
+			4*60*60*1000);
+
+	/** The classes whose instances are immutable (and final). */
+	private static final Set<Class<?>> IMMUTABLES = new HashSet<Class<?>>();
+	static {
+		final Class<?>[] clses = {String.class, Boolean.class, Character.class,
+			Byte.class, Short.class, Integer.class, Long.class, Float.class,
+			Double.class, BigInteger.class, BigDecimal.class, Class.class,
+			Locale.class, UUID.class};
+		for (int j = 0; j < clses.length; ++j)
+			IMMUTABLES.add(clses[j]);
+	}
+
+	/** sun.reflect.ReflectionFactory, and its newConstructorForSerialization.
+	 * It is used to instantiate an object the same way as the serialization
+	 * does, i.e., by calling the default constructor of the first
+	 * non-serializable superclass.
+	 */
+	private static final Object _factory;
+	private static final Method _newSerialCtor;
+	static {
+		Object factory = null;
+		Method newSerialCtor = null;
+		try {
+			final Class<?> cls = Class.forName("sun.reflect.ReflectionFactory");
+			factory = cls.getMethod("getReflectionFactory").invoke(null);
+			newSerialCtor = cls.getMethod("newConstructorForSerialization",
+				Class.class, Constructor.class);
+		} catch (Throwable ex) { //ignore (always use the serialization)
+			factory = newSerialCtor = null;
+		}
+		_factory = factory;
+		_newSerialCtor = newSerialCtor;
+	}
+
+	/** Clones the given object (never null).
+	 * @see Objects#clone
+	 */
+	/*package*/ static Object clone(Object o) throws Exception {
+		return getCloner(o.getClass()).clone(o);
+	}
+
+	private static Cloner getCloner(Class<?> cls) {
+		Cloner cloner = _cloners.get(cls);
+		if (cloner == null)
+			_cloners.put(cls, cloner = new Cloner(cls));
+		return cloner;
+	}
+	/** Deep-copies the given object, which is part of an object graph.
+	 * @param copied Map(original, copy) of the objects copied so far.
+	 */
+	private static Object deepCopy(Object o, Map<Object, Object> copied)
+	throws Exception {
+		if (o == null)
+			return null;
+		final Object c = copied.get(o);
+		if (c != null)
+			return c;
+
+		final Copier copier = getCloner(o.getClass())._copier;
+		if (copier == null)
+			throw Unsupported.INSTANCE;
+		return copier.copy(o, copied);
+	}
+
+	/** How to clone a class. */
+	private static class Cloner {
+		private final boolean _immutable, _array;
+		/** The public clone() method, or null if not Cloneable. */
+		private final Method _clone;
+		/** The public copy constructor, or null if not available. */
+		private final Constructor<?> _copyCtor;
+		/** How to deep-copy it as part of an object graph, or null if
+		 * not supported (i.e., the serialization is required). */
+		private final Copier _copier;
+
+		private Cloner(Class<?> cls) {
+			_immutable = IMMUTABLES.contains(cls) || Enum.class.isAssignableFrom(cls);
+			_array = cls.isArray();
+			_clone = _immutable || _array || !Cloneable.class.isAssignableFrom(cls) ?
+				null: getCloneMethod(cls);
+			_copyCtor = _immutable || _array || _clone != null ?
+				null: getCopyConstructor(cls);
+			_copier = _immutable ? IMMUTABLE: _array ? ARRAY: newCopier(cls);
+		}
+
+		private Object clone(Object o) throws Exception {
+			if (_immutable)
+				return o;
+			if (_array)
+				return ArraysX.duplicate(o);
+			if (_clone != null)
+				return _clone.invoke(o);
+			if (_copyCtor != null)
+				return _copyCtor.newInstance(o);
+
+			if (_copier != null) {
+				try {
+					return _copier.copy(o, new IdentityHashMap<Object, Object>());
+				} catch (Unsupported ex) { //ignore (fall back to serialization)
+				} catch (IllegalAccessException ex) { //ignore (such as final fields of hidden classes)
+				}
+			}
+			return new MarshalledObject<Object>(o).get();
+		}
+	}
+	private static Method getCloneMethod(Class<?> cls) {
+		try {
+			return setAccessible(cls.getMethod("clone"));
+		} catch (NoSuchMethodException ex) {
+			if (log.isDebugEnabled()) log.debug("No clone() for "+cls);
+			return null;
+		}
+	}
+	private static Constructor<?> getCopyConstructor(Class<?> cls) {
+		try {
+			return Modifier.isAbstract(cls.getModifiers()) ?
+				null: setAccessible(cls.getConstructor(cls));
+		} catch (Throwable ex) {
+			return null;
+		}
+	}
+	/** Makes a public member accessible, in case the class is not public. */
+	private static <T extends AccessibleObject> T setAccessible(T ao) {
+		try {
+			ao.setAccessible(true);
+		} catch (Throwable ex) { //ignore
+		}
+		return ao;
+	}
+	/** Returns the copier to deep-copy the given class, or null if
+	 * not supported.
+	 */
+	private static Copier newCopier(Class<?> cls) {
+		final Copier copier = COLLECTIONS.get(cls);
+		if (copier != null)
+			return copier;
+		if (cls == Date.class)
+			return DATE;
+		return newFieldCopier(cls);
+	}
+	/** Returns the copier that copies the serializable fields, or null
+	 * if the serialization of the class is customized, or the fields
+	 * are not accessible.
+	 */
+	private static Copier newFieldCopier(Class<?> cls) {
+		if (_newSerialCtor == null || !Serializable.class.isAssignableFrom(cls)
+		|| Externalizable.class.isAssignableFrom(cls) || Proxy.isProxyClass(cls)
+		|| cls.isInterface() || Modifier.isAbstract(cls.getModifiers()))
+			return null;
+
+		try {
+			for (Class<?> c = cls; c != null; c = c.getSuperclass())
+				if ("java.lang.Record".equals(c.getName()) //record uses canonical constructor
+				|| hasMethod(c, "writeReplace") || hasMethod(c, "readResolve"))
+					return null;
+
+			final List<Field> fields = new ArrayList<Field>();
+			Class<?> base = cls;
+			for (; Serializable.class.isAssignableFrom(base); base = base.getSuperclass()) {
+				if (hasMethod(base, "writeObject", ObjectOutputStream.class)
+				|| hasMethod(base, "readObject", ObjectInputStream.class)
+				|| hasMethod(base, "readObjectNoData"))
+					return null;
+				try {
+					base.getDeclaredField("serialPersistentFields");
+					return null;
+				} catch (NoSuchFieldException ex) { //expected
+				}
+
+				for (Field f: base.getDeclaredFields()) {
+					final int mod = f.getModifiers();
+					if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod)) {
+						f.setAccessible(true);
+						fields.add(f);
+					}
+				}
+			}
+
+			//the serialization calls the default constructor of the first
+			//non-serializable superclass
+			final Constructor<?> bctor = base.getDeclaredConstructor();
+			if (Modifier.isPrivate(bctor.getModifiers()))
+				return null;
+			final Constructor<?> ctor =
+				(Constructor<?>)_newSerialCtor.invoke(_factory, cls, bctor);
+			ctor.setAccessible(true);
+			return new FieldCopier(ctor, fields.toArray(new Field[fields.size()]));
+		} catch (Throwable ex) {
+			if (log.isDebugEnabled()) log.debug("Unable to copy "+cls+" field by field", ex);
+			return null;
+		}
+	}
+	private static boolean hasMethod(Class<?> cls, String name, Class<?>... argTypes) {
+		try {
+			cls.getDeclaredMethod(name, argTypes);
+			return true;
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	/** Deep-copies an object as part of an object graph. */
+	private static abstract class Copier {
+		/** Copies the given object.
+		 * The copy must be put into copied before copying the objects it
+		 * references, such that cycles are handled.
+		 */
+		abstract Object copy(Object o, Map<Object, Object> copied) throws Exception;
+	}
+	private static final Copier IMMUTABLE = new Copier() {
+		Object copy(Object o, Map<Object, Object> copied) {
+			return o;
+		}
+	};
+	private static final Copier DATE = new Copier() {
+		Object copy(Object o, Map<Object, Object> copied) {
+			final Object c = new Date(((Date)o).getTime());
+			copied.put(o, c);
+			return c;
+		}
+	};
+	private static final Copier ARRAY = new Copier() {
+		Object copy(Object o, Map<Object, Object> copied) throws Exception {
+			final Class<?> type = o.getClass().getComponentType();
+			if (type.isPrimitive()) {
+				final Object c = ArraysX.duplicate(o);
+				copied.put(o, c);
+				return c;
+			}
+
+			final Object[] src = (Object[])o;
+			final Object[] dst = (Object[])Array.newInstance(type, src.length);
+			copied.put(o, dst);
+			for (int j = 0; j < src.length; ++j)
+				dst[j] = deepCopy(src[j], copied);
+			return dst;
+		}
+	};
+
+	/** Copies a collection by use of its public API.
+	 * It is used only for the exact classes, since a subclass might have
+	 * additional states.
+	 */
+	private static abstract class CollectionCopier extends Copier {
+		@SuppressWarnings("unchecked")
+		Object copy(Object o, Map<Object, Object> copied) throws Exception {
+			final Collection<Object> src = (Collection<Object>)o,
+				dst = newInstance(src, copied);
+			copied.put(o, dst);
+			for (Object e: src)
+				dst.add(deepCopy(e, copied));
+			return dst;
+		}
+		abstract Collection<Object> newInstance(Collection<Object> src,
+		Map<Object, Object> copied) throws Exception;
+	}
+	/** Copies a map by use of its public API.
+	 * It is used only for the exact classes, since a subclass might have
+	 * additional states.
+	 */
+	private static abstract class MapCopier extends Copier {
+		@SuppressWarnings("unchecked")
+		Object copy(Object o, Map<Object, Object> copied) throws Exception {
+			final Map<Object, Object> src = (Map<Object, Object>)o,
+				dst = newInstance(src, copied);
+			copied.put(o, dst);
+			for (Map.Entry<Object, Object> me: src.entrySet())
+				dst.put(deepCopy(me.getKey(), copied), deepCopy(me.getValue(), copied));
+			return dst;
+		}
+		abstract Map<Object, Object> newInstance(Map<Object, Object> src,
+		Map<Object, Object> copied) throws Exception;
+	}
+	private static int capacity(int size) {
+		return Math.max(size * 4 / 3 + 1, 16);
+	}
+	/** Map(Class, Copier) of the collections that can be copied with
+	 * the public API. Note: LinkedHashMap is not here since its access order
+	 * is not accessible.
+	 */
+	private static final Map<Class<?>, Copier> COLLECTIONS = new HashMap<Class<?>, Copier>();
+	static {
+		COLLECTIONS.put(ArrayList.class, new CollectionCopier() {
+			Collection<Object> newInstance(Collection<Object> src, Map<Object, Object> copied) {
+				return new ArrayList<Object>(src.size());
+			}
+		});
+		COLLECTIONS.put(LinkedList.class, new CollectionCopier() {
+			Collection<Object> newInstance(Collection<Object> src, Map<Object, Object> copied) {
+				return new LinkedList<Object>();
+			}
+		});
+		COLLECTIONS.put(HashSet.class, new CollectionCopier() {
+			Collection<Object> newInstance(Collection<Object> src, Map<Object, Object> copied) {
+				return new HashSet<Object>(capacity(src.size()));
+			}
+		});
+		COLLECTIONS.put(LinkedHashSet.class, new CollectionCopier() {
+			Collection<Object> newInstance(Collection<Object> src, Map<Object, Object> copied) {
+				return new LinkedHashSet<Object>(capacity(src.size()));
+			}
+		});
+		COLLECTIONS.put(TreeSet.class, new CollectionCopier() {
+			@SuppressWarnings("unchecked")
+			Collection<Object> newInstance(Collection<Object> src, Map<Object, Object> copied)
+			throws Exception {
+				return new TreeSet<Object>((Comparator<Object>)
+					deepCopy(((TreeSet<Object>)src).comparator(), copied));
+			}
+		});
+		COLLECTIONS.put(HashMap.class, new MapCopier() {
+			Map<Object, Object> newInstance(Map<Object, Object> src, Map<Object, Object> copied) {
+				return new HashMap<Object, Object>(capacity(src.size()));
+			}
+		});
+		COLLECTIONS.put(ConcurrentHashMap.class, new MapCopier() {
+			Map<Object, Object> newInstance(Map<Object, Object> src, Map<Object, Object> copied) {
+				return new ConcurrentHashMap<Object, Object>(capacity(src.size()));
+			}
+		});
+		COLLECTIONS.put(TreeMap.class, new MapCopier() {
+			@SuppressWarnings("unchecked")
+			Map<Object, Object> newInstance(Map<Object, Object> src, Map<Object, Object> copied)
+			throws Exception {
+				return new TreeMap<Object, Object>((Comparator<Object>)
+					deepCopy(((TreeMap<Object, Object>)src).comparator(), copied));
+			}
+		});
+	}
+
+	/** Copies the serializable fields one by one. */
+	private static class FieldCopier extends Copier {
+		private final Constructor<?> _ctor;
+		private final Field[] _fields;
+		/** The type of each field: 0 for reference, or the primitive type. */
+		private final char[] _types;
+
+		private FieldCopier(Constructor<?> ctor, Field[] fields) {
+			_ctor = ctor;
+			_fields = fields;
+			_types = new char[fields.length];
+			for (int j = 0; j < fields.length; ++j) {
+				final Class<?> type = fields[j].getType();
+				_types[j] = !type.isPrimitive() ? 0:
+					type == boolean.class ? 'Z': type == long.class ? 'J':
+					type.getName().toUpperCase().charAt(0); //B, C, D, F, I, S
+			}
+		}
+		Object copy(Object o, Map<Object, Object> copied) throws Exception {
+			final Object c = _ctor.newInstance();
+			copied.put(o, c);
+			for (int j = 0; j < _fields.length; ++j) {
+				final Field f = _fields[j];
+				switch (_types[j]) {
+				case 0: f.set(c, deepCopy(f.get(o), copied)); break;
+				case 'I': f.setInt(c, f.getInt(o)); break;
+				case 'J': f.setLong(c, f.getLong(o)); break;
+				case 'Z': f.setBoolean(c, f.getBoolean(o)); break;
+				case 'D': f.setDouble(c, f.getDouble(o)); break;
+				case 'F': f.setFloat(c, f.getFloat(o)); break;
+				case 'C': f.setChar(c, f.getChar(o)); break;
+				case 'S': f.setShort(c, f.getShort(o)); break;
+				case 'B': f.setByte(c, f.getByte(o)); break;
+				}
+			}
+			return c;
+		}
+	}
+
+	/** Thrown to abort the deep copy and fall back to the serialization. */
+	private static class Unsupported extends Exception {
+		private static final long serialVersionUID = 20261017L;
+		private static final Unsupported INSTANCE = new Unsupported();
+		public Throwable fillInStackTrace() {
+			return this; //no stack trace needed
+		}
+	}
+}
@@ -350,6 +350,73 @@ import java.io.Writer;
 
 
 
+    /**
+     * <p>
+     *   Perform a JavaScript level 2 (basic set and all non-ASCII chars) <strong>escape</strong> operation
+     *   on a <tt>String</tt> input, writing the result to a <tt>Writer</tt>.
+     * </p>
+     * <p>
+     *   It is the same as {@link #escapeJavaScript(String)}, except the result is written to
+     *   <tt>writer</tt> directly without creating intermediate <tt>String</tt> objects.
+     * </p>
+     * <p>
+     *   This method is <strong>thread-safe</strong>.
+     * </p>
+     *
+     * @param text the <tt>String</tt> to be escaped.
+     * @param writer the <tt>java.io.Writer</tt> to which the escaped result will be written. Nothing will
+     *               be written at all to this writer if <tt>text</tt> is <tt>null</tt>.
+     * @throws IOException if an input/output exception occurs
+     * @since 8.5.0
+     */
+    public static void escapeJavaScript(final String text, final Writer writer)
+                                        throws IOException {
+        escapeJavaScript(text, writer,
+                         JavaScriptEscapeType.SINGLE_ESCAPE_CHARS_DEFAULT_TO_XHEXA_AND_UHEXA,
+                         JavaScriptEscapeLevel.LEVEL_2_ALL_NON_ASCII_PLUS_BASIC_ESCAPE_SET);
+    }
+
+
+    /**
+     * <p>
+     *   Perform a (configurable) JavaScript <strong>escape</strong> operation on a <tt>String</tt> input,
+     *   writing the result to a <tt>Writer</tt>.
+     * </p>
+     * <p>
+     *   This method is <strong>thread-safe</strong>.
+     * </p>
+     *
+     * @param text the <tt>String</tt> to be escaped.
+     * @param writer the <tt>java.io.Writer</tt> to which the escaped result will be written. Nothing will
+     *               be written at all to this writer if <tt>text</tt> is <tt>null</tt>.
+     * @param type the type of escape operation to be performed, see
+     *             {@link JavaScriptEscapeType}.
+     * @param level the escape level to be applied, see {@link JavaScriptEscapeLevel}.
+     * @throws IOException if an input/output exception occurs
+     * @since 8.5.0
+     */
+    public static void escapeJavaScript(final String text, final Writer writer,
+                                        final JavaScriptEscapeType type, final JavaScriptEscapeLevel level)
+                                        throws IOException {
+
+        if (writer == null) {
+            throw new IllegalArgumentException("Argument 'writer' cannot be null");
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException("The 'type' argument cannot be null");
+        }
+
+        if (level == null) {
+            throw new IllegalArgumentException("The 'level' argument cannot be null");
+        }
+
+        JavaScriptEscapeUtil.escape(text, writer, type, level);
+
+    }
+
+
+
 
     /**
      * <p>
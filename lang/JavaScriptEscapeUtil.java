@@ -103,6 +103,13 @@ import java.util.Arrays;
     private static final char ESCAPE_LEVELS_LEN = 0x9f + 2; // Last relevant char to be indexed is 0x9f
     private static final byte[] ESCAPE_LEVELS;
 
+    /*
+     * Structure used by the fast-path scan, holding for each level (index 1 to 4) whether a char below
+     * (ESCAPE_LEVELS_LEN - 1) can be skipped without any further check. The slash (solidus) is never
+     * skipped here since whether it is escaped depends on the preceding char.
+     */
+    private static final boolean[][] UNESCAPED;
+
 
 
     static {
@@ -189,6 +196,19 @@ import java.util.Arrays;
             ESCAPE_LEVELS[c] = 1;
         }
 
+
+        /*
+         * Initialization of the fast-path scan tables.
+         */
+        UNESCAPED = new boolean[5][];
+        for (int level = 1; level <= 4; level++) {
+            final boolean[] unescaped = new boolean[ESCAPE_LEVELS_LEN - 1];
+            for (char c = 0; c < unescaped.length; c++) {
+                unescaped[c] = level < ESCAPE_LEVELS[c] && c != '/';
+            }
+            UNESCAPED[level] = unescaped;
+        }
+
     }
 
 
@@ -219,6 +239,66 @@ import java.util.Arrays;
 
 
 
+    /*
+     * Returns the index of the first char in [i, max) that might need to be escaped at the specified level,
+     * or max if none.
+     *
+     * This is the fast path of the escape operations: most texts need no escape at all, so chars are
+     * checked in a tight loop against a precomputed table, without decoding codepoints. Surrogates
+     * are skipped (or not) in pairs since both halves are classified the same way.
+     */
+    static int skipUnescaped(final String text, int i, final int max, final int level) {
+        final boolean[] unescaped = UNESCAPED[level];
+        final boolean nonAscii = level < ESCAPE_LEVELS[ESCAPE_LEVELS_LEN - 1];
+        for (; i < max; i++) {
+            final char c = text.charAt(i);
+            if (c < unescaped.length ? !unescaped[c] : (!nonAscii || c == '\u2028' || c == '\u2029')) {
+                return i;
+            }
+        }
+        return max;
+    }
+
+
+    static int skipUnescaped(final char[] text, int i, final int max, final int level) {
+        final boolean[] unescaped = UNESCAPED[level];
+        final boolean nonAscii = level < ESCAPE_LEVELS[ESCAPE_LEVELS_LEN - 1];
+        for (; i < max; i++) {
+            final char c = text[i];
+            if (c < unescaped.length ? !unescaped[c] : (!nonAscii || c == '\u2028' || c == '\u2029')) {
+                return i;
+            }
+        }
+        return max;
+    }
+
+
+    /*
+     * Returns the index of the first char in [i, max) that has to be escaped at the specified level,
+     * or max if none.
+     */
+    static int nextEscape(final String text, int i, final int max, final int level) {
+
+        for (; (i = skipUnescaped(text, i, max, level)) < max; i++) {
+
+            /*
+             * Check whether the character is a slash (solidus). In such case, only escape if it
+             * appears after a '<' ('</') or level >= 3 (non alphanumeric)
+             */
+            if (text.charAt(i) == '/' && level < 3 && (i == 0 || text.charAt(i - 1) != '<')) {
+                continue;
+            }
+
+            return i;
+
+        }
+
+        return max;
+
+    }
+
+
+
     /*
      * Perform an escape operation, based on String, according to the specified level and type.
      */
@@ -230,75 +310,73 @@ import java.util.Arrays;
         }
 
         final int level = escapeLevel.getEscapeLevel();
-        final boolean useSECs = escapeType.getUseSECs();
-        final boolean useXHexa = escapeType.getUseXHexa();
+        final int max = text.length();
 
-        StringBuilder strBuilder = null;
+        /*
+         * Shortcut: return the original String object if no escape is needed at all, which is the most
+         * common case.
+         */
+        final int i = nextEscape(text, 0, max, level);
+        if (i >= max) {
+            return text;
+        }
 
-        final int offset = 0;
-        final int max = text.length();
+        final StringBuilder strBuilder = new StringBuilder(max + 20);
+        strBuilder.append(text, 0, i);
 
-        int readOffset = offset;
+        try {
+            escape(text, i, max, strBuilder, escapeType, level);
+        } catch (final IOException e) { // Not possible since a StringBuilder is used
+            throw new IllegalStateException(e);
+        }
 
-        for (int i = offset; i < max; i++) {
+        return strBuilder.toString();
 
-            final int codepoint = Character.codePointAt(text, i);
+    }
 
 
-            /*
-             * Shortcut: most characters will be ASCII/Alphanumeric, and we won't need to do anything at
-             * all for them
-             */
-            if (codepoint <= (ESCAPE_LEVELS_LEN - 2) && level < ESCAPE_LEVELS[codepoint]) {
-                continue;
-            }
 
-            /*
-             * Check whether the character is a slash (solidus). In such case, only escape if it
-             * appears after a '<' ('</') or level >= 3 (non alphanumeric)
-             */
-            if (codepoint == '/' && level < 3 && (i == 0 || text.charAt(i - 1) != '<')) {
-                continue;
-            }
+    /*
+     * Perform an escape operation, based on String, writing the result to a Writer.
+     */
+    static void escape(final String text, final Writer writer,
+                       final JavaScriptEscapeType escapeType, final JavaScriptEscapeLevel escapeLevel)
+                       throws IOException {
 
-            /*
-             * Shortcut: we might not want to escape non-ASCII chars at all either.
-             * We also check we are not dealing with U+2028 or U+2029, which the JavaScript spec considers
-             * LineTerminators and therefore should be escaped always.
-             */
-            if (codepoint > (ESCAPE_LEVELS_LEN - 2) && level < ESCAPE_LEVELS[ESCAPE_LEVELS_LEN - 1] &&
-                    codepoint != '\u2028' && codepoint != '\u2029') {
+        if (text == null) {
+            return;
+        }
 
-                if (Character.charCount(codepoint) > 1) {
-                    // This is to compensate that we are actually escaping two char[] positions with a single codepoint.
-                    i++;
-                }
+        escape(text, 0, text.length(), writer, escapeType, escapeLevel.getEscapeLevel());
 
-                continue;
+    }
 
-            }
 
 
-            /*
-             * At this point we know for sure we will need some kind of escape, so we
-             * can increase the offset and initialize the string builder if needed, along with
-             * copying to it all the contents pending up to this point.
-             */
+    /*
+     * Escapes the chars in [i, max) of a String, appending the result (escaped or not) to the output.
+     * Unescaped chars are appended in runs, such that no intermediate copies are made for a Writer.
+     */
+    private static void escape(final String text, int i, final int max, final Appendable out,
+                               final JavaScriptEscapeType escapeType, final int level) throws IOException {
 
-            if (strBuilder == null) {
-                strBuilder = new StringBuilder(max + 20);
-            }
+        final boolean useSECs = escapeType.getUseSECs();
+        final boolean useXHexa = escapeType.getUseXHexa();
 
-            if (i - readOffset > 0) {
-                strBuilder.append(text, readOffset, i);
-            }
+        int readOffset = i;
 
-            if (Character.charCount(codepoint) > 1) {
-                // This is to compensate that we are actually reading two char[] positions with a single codepoint.
-                i++;
+        while ((i = nextEscape(text, i, max, level)) < max) {
+
+            final int codepoint = Character.codePointAt(text, i);
+
+            if (i - readOffset > 0) {
+                appendRun(out, text, readOffset, i);
             }
 
-            readOffset = i + 1;
+            // This is to compensate that we might be reading two char[] positions with a single codepoint.
+            final int charCount = Character.charCount(codepoint);
+            i += charCount;
+            readOffset = i;
 
 
             /*
@@ -316,8 +394,7 @@ import java.util.Arrays;
 
                 if (sec != SEC_CHARS_NO_SEC) {
                     // SEC found! just write it and go for the next char
-                    strBuilder.append(ESCAPE_PREFIX);
-                    strBuilder.append(sec);
+                    out.append(ESCAPE_PREFIX).append(sec);
                     continue;
                 }
 
@@ -329,43 +406,45 @@ import java.util.Arrays;
 
             if (useXHexa && codepoint <= 0xFF) {
                 // Codepoint is <= 0xFF, so we can use XHEXA escapes
-                strBuilder.append(ESCAPE_XHEXA_PREFIX);
-                strBuilder.append(toXHexa(codepoint));
+                out.append(ESCAPE_PREFIX).append(ESCAPE_XHEXA_PREFIX2)
+                    .append(HEXA_CHARS_UPPER[(codepoint >>> 4) % 0x10])
+                    .append(HEXA_CHARS_UPPER[codepoint % 0x10]);
                 continue;
             }
 
-            if (Character.charCount(codepoint) > 1) {
-                final char[] codepointChars = Character.toChars(codepoint);
-                strBuilder.append(ESCAPE_UHEXA_PREFIX);
-                strBuilder.append(toUHexa(codepointChars[0]));
-                strBuilder.append(ESCAPE_UHEXA_PREFIX);
-                strBuilder.append(toUHexa(codepointChars[1]));
+            if (charCount > 1) {
+                appendUHexa(out, text.charAt(i - 2));
+                appendUHexa(out, text.charAt(i - 1));
                 continue;
             }
 
-            strBuilder.append(ESCAPE_UHEXA_PREFIX);
-            strBuilder.append(toUHexa(codepoint));
+            appendUHexa(out, codepoint);
 
         }
 
+        if (max - readOffset > 0) {
+            appendRun(out, text, readOffset, max);
+        }
 
-        /*
-         * -----------------------------------------------------------------------------------------------
-         * Final cleaning: return the original String object if no escape was actually needed. Otherwise
-         *                 append the remaining unescaped text to the string builder and return.
-         * -----------------------------------------------------------------------------------------------
-         */
+    }
 
-        if (strBuilder == null) {
-            return text;
-        }
 
-        if (max - readOffset > 0) {
-            strBuilder.append(text, readOffset, max);
+    private static void appendRun(final Appendable out, final String text, final int start, final int end)
+                                  throws IOException {
+        if (out instanceof Writer) {
+            ((Writer)out).write(text, start, end - start);
+        } else {
+            out.append(text, start, end);
         }
+    }
 
-        return strBuilder.toString();
 
+    private static void appendUHexa(final Appendable out, final int codepoint) throws IOException {
+        out.append(ESCAPE_PREFIX).append(ESCAPE_UHEXA_PREFIX2)
+            .append(HEXA_CHARS_UPPER[(codepoint >>> 12) % 0x10])
+            .append(HEXA_CHARS_UPPER[(codepoint >>> 8) % 0x10])
+            .append(HEXA_CHARS_UPPER[(codepoint >>> 4) % 0x10])
+            .append(HEXA_CHARS_UPPER[codepoint % 0x10]);
     }
 
 
@@ -393,17 +472,16 @@ import java.util.Arrays;
 
         for (int i = offset; i < max; i++) {
 
-            final int codepoint = Character.codePointAt(text, i);
-
-
             /*
              * Shortcut: most characters will be ASCII/Alphanumeric, and we won't need to do anything at
-             * all for them
+             * all for them, so skip them in bulk
              */
-            if (codepoint <= (ESCAPE_LEVELS_LEN - 2) && level < ESCAPE_LEVELS[codepoint]) {
-                continue;
+            if ((i = skipUnescaped(text, i, max, level)) >= max) {
+                break;
             }
 
+            final int codepoint = Character.codePointAt(text, i);
+
             /*
              * Check whether the character is a slash (solidus). In such case, only escape if it
              * appears after a '<' ('</') or level >= 3 (non alphanumeric)
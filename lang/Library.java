@@ -16,8 +16,9 @@ Copyright (C) 2008 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.lang;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -36,12 +37,29 @@ import org.slf4j.LoggerFactory;
  * shared by all applications, the library properties are shared
  * by all applications.
  *
+ * <p>The library properties are stored in an immutable snapshot that
+ * is replaced when a property is changed, so reading a property doesn't
+ * synchronize. If a property is read frequently, use {@link IntProperty}
+ * or {@link BooleanProperty}, which caches the parsed value until
+ * the library properties are changed. To be notified when a property is
+ * changed (such as resizing a cache), use {@link #addPropertyListener}.
+ *
  * @author tomyeh
  * @since 3.0.7
  */
 public class Library {
 	private static final Logger log = LoggerFactory.getLogger(Library.class);
-	private static final Map<String, List<String>> _props = new HashMap<String, List<String>>();
+	/** The snapshot of the library properties. The map and the lists are
+	 * never modified after published. Instead, it is replaced with a modified
+	 * copy (in synchronized(_lock)).
+	 */
+	private static volatile Map<String, List<String>> _props = Collections.emptyMap();
+	/** Map(String key, PropertyListener[] listeners); copied on write, too. */
+	private static volatile Map<String, PropertyListener[]> _listeners = Collections.emptyMap();
+	/** The version of the library properties. It is increased each time
+	 * a property is changed, such that the cached values are invalidated. */
+	private static volatile int _ver = 1;
+	private static final Object _lock = new Object();
 
 	private Library() {}
 
@@ -63,14 +81,7 @@ public class Library {
 	 * @see #setProperty
 	 */
 	public static String getProperty(String key) {
-		final String v;
-		synchronized (_props) {
-			List<String> valList = _props.get(key);
-			if (valList != null && valList.size() > 0)
-				v = valList.get(0);
-			else
-				v = null;
-		}
+		final String v = getFirst(key);
 		try {
 			//Unlike System.getProperty, we make the inocation as safe as possible
 			return v != null || key == null || key.length() == 0 ?
@@ -92,20 +103,17 @@ public class Library {
 	 * @exception IllegalArgumentException if key is empty
 	 */
 	public static String getProperty(String key, String def) {
-		final String v;
-		synchronized (_props) {
-			List<String> valList = _props.get(key);
-			if (valList != null && valList.size() > 0)
-				v = valList.get(0);
-			else
-				v = null;
-		}
+		final String v = getFirst(key);
 		try {
 			return v != null ? v: System.getProperty(key, def);
 		} catch (SecurityException ex) {
 			return def;
 		}
 	}
+	private static String getFirst(String key) {
+		final List<String> valList = _props.get(key);
+		return valList != null && !valList.isEmpty() ? valList.get(0): null;
+	}
 	/** Sets the library property indicated by the specified key.
 	 * @see #getProperty
 	 * @exception NullPointerException if key is null
@@ -117,12 +125,8 @@ public class Library {
 		if (key == null) throw new NullPointerException();
 		if (key.length() == 0) throw new IllegalArgumentException();
 
-		synchronized (_props) {
-			List<String> vals = new LinkedList<String>();
-			vals.add(value);
-			List<String> prev = _props.put(key, vals);
-			return prev != null && prev.size() > 0 ? prev.get(0) : null;
-		}
+		final List<String> prev = put(key, Collections.singletonList(value), false);
+		return prev != null && prev.size() > 0 ? prev.get(0) : null;
 	}
 
 	/** Parses the property value to an integer.
@@ -154,13 +158,7 @@ public class Library {
 		if (key == null) throw new NullPointerException();
 		if (key.length() == 0) throw new IllegalArgumentException();
 
-		synchronized (_props) {
-			List<String> old = _props.get(key);
-			if (old == null)
-				old = new LinkedList<String>();
-			old.add(value);
-			return _props.put(key, old);
-		}
+		return put(key, Collections.singletonList(value), true);
 	}
 
 	/** Add library properties indicated by the specified key.
@@ -174,13 +172,7 @@ public class Library {
 		if (key == null) throw new NullPointerException();
 		if (key.length() == 0) throw new IllegalArgumentException();
 
-		synchronized (_props) {
-			List<String> old = _props.get(key);
-			if (old == null)
-				old = new LinkedList<String>();
-			old.addAll(values);
-			return _props.put(key, old);
-		}
+		return put(key, values, true);
 	}
 
 	/** Sets the library properties indicated by the specified key.
@@ -194,9 +186,7 @@ public class Library {
 		if (key == null) throw new NullPointerException();
 		if (key.length() == 0) throw new IllegalArgumentException();
 
-		synchronized (_props) {
-			return _props.put(key, new LinkedList<String>(values));
-		}
+		return put(key, values, false);
 	}
 
 	/** Returns the library properties indicated by the specified key.
@@ -208,14 +198,193 @@ public class Library {
 	 * the library properties are accessible only in the application.
 	 *
 	 * @return the List of values of the library properties,
-	 * or null if no such property.
+	 * or null if no such property. The list is read-only.
 	 * @see #setProperties
 	 */
 	public static List<String> getProperties(String key) {
-		final List<String> v;
-		synchronized (_props) {
-			v = _props.get(key);
+		return _props.get(key);
+	}
+
+	/** Publishes a new snapshot with the values of the given key replaced
+	 * (or appended), and then notifies the listeners.
+	 * @return the previous values, or null if not found
+	 */
+	private static List<String> put(String key, List<String> values,
+	boolean append) {
+		final List<String> prev;
+		synchronized (_lock) {
+			final Map<String, List<String>> props =
+				new HashMap<String, List<String>>(_props);
+			prev = props.get(key);
+			final List<String> vals = new ArrayList<String>(
+				(append && prev != null ? prev.size(): 0) + values.size());
+			if (append && prev != null)
+				vals.addAll(prev);
+			vals.addAll(values);
+			props.put(key, Collections.unmodifiableList(vals));
+			_props = props;
+			++_ver;
+		}
+
+		final PropertyListener[] ls = _listeners.get(key);
+		if (ls != null) {
+			final String value = getProperty(key);
+			for (int j = 0; j < ls.length; ++j) {
+				try {
+					ls[j].onChange(key, value);
+				} catch (Throwable ex) {
+					log.warn("Failed to notify "+ls[j], ex);
+				}
+			}
+		}
+		return prev;
+	}
+
+	/** Adds a listener that is called when the library property
+	 * of the given key is changed (by {@link #setProperty}, {@link #addProperty}
+	 * and so on).
+	 * @since 8.5.0
+	 */
+	public static void addPropertyListener(String key, PropertyListener listener) {
+		if (key == null || listener == null)
+			throw new NullPointerException();
+
+		synchronized (_lock) {
+			final Map<String, PropertyListener[]> listeners =
+				new HashMap<String, PropertyListener[]>(_listeners);
+			final PropertyListener[] ls = listeners.get(key);
+			final PropertyListener[] newls =
+				new PropertyListener[ls != null ? ls.length + 1: 1];
+			if (ls != null)
+				System.arraycopy(ls, 0, newls, 0, ls.length);
+			newls[newls.length - 1] = listener;
+			listeners.put(key, newls);
+			_listeners = listeners;
+		}
+	}
+	/** Removes a listener added by {@link #addPropertyListener}.
+	 * @return whether the listener is removed
+	 * @since 8.5.0
+	 */
+	public static boolean removePropertyListener(String key, PropertyListener listener) {
+		synchronized (_lock) {
+			final PropertyListener[] ls = _listeners.get(key);
+			if (ls != null)
+				for (int j = 0; j < ls.length; ++j)
+					if (ls[j] == listener) {
+						final Map<String, PropertyListener[]> listeners =
+							new HashMap<String, PropertyListener[]>(_listeners);
+						if (ls.length == 1) {
+							listeners.remove(key);
+						} else {
+							final PropertyListener[] newls = new PropertyListener[ls.length - 1];
+							System.arraycopy(ls, 0, newls, 0, j);
+							System.arraycopy(ls, j + 1, newls, j, newls.length - j);
+							listeners.put(key, newls);
+						}
+						_listeners = listeners;
+						return true;
+					}
+			return false;
+		}
+	}
+
+	/** A listener to know whether a library property is changed.
+	 * @since 8.5.0
+	 * @see Library#addPropertyListener
+	 */
+	public static interface PropertyListener {
+		/** Called after the library property of the given key is changed.
+		 * @param value the new value (i.e., the first value if
+		 * there are multiple values)
+		 */
+		public void onChange(String key, String value);
+	}
+
+	/** A handle of an integer library property. It caches the parsed value
+	 * until any library property is changed, so {@link #get} is
+	 * as cheap as reading a field.
+	 * <p>Note: the system property with the same key is read only when
+	 * the value is parsed. Thus, if it is changed later, it won't be
+	 * detected until a library property is changed.
+	 * @since 8.5.0
+	 */
+	public static class IntProperty {
+		private final String _key;
+		private final int _defVal;
+		/** The version (higher 32 bits) and the value (lower 32 bits). */
+		private volatile long _cache;
+
+		/**
+		 * @param key the name of the library property
+		 * @param defVal the value if the property is not specified
+		 * (or not an integer)
+		 */
+		public IntProperty(String key, int defVal) {
+			if (key == null) throw new NullPointerException();
+			_key = key;
+			_defVal = defVal;
+		}
+		/** Returns the value of the property.
+		 * @see Library#getIntProperty
+		 */
+		public int get() {
+			final int ver = _ver;
+			final long cache = _cache;
+			if ((int)(cache >>> 32) == ver)
+				return (int)cache;
+
+			final int v = getIntProperty(_key, _defVal);
+			_cache = ((long)ver << 32) | (v & 0xffffffffL);
+			return v;
+		}
+		/** Returns the name of the library property. */
+		public String getKey() {
+			return _key;
+		}
+		public String toString() {
+			return _key + '=' + get();
+		}
+	}
+	/** A handle of a boolean library property. The property is considered
+	 * true if its value is <code>"true"</code>.
+	 * It caches the value until any library property is changed.
+	 * @see IntProperty
+	 * @since 8.5.0
+	 */
+	public static class BooleanProperty {
+		private final String _key;
+		private final boolean _defVal;
+		/** The version (higher 32 bits) and the value (lowest bit). */
+		private volatile long _cache;
+
+		/**
+		 * @param key the name of the library property
+		 * @param defVal the value if the property is not specified
+		 */
+		public BooleanProperty(String key, boolean defVal) {
+			if (key == null) throw new NullPointerException();
+			_key = key;
+			_defVal = defVal;
+		}
+		/** Returns the value of the property. */
+		public boolean get() {
+			final int ver = _ver;
+			final long cache = _cache;
+			if ((int)(cache >>> 32) == ver)
+				return (cache & 1) != 0;
+
+			final String val = getProperty(_key);
+			final boolean v = val != null ? "true".equals(val): _defVal;
+			_cache = ((long)ver << 32) | (v ? 1: 0);
+			return v;
+		}
+		/** Returns the name of the library property. */
+		public String getKey() {
+			return _key;
+		}
+		public String toString() {
+			return _key + '=' + get();
 		}
-		return v;
 	}
 }
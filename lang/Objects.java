@@ -19,7 +19,6 @@ package org.zkoss.lang;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.rmi.MarshalledObject;
 import java.util.Date;
 
 import org.slf4j.Logger;
@@ -411,7 +410,14 @@ public class Objects {
 
 	/**
 	 * Clones the specified object. Use clone() if Cloneable.
-	 * Otherwise, try to serialize/deserialize it by use of MarshalledObject.
+	 * Otherwise, use the copy constructor if any, or deep-copy it as if it
+	 * is serialized and deserialized.
+	 *
+	 * <p>Since 8.5.0, how to clone a class is analyzed once and cached.
+	 * Immutable objects, such as strings and enums, are returned directly,
+	 * and a serializable object is copied field by field (with the cyclic
+	 * references preserved), unless its serialization is customized
+	 * (such as writeObject), in which case MarshalledObject is used.
 	 *
 	 * <p>If o is null, null is returned.
 	 *
@@ -422,21 +428,7 @@ public class Objects {
 			return o;
 
 		try {
-			final Class<?> kls = o.getClass();
-			if (kls.isArray())
-				return ArraysX.duplicate(o);
-
-			if (o instanceof Cloneable) {
-				try {
-					return kls.getMethod("clone").invoke(o);
-				} catch (NoSuchMethodException ex) {
-					if (log.isDebugEnabled()) log.debug("No clone() for "+kls);
-				}
-			}
-
-			//:TODO: MarshalledObject is said with very bad performance, change it
-			//if exists other good deep clone method.
-			return new MarshalledObject<Object>(o).get();
+			return Cloners.clone(o);
 		} catch (Exception ex) {
 			throw SystemException.Aide.wrap(ex);
 		}
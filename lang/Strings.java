@@ -16,8 +16,9 @@ Copyright (C) 2001 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.lang;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.Arrays;
+import java.io.Writer;
 
 import org.zkoss.mesg.MCommon;
 import org.zkoss.util.IllegalSyntaxException;
@@ -281,43 +282,14 @@ public class Strings {
 		if (src == null)
 			return null;
 
-		final char[] chars = src.toCharArray();
-		StringBuilder sb = null;
-		int j = 0;
-		l_out:
-		for (int j2 = 0, len = chars.length;;) {
-			String enc = null;
-			char cc;
-			int k = j2;
-			for (;; ++k) {
-				if (k >= len)
-					break l_out;
-
-				cc = chars[k];
-				if (shallEncodeUnicode(cc, specials)) {
-					enc = encodeUnicode(cc);
-					break;
-				}
-				if (specials.indexOf(cc) >= 0)
-					break;
-			}
-
-			if (enc == null
-			&& (cc = escapeSpecial(src, cc, k, specials)) == (char)0) {
-				j2 = k + 1;
-				continue;
-			}
-
-			if (sb == null)
-				sb = new StringBuilder(len + 4);
-			sb.append(Arrays.copyOfRange(chars, j, k)).append('\\');
-			if (enc != null) sb.append(enc);
-			else sb.append(cc);
-			j2 = j = k + 1;
-		}
-		if (sb == null)
+		final Specials sp = getSpecials(specials);
+		final int len = src.length(), k = nextEscape(src, 0, len, sp);
+		if (k >= len)
 			return src; //nothing changed
-		return sb.append(Arrays.copyOfRange(chars, j, chars.length)).toString();
+
+		final StringBuilder sb = new StringBuilder(len + 16).append(src, 0, k);
+		escape0(sb, src, k, len, sp);
+		return sb.toString();
 	}
 	private static char escapeSpecial(CharSequence src,
 	char cc, int k, String specials) {
@@ -360,37 +332,9 @@ public class Strings {
 	 */
 	public static final
 	StringBuffer escape(StringBuffer dst, CharSequence src, String specials) {
-		if (src == null)
-			return dst;
-
-		for (int j = 0, j2 = 0, len = src.length();;) {
-			String enc = null;
-			char cc;
-			int k = j2;
-			for (;; ++k) {
-				if (k >= len)
-					return dst.append((Object)src.subSequence(j, src.length()));
-
-				cc = src.charAt(k);
-				if (shallEncodeUnicode(cc, specials)) {
-					enc = encodeUnicode(cc);
-					break;
-				}
-				if (specials.indexOf(cc) >= 0)
-					break;
-			}
-
-			if (enc == null
-			&& (cc = escapeSpecial(src, cc, k, specials)) == (char)0) {
-				j2 = k + 1;
-				continue;
-			}
-
-			dst.append((Object)src.subSequence(j, k)).append('\\');
-			if (enc != null) dst.append(enc);
-			else dst.append(cc);
-			j2 = j = k + 1;
-		}
+		if (src != null)
+			escape0(dst, src, 0, src.length(), getSpecials(specials));
+		return dst;
 	}
 
 	/** Escapes (a.k.a. quote) the special characters with backslash
@@ -404,39 +348,140 @@ public class Strings {
 	 */
 	public static final
 	StringBuilder escape(StringBuilder dst, CharSequence src, String specials) {
-		if (src == null)
-			return dst;
-		String str = src.toString();
-
-		char[] chars = str.toCharArray();
-		for (int j = 0, j2 = 0, len = chars.length;;) {
-			String enc = null;
-			char cc;
-			int k = j2;
-			for (;; ++k) {
-				if (k >= len) {
-					return dst.append(Arrays.copyOfRange(chars, j, len));
-				}
-
-				cc = chars[k];
-				if (shallEncodeUnicode(cc, specials)) {
-					enc = encodeUnicode(cc);
-					break;
-				}
-				if (specials.indexOf(cc) >= 0)
-					break;
+		if (src != null)
+			escape0(dst, src, 0, src.length(), getSpecials(specials));
+		return dst;
+	}
+	/** Escapes (a.k.a. quote) the special characters with backslash
+	 * and writes it to the specified writer.
+	 * Unlike {@link #escape(String, String)}, no intermediate string is
+	 * created.
+	 *
+	 * @param dst the destination writer to write to.
+	 * @param src the source to escape from.
+	 * @param specials a string of characters that shall be escaped/quoted
+	 * To escape a string in JavaScript code snippet, you can use {@link #ESCAPE_JAVASCRIPT}.
+	 * @since 8.5.0
+	 */
+	public static final
+	Writer escape(Writer dst, CharSequence src, String specials)
+	throws IOException {
+		if (src != null)
+			escape0(dst, src, 0, src.length(), getSpecials(specials));
+		return dst;
+	}
+	private static void escape0(StringBuffer dst, CharSequence src,
+	int j, int len, Specials sp) {
+		try {
+			escape0((Appendable)dst, src, j, len, sp);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
+		}
+	}
+	private static void escape0(StringBuilder dst, CharSequence src,
+	int j, int len, Specials sp) {
+		try {
+			escape0((Appendable)dst, src, j, len, sp);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
+		}
+	}
+	/** Escapes src[j, len) to dst. The characters that need not to be
+	 * escaped are appended in runs.
+	 */
+	private static void escape0(Appendable dst, CharSequence src,
+	int j, int len, Specials sp) throws IOException {
+		for (;;) {
+			final int k = nextEscape(src, j, len, sp);
+			if (k > j) {
+				if (dst instanceof Writer && src instanceof String)
+					((Writer)dst).write((String)src, j, k - j);
+				else
+					dst.append(src, j, k);
 			}
-
-			if (enc == null
-					&& (cc = escapeSpecial(src, cc, k, specials)) == (char)0) {
-				j2 = k + 1;
-				continue;
+			if (k >= len)
+				return;
+
+			final char cc = src.charAt(k);
+			dst.append('\\');
+			if (sp.isUnicode(cc)) {
+				dst.append('u').append(HEX_DIGITS[cc >> 12])
+					.append(HEX_DIGITS[(cc >> 8) & 0xf])
+					.append(HEX_DIGITS[(cc >> 4) & 0xf])
+					.append(HEX_DIGITS[cc & 0xf]);
+			} else {
+				dst.append(escapeSpecial(src, cc, k, sp.specials));
 			}
-
-			dst.append(Arrays.copyOfRange(chars, j, k)).append('\\');
-			if (enc != null) dst.append(enc);
-			else dst.append(cc);
-			j2 = j = k + 1;
+			j = k + 1;
+		}
+	}
+	/** Returns the index of the first character in src[k, len) that shall
+	 * be escaped, or len if none.
+	 */
+	private static int nextEscape(CharSequence src, int k, int len, Specials sp) {
+		for (; (k = sp.next(src, k, len)) < len; ++k) {
+			final char cc = src.charAt(k);
+			if (sp.isUnicode(cc) || escapeSpecial(src, cc, k, sp.specials) != (char)0)
+				return k;
+		}
+		return len;
+	}
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** The specials (of {@link #escape}) that was used last time.
+	 * Since the same specials (e.g., {@link #ESCAPE_JAVASCRIPT}) is used
+	 * in most cases, we cache the last one only.
+	 */
+	private static volatile Specials _specials;
+	private static Specials getSpecials(String specials) {
+		Specials sp = _specials;
+		if (sp == null || !sp.specials.equals(specials))
+			_specials = sp = new Specials(specials);
+		return sp;
+	}
+	/** The compiled form of the specials used by {@link #escape}.
+	 * It is immutable, so it can be shared by multiple threads.
+	 */
+	private static class Specials {
+		private final String specials;
+		/** Whether an ASCII character is one of the specials. */
+		private final boolean[] ascii = new boolean[128];
+		/** The specials that are not ASCII (rare). */
+		private final String others;
+		/** Whether to encode the unicode characters (i.e., {@link #ESCAPE_JAVASCRIPT}). */
+		private final boolean unicode;
+
+		private Specials(String specials) {
+			this.specials = specials;
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 0, len = specials.length(); j < len; ++j) {
+				final char cc = specials.charAt(j);
+				if (cc < 128) ascii[cc] = true;
+				else sb.append(cc);
+			}
+			others = sb.toString();
+			unicode = ESCAPE_JAVASCRIPT.equals(specials);
+		}
+		/** Returns whether the character shall be encoded as \\uXXXX.
+		 * Note: don't check isSpaceChar since \\u2028 will return true and
+		 * it is not recognized by Firefox
+		 */
+		private boolean isUnicode(char cc) {
+			return unicode && cc > (char)255 && !Character.isLetterOrDigit(cc);
+		}
+		/** Returns the index of the first character in src[k, len) that is
+		 * a special or shall be encoded as unicode, or len if none.
+		 * Most characters are ASCII and not special, so they are checked
+		 * against a table in a tight loop.
+		 */
+		private int next(CharSequence src, int k, int len) {
+			for (; k < len; ++k) {
+				final char cc = src.charAt(k);
+				if (cc < 128 ? ascii[cc]:
+				isUnicode(cc) || (others.length() > 0 && others.indexOf(cc) >= 0))
+					return k;
+			}
+			return len;
 		}
 	}
 	/** Escapes (a.k.a. quote) the special characters with backslash.
@@ -448,20 +493,15 @@ public class Strings {
 		// which license is under Apache License 2.0 - https://github.com/unbescape/unbescape
 		return JavaScriptEscape.escapeJavaScript(text);
 	}
-
-	private static final boolean shallEncodeUnicode(char cc, String specials) {
-		return ESCAPE_JAVASCRIPT.equals(specials) && cc > (char)255
-			&& !Character.isLetterOrDigit(cc);
-			//don't check isSpaceChar since \u2028 will return true and it
-			//is not recognized by Firefox
-	}
-	/** Return "u????". */
-	private static final String encodeUnicode(int cc) {
-		final StringBuilder sb = new StringBuilder(6)
-			.append('u').append(Integer.toHexString(cc));
-		while (sb.length() < 5)
-			sb.insert(1, '0');
-		return sb.toString();
+	/** Escapes (a.k.a. quote) the special characters with backslash,
+	 * and writes it to the given writer.
+	 * It is the same as {@link #escapeJavaScript(String)}, except
+	 * no intermediate string is created.
+	 * @since 8.5.0
+	 */
+	public static final void escapeJavaScript(Writer out, String text)
+	throws IOException {
+		JavaScriptEscape.escapeJavaScript(text, out);
 	}
 		
 
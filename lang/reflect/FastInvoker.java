@@ -0,0 +1,310 @@
+/* FastInvoker.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 15:40:12     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.lang.reflect;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.zkoss.lang.Primitives;
+
+/**
+ * The invoker to invoke a method repeatedly.
+ * Unlike {@link Method#invoke}, a public method with a few arguments
+ * is bound once to a functional object generated by
+ * {@link LambdaMetafactory} (if JVM 8 or above), such that it is called
+ * directly without the access checks and the argument array being resolved
+ * again for each invocation. Otherwise, it falls back to {@link Method#invoke}.
+ *
+ * <p>The semantics is the same as {@link Method#invoke}: an exception
+ * thrown by the method is wrapped with {@link InvocationTargetException},
+ * and an argument that is not exactly the parameter type (such as
+ * a widening conversion of a primitive) is handled by
+ * {@link Method#invoke}.
+ *
+ * <p>Exactly one invoker is created for a method (by {@link #getInstance}),
+ * and it is kept as long as the declaring class is loaded. It is not kept
+ * in a size-bounded cache, since a generated class is never unloaded,
+ * and generating it again after being evicted would fill up the metaspace.
+ *
+ * <p>Thread safe.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public abstract class FastInvoker {
+	/** Whether LambdaMetafactory is available (JVM 8 or above). */
+	private static final boolean _lambdaAvailable;
+	static {
+		boolean available = false;
+		try {
+			Class.forName("java.lang.invoke.LambdaMetafactory");
+			available = true;
+		} catch (Throwable ex) { //ignore
+		}
+		_lambdaAvailable = available;
+	}
+
+	/** Returns the invoker of the specified method.
+	 * The invoker is created once per method, so it is cheap to call
+	 * this method repeatedly.
+	 */
+	public static FastInvoker getInstance(Method method) {
+		return _lambdaAvailable ? LambdaInvoker.getInvoker(method):
+			new ReflectInvoker(method);
+	}
+
+	/** Returns the method to invoke.
+	 */
+	public abstract Method getMethod();
+	/** Invokes the method with the specified target and arguments.
+	 * @param obj the object to invoke, or null if the method is static.
+	 * @param args the arguments
+	 * @exception InvocationTargetException if the method throws an exception
+	 */
+	public abstract Object invoke(Object obj, Object... args)
+	throws IllegalAccessException, InvocationTargetException;
+
+	public String toString() {
+		return getMethod().toString();
+	}
+
+	/** The invoker based on {@link Method#invoke}. */
+	private static class ReflectInvoker extends FastInvoker {
+		private final Method _method;
+
+		private ReflectInvoker(Method method) {
+			_method = method;
+		}
+		public Method getMethod() {
+			return _method;
+		}
+		public Object invoke(Object obj, Object... args)
+		throws IllegalAccessException, InvocationTargetException {
+			return _method.invoke(obj, args);
+		}
+	}
+	/** The invoker based on a functional object generated by
+	 * {@link LambdaMetafactory}, such that the method is called directly
+	 * (and can be inlined by JIT).
+	 */
+	private static class LambdaInvoker extends FastInvoker {
+		/** The maximal number of arguments (including the target) supported. */
+		private static final int MAX_ARGS = 4;
+		private static final Class<?>[] FUNCS = {
+			Func0.class, Func1.class, Func2.class, Func3.class, Func4.class};
+		private static final Class<?>[] PROCS = {
+			Proc0.class, Proc1.class, Proc2.class, Proc3.class, Proc4.class};
+		private static final Object[] NO_ARGS = new Object[0];
+		/** The invokers of the methods of each class. A ClassValue is used
+		 * (rather than a static map) so they are released with the class.
+		 */
+		private static final ClassValue<Map<Method, FastInvoker>> _invokers =
+			new ClassValue<Map<Method, FastInvoker>>() {
+				protected Map<Method, FastInvoker> computeValue(Class<?> cls) {
+					return new ConcurrentHashMap<Method, FastInvoker>(4);
+				}
+			};
+
+		private final Method _method;
+		/** The generated functional object (one of FuncN and ProcN). */
+		private final Object _fn;
+		/** The number of arguments passed to {@link #_fn}. */
+		private final int _nfn;
+		private final boolean _void;
+		/** The parameter types (primitive types are converted to wrappers). */
+		private final Class<?>[] _argTypes;
+		/** Whether each parameter is a primitive type. */
+		private final boolean[] _primitive;
+		/** The declaring class, or null if the method is static. */
+		private final Class<?> _target;
+
+		/** Returns the invoker of the given method, and generates it if
+		 * it is the first time (or falls back to {@link ReflectInvoker}
+		 * if not supported).
+		 */
+		private static FastInvoker getInvoker(Method method) {
+			final Map<Method, FastInvoker> invokers =
+				_invokers.get(method.getDeclaringClass());
+			FastInvoker invoker = invokers.get(method);
+			if (invoker == null) {
+				synchronized (invokers) { //generate only once
+					invoker = invokers.get(method);
+					if (invoker == null) {
+						try {
+							invoker = new LambdaInvoker(method);
+						} catch (Throwable ex) { //ignore (such as not public, or too many arguments)
+							invoker = new ReflectInvoker(method);
+						}
+						invokers.put(method, invoker);
+					}
+				}
+			}
+			return invoker;
+		}
+
+		private LambdaInvoker(Method method) throws Throwable {
+			final Class<?> cls = method.getDeclaringClass();
+			if (!Modifier.isPublic(method.getModifiers())
+			|| !Modifier.isPublic(cls.getModifiers()))
+				throw new IllegalAccessException(method.toString());
+
+			_method = method;
+			_argTypes = method.getParameterTypes();
+			_primitive = new boolean[_argTypes.length];
+			for (int j = 0; j < _argTypes.length; ++j)
+				if (_primitive[j] = _argTypes[j].isPrimitive())
+					_argTypes[j] = Primitives.toWrapper(_argTypes[j]);
+			_target = Modifier.isStatic(method.getModifiers()) ? null: cls;
+
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			final MethodHandle mh = lookup.unreflect(method);
+			final MethodType type = mh.type(); //including the target if not static
+			_nfn = type.parameterCount();
+			if (_nfn > MAX_ARGS)
+				throw new UnsupportedOperationException(method.toString());
+			_void = type.returnType() == void.class;
+
+			//The generated class is defined by our class loader, so all
+			//types it refers, including the declaring class of a static
+			//method, must be visible to it
+			if (!isVisible(cls))
+				throw new ClassNotFoundException(cls.getName());
+			MethodType instType = type.wrap();
+			if (_void)
+				instType = instType.changeReturnType(void.class);
+			else if (!isVisible(instType.returnType()))
+				throw new ClassNotFoundException(instType.returnType().getName());
+			for (int j = 0; j < _nfn; ++j)
+				if (!isVisible(instType.parameterType(j)))
+					throw new ClassNotFoundException(instType.parameterType(j).getName());
+
+			MethodType samType = MethodType.genericMethodType(_nfn);
+			if (_void)
+				samType = samType.changeReturnType(void.class);
+			_fn = LambdaMetafactory.metafactory(lookup, "call",
+				MethodType.methodType((_void ? PROCS: FUNCS)[_nfn]),
+				samType, mh, instType).getTarget().invoke();
+		}
+		private static boolean isVisible(Class<?> cls) {
+			try {
+				return Class.forName(cls.getName(), false,
+					LambdaInvoker.class.getClassLoader()) == cls;
+			} catch (Throwable ex) {
+				return false;
+			}
+		}
+
+		public Method getMethod() {
+			return _method;
+		}
+		public Object invoke(Object obj, Object... args)
+		throws IllegalAccessException, InvocationTargetException {
+			if (args == null)
+				args = NO_ARGS;
+			if (!isExact(obj, args)) //let Method.invoke handle conversion and errors
+				return _method.invoke(obj, args);
+
+			try {
+				if (_target == null)
+					return call(args.length > 0 ? args[0]: null,
+						args.length > 1 ? args[1]: null,
+						args.length > 2 ? args[2]: null,
+						args.length > 3 ? args[3]: null);
+				return call(obj, args.length > 0 ? args[0]: null,
+					args.length > 1 ? args[1]: null,
+					args.length > 2 ? args[2]: null);
+			} catch (Throwable ex) {
+				throw new InvocationTargetException(ex);
+			}
+		}
+		private Object call(Object a0, Object a1, Object a2, Object a3) {
+			if (_void) {
+				switch (_nfn) {
+				case 0: ((Proc0)_fn).call(); break;
+				case 1: ((Proc1)_fn).call(a0); break;
+				case 2: ((Proc2)_fn).call(a0, a1); break;
+				case 3: ((Proc3)_fn).call(a0, a1, a2); break;
+				default: ((Proc4)_fn).call(a0, a1, a2, a3);
+				}
+				return null;
+			}
+			switch (_nfn) {
+			case 0: return ((Func0)_fn).call();
+			case 1: return ((Func1)_fn).call(a0);
+			case 2: return ((Func2)_fn).call(a0, a1);
+			case 3: return ((Func3)_fn).call(a0, a1, a2);
+			default: return ((Func4)_fn).call(a0, a1, a2, a3);
+			}
+		}
+		/** Returns whether the arguments can be passed to the generated
+		 * object without any conversion (other than unboxing).
+		 * Then, any exception thrown by it must come from the method itself.
+		 */
+		private boolean isExact(Object obj, Object[] args) {
+			if (_target != null && !_target.isInstance(obj))
+				return false;
+
+			final int len = args.length;
+			if (len != _argTypes.length)
+				return false;
+			for (int j = 0; j < len; ++j) {
+				final Object arg = args[j];
+				if (arg == null ? _primitive[j]: !_argTypes[j].isInstance(arg))
+					return false;
+			}
+			return true;
+		}
+	}
+	//The functional interfaces implemented by LambdaMetafactory//
+	private static interface Func0 {
+		public Object call();
+	}
+	private static interface Func1 {
+		public Object call(Object a0);
+	}
+	private static interface Func2 {
+		public Object call(Object a0, Object a1);
+	}
+	private static interface Func3 {
+		public Object call(Object a0, Object a1, Object a2);
+	}
+	private static interface Func4 {
+		public Object call(Object a0, Object a1, Object a2, Object a3);
+	}
+	private static interface Proc0 {
+		public void call();
+	}
+	private static interface Proc1 {
+		public void call(Object a0);
+	}
+	private static interface Proc2 {
+		public void call(Object a0, Object a1);
+	}
+	private static interface Proc3 {
+		public void call(Object a0, Object a1, Object a2);
+	}
+	private static interface Proc4 {
+		public void call(Object a0, Object a1, Object a2, Object a3);
+	}
+}
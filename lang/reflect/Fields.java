@@ -113,7 +113,7 @@ public class Fields {
 				obj.getClass(), name, null,
 				Classes.B_GET|Classes.B_PUBLIC_ONLY);
 			return 	acs instanceof Method ?
-				((Method)acs).invoke(obj): ((Field)acs).get(obj);
+				FastInvoker.getInstance((Method)acs).invoke(obj): ((Field)acs).get(obj);
 		} catch (NoSuchMethodException ex) {
 			if (obj instanceof Map) {
 				return ((Map) obj).get(name);
@@ -150,7 +150,7 @@ public class Fields {
 			}
 			if (acs instanceof Method) {
 				final Method mtd = (Method)acs;
-				mtd.invoke(obj,
+				FastInvoker.getInstance(mtd).invoke(obj,
 					autoCoerce ? Classes.coerce(mtd.getParameterTypes()[0], val): val);
 			} else {
 				final Field fld = (Field)acs;
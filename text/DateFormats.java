@@ -18,7 +18,6 @@ package org.zkoss.text;
 import java.util.Locale;
 import java.util.Date;
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.text.ParseException;
 
 import org.zkoss.util.Locales;
@@ -90,12 +89,9 @@ public class DateFormats {
 				return fmt;
 		}
 
-		final DateFormat df = DateFormat.getDateInstance(style, locale);
-		if (df instanceof SimpleDateFormat) {
-			final String fmt = ((SimpleDateFormat)df).toPattern();
-			if (fmt != null && !"M/d/yy h:mm a".equals(fmt))
-				return fmt; // note: JVM use "M/d/yy h:mm a" if not found!
-		}
+		final String fmt = FormatCache.getDatePattern(style, -1, locale);
+		if (fmt != null && !"M/d/yy h:mm a".equals(fmt))
+			return fmt; // note: JVM use "M/d/yy h:mm a" if not found!
 		return defaultFormat != null ? defaultFormat: "M/d/yy";
 	}
 
@@ -129,12 +125,9 @@ public class DateFormats {
 				return fmt;
 		}
 
-		final DateFormat df = DateFormat.getTimeInstance(style, locale);
-		if (df instanceof SimpleDateFormat) {
-			final String fmt = ((SimpleDateFormat)df).toPattern();
-			if (fmt != null && !"M/d/yy h:mm a".equals(fmt))
-				return fmt; // note: JVM use "M/d/yy h:mm a" if not found!
-		}
+		final String fmt = FormatCache.getDatePattern(-1, style, locale);
+		if (fmt != null && !"M/d/yy h:mm a".equals(fmt))
+			return fmt; // note: JVM use "M/d/yy h:mm a" if not found!
 		return "h:mm a";
 	}
 
@@ -169,13 +162,10 @@ public class DateFormats {
 				return fmt;
 		}
 
-		final DateFormat df =
-			DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale);
-		if (df instanceof SimpleDateFormat) {
-			final String fmt = ((SimpleDateFormat)df).toPattern();
-			if (fmt != null)
-				return fmt;
-		}
+		final String fmt =
+			FormatCache.getDatePattern(dateStyle, timeStyle, locale);
+		if (fmt != null)
+			return fmt;
 		return defaultFormat != null ? defaultFormat: "M/d/yy h:mm a";
 	}
 
@@ -186,7 +176,8 @@ public class DateFormats {
 	 * both date and time
 	 */
 	public static final String format(Date d, boolean dateOnly) {
-		return getDateFormat(dateOnly).format(d);
+		return FormatCache.formatDate(d, DateFormat.DEFAULT,
+			dateOnly ? -1: DateFormat.DEFAULT, null, null);
 	}
 	/**
 	 * Parses a string, that is formatted by {@link #format}, to a date.
@@ -198,13 +189,7 @@ public class DateFormats {
 	 */
 	public static final Date parse(String s, boolean dateOnly)
 	throws ParseException {
-		return getDateFormat(dateOnly).parse(s);
-	}
-	private static final DateFormat getDateFormat(boolean dateOnly) {
-		final Locale locale = Locales.getCurrent();
-		return dateOnly ?
-			DateFormat.getDateInstance(DateFormat.DEFAULT, locale):
-			DateFormat.getDateTimeInstance(
-					DateFormat.DEFAULT, DateFormat.DEFAULT, locale);
+		return FormatCache.parseDate(s, DateFormat.DEFAULT,
+			dateOnly ? -1: DateFormat.DEFAULT, null, null);
 	}
 }
@@ -0,0 +1,284 @@
+/* FormatCache.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 19:48:16     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.text;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.zkoss.lang.Library;
+import org.zkoss.lang.Objects;
+import org.zkoss.util.Cache;
+import org.zkoss.util.Caches;
+import org.zkoss.util.ConcurrentCache;
+import org.zkoss.util.Locales;
+import org.zkoss.util.TimeZones;
+
+/**
+ * A shared cache of the compiled date and number formats.
+ * Constructing a SimpleDateFormat or a DecimalFormat parses the pattern
+ * and looks up the locale data, and it is costly if it is done for each
+ * value to format (such as each cell of a grid).
+ *
+ * <p>The formats are cached by the pattern (or the style), the locale and
+ * the time zone. Since java.text formats are not thread-safe, a cached format
+ * is never used directly. Rather, a few copies of it are kept for reuse,
+ * and a copy is borrowed for each invocation. Thus, all methods of this
+ * class are thread-safe.
+ *
+ * <p>The maximal number of cached formats is specified by the library
+ * property called <code>org.zkoss.text.FormatCache.maxSize</code>
+ * (default: 500). The cache is registered in {@link Caches} as
+ * <code>org.zkoss.text.FormatCache.formats</code>.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class FormatCache {
+	/** The number of idle copies kept per format (must be a power of 2). */
+	private static final int NUM_IDLES = 4;
+	private static final int DATE = 0, DATE_STYLE = 1, NUMBER = 2;
+
+	private static final Cache<Key, Entry> _formats =
+		Caches.register("org.zkoss.text.FormatCache.formats",
+			new ConcurrentCache<Key, Entry>(
+				Library.getIntProperty("org.zkoss.text.FormatCache.maxSize", 500),
+				4 * 60 * 60 * 1000));
+
+	private FormatCache() {}
+
+	/** Formats a date with the given pattern.
+	 * @param pattern the pattern of SimpleDateFormat
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 * @param timezone the time zone; null for {@link TimeZones#getCurrent}
+	 */
+	public static String formatDate(Date date, String pattern,
+	Locale locale, TimeZone timezone) {
+		return format(getDateEntry(pattern, locale, timezone), date);
+	}
+	/** Parses the given string to a date with the given pattern.
+	 * @param pattern the pattern of SimpleDateFormat
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 * @param timezone the time zone; null for {@link TimeZones#getCurrent}
+	 */
+	public static Date parseDate(String source, String pattern,
+	Locale locale, TimeZone timezone) throws ParseException {
+		final Entry entry = getDateEntry(pattern, locale, timezone);
+		final int j = entry.index();
+		final DateFormat df = (DateFormat)entry.borrow(j);
+		try {
+			return df.parse(source);
+		} finally {
+			entry.release(j, df);
+		}
+	}
+	/** Formats a date with the given style, as
+	 * <code>DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale)</code>
+	 * does.
+	 * @param dateStyle the date style, such as {@link DateFormat#DEFAULT},
+	 * or -1 if not to show the date
+	 * @param timeStyle the time style, such as {@link DateFormat#DEFAULT},
+	 * or -1 if not to show the time
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 * @param timezone the time zone; null for the JVM's default time zone
+	 */
+	public static String formatDate(Date date, int dateStyle, int timeStyle,
+	Locale locale, TimeZone timezone) {
+		return format(getStyleEntry(dateStyle, timeStyle, locale, timezone), date);
+	}
+	/** Parses the given string to a date with the given style.
+	 * @see #formatDate(Date, int, int, Locale, TimeZone)
+	 */
+	public static Date parseDate(String source, int dateStyle, int timeStyle,
+	Locale locale, TimeZone timezone) throws ParseException {
+		final Entry entry = getStyleEntry(dateStyle, timeStyle, locale, timezone);
+		final int j = entry.index();
+		final DateFormat df = (DateFormat)entry.borrow(j);
+		try {
+			return df.parse(source);
+		} finally {
+			entry.release(j, df);
+		}
+	}
+	/** Returns the pattern of the given style, or null if the format of
+	 * the style is not a SimpleDateFormat.
+	 * @see #formatDate(Date, int, int, Locale, TimeZone)
+	 */
+	public static String getDatePattern(int dateStyle, int timeStyle,
+	Locale locale) {
+		final Format f = getStyleEntry(dateStyle, timeStyle, locale, null)._proto;
+		return f instanceof SimpleDateFormat ? ((SimpleDateFormat)f).toPattern(): null;
+	}
+
+	/** Formats a number (Integer, BigDecimal...) with the given pattern.
+	 * @param pattern the pattern of DecimalFormat; null for the locale's
+	 * default format
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 */
+	public static String formatNumber(Object number, String pattern,
+	Locale locale) {
+		return format(getNumberEntry(pattern, locale), number);
+	}
+	/** Parses the given string to a number with the given pattern.
+	 * @param pattern the pattern of DecimalFormat; null for the locale's
+	 * default format
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 */
+	public static Number parseNumber(String source, String pattern,
+	Locale locale) throws ParseException {
+		final Entry entry = getNumberEntry(pattern, locale);
+		final int j = entry.index();
+		final NumberFormat nf = (NumberFormat)entry.borrow(j);
+		try {
+			return nf.parse(source);
+		} finally {
+			entry.release(j, nf);
+		}
+	}
+
+	private static String format(Entry entry, Object value) {
+		final int j = entry.index();
+		final Format f = entry.borrow(j);
+		try {
+			return f.format(value);
+		} finally {
+			entry.release(j, f);
+		}
+	}
+	private static Entry getDateEntry(String pattern, Locale locale,
+	TimeZone timezone) {
+		if (locale == null)
+			locale = Locales.getCurrent();
+		if (timezone == null)
+			timezone = TimeZones.getCurrent();
+
+		final Key key = new Key(DATE, pattern, 0, 0, locale, timezone);
+		Entry entry = _formats.get(key);
+		if (entry == null) {
+			final SimpleDateFormat df = new SimpleDateFormat(pattern, locale);
+			df.setTimeZone(timezone);
+			_formats.put(key.copy(), entry = new Entry(df));
+		}
+		return entry;
+	}
+	private static Entry getStyleEntry(int dateStyle, int timeStyle,
+	Locale locale, TimeZone timezone) {
+		if (locale == null)
+			locale = Locales.getCurrent();
+		if (timezone == null)
+			timezone = TimeZone.getDefault();
+
+		final Key key = new Key(DATE_STYLE, null, dateStyle, timeStyle, locale, timezone);
+		Entry entry = _formats.get(key);
+		if (entry == null) {
+			final DateFormat df = dateStyle < 0 ?
+				DateFormat.getTimeInstance(timeStyle, locale):
+				timeStyle < 0 ? DateFormat.getDateInstance(dateStyle, locale):
+				DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale);
+			df.setTimeZone(timezone);
+			_formats.put(key.copy(), entry = new Entry(df));
+		}
+		return entry;
+	}
+	private static Entry getNumberEntry(String pattern, Locale locale) {
+		if (locale == null)
+			locale = Locales.getCurrent();
+
+		final Key key = new Key(NUMBER, pattern, 0, 0, locale, null);
+		Entry entry = _formats.get(key);
+		if (entry == null) {
+			final NumberFormat nf = NumberFormat.getInstance(locale);
+			if (pattern != null)
+				((DecimalFormat)nf).applyPattern(pattern);
+			_formats.put(key, entry = new Entry(nf));
+		}
+		return entry;
+	}
+
+	/** A cached format and its idle copies.
+	 * The format is borrowed by {@link #borrow}, and then returned by
+	 * {@link #release} with the same index ({@link #index}).
+	 */
+	/*package*/ static final class Entry {
+		/** The format to copy from. It is never used to format or parse. */
+		private final Format _proto;
+		private final AtomicReferenceArray<Format> _idles =
+			new AtomicReferenceArray<Format>(NUM_IDLES);
+
+		/*package*/ Entry(Format proto) {
+			_proto = proto;
+		}
+		/** Returns the slot of idle copies for the current thread. */
+		/*package*/ int index() {
+			return (int)Thread.currentThread().getId() & (NUM_IDLES - 1);
+		}
+		/** Returns a copy that no one else is using. */
+		/*package*/ Format borrow(int j) {
+			final Format f = _idles.getAndSet(j, null);
+			return f != null ? f: (Format)_proto.clone();
+		}
+		/** Returns a copy back, such that it can be reused. */
+		/*package*/ void release(int j, Format f) {
+			_idles.set(j, f);
+		}
+	}
+	private static final class Key {
+		private final int _type, _style1, _style2;
+		private final String _pattern;
+		private final Locale _locale;
+		private final TimeZone _timezone;
+
+		private Key(int type, String pattern, int style1, int style2,
+		Locale locale, TimeZone timezone) {
+			_type = type;
+			_pattern = pattern;
+			_style1 = style1;
+			_style2 = style2;
+			_locale = locale;
+			_timezone = timezone;
+		}
+		/** Returns a copy that won't be affected if the caller modifies
+		 * the time zone (since TimeZone is mutable). */
+		private Key copy() {
+			return _timezone == null ? this: new Key(_type, _pattern,
+				_style1, _style2, _locale, (TimeZone)_timezone.clone());
+		}
+		public int hashCode() {
+			return ((_type * 31 + _style1) * 31 + _style2) * 31
+				+ Objects.hashCode(_pattern) ^ _locale.hashCode()
+				^ Objects.hashCode(_timezone);
+		}
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			final Key k = (Key)o;
+			return _type == k._type && _style1 == k._style1
+				&& _style2 == k._style2 && Objects.equals(_pattern, k._pattern)
+				&& _locale.equals(k._locale)
+				&& Objects.equals(_timezone, k._timezone);
+		}
+	}
+}
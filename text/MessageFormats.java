@@ -23,19 +23,43 @@ import java.util.LinkedHashMap;
 import java.util.Collection;
 import java.util.Locale;
 import java.net.InetAddress;
-import java.text.MessageFormat;
 
+import org.zkoss.lang.Library;
 import org.zkoss.lang.Strings;
+import org.zkoss.util.Cache;
+import org.zkoss.util.Caches;
+import org.zkoss.util.ConcurrentCache;
 import org.zkoss.util.Locales;
+import org.zkoss.util.Pair;
 
 /**
  * The message formatting relevant utilities.
  *
  * <p>See also java.text.MessageFormat.
  *
+ * <p>The parsed patterns are cached (by the pattern and the locale), so
+ * the same pattern won't be parsed again. The maximal number of cached
+ * patterns is specified by the library property called
+ * <code>org.zkoss.text.MessageFormats.cache.maxSize</code> (default: 1000).
+ *
  * @author tomyeh
  */
 public class MessageFormats {
+	/** Map(Pair(pattern, Locale), MessagePattern). */
+	private static final Cache<Pair<String, Locale>, MessagePattern> _patterns;
+	/** Map(pattern, NameInfo): the result of {@link #parseByName}. */
+	private static final Cache<String, NameInfo> _names;
+	static {
+		final int maxSize = Library.getIntProperty(
+			"org.zkoss.text.MessageFormats.cache.maxSize", 1000);
+		_patterns = Caches.register("org.zkoss.text.MessageFormats.patterns",
+			new ConcurrentCache<Pair<String, Locale>, MessagePattern>(
+				maxSize, 4 * 60 * 60 * 1000));
+		_names = Caches.register("org.zkoss.text.MessageFormats.names",
+			new ConcurrentCache<String, NameInfo>(
+				maxSize, 4 * 60 * 60 * 1000));
+	}
+
 	/** Creates a MessageFormat with the given pattern and uses it to
 	 * format the given arguments.
 	 *
@@ -46,13 +70,31 @@ public class MessageFormats {
 	 */
 	public static final String
 	format(String pattern, Object[] args, Locale locale) {
-		return getFormat(pattern, locale)
-			.format(args, new StringBuffer(), null).toString();
+		return getPattern(pattern, locale)
+			.format(new StringBuilder(pattern.length() + 32), args).toString();
+	}
+	/** Formats the given arguments with the given pattern (in the format of
+	 * java.text.MessageFormat), and appends the result to the given
+	 * string builder.
+	 *
+	 * @param locale the locale; null for {@link Locales#getCurrent}
+	 * @return the given string builder
+	 * @since 8.5.0
+	 */
+	public static final StringBuilder format(
+	StringBuilder result, String pattern, Object[] args, Locale locale) {
+		return getPattern(pattern, locale).format(result, args);
 	}
-	private static MessageFormat getFormat(String pattern, Locale locale) {
+	/** Returns the compiled pattern (from the cache if possible). */
+	private static MessagePattern getPattern(String pattern, Locale locale) {
 		if (locale == null)
 			locale = getLocale();
-		return new MessageFormat(pattern, locale);
+
+		final Pair<String, Locale> key = new Pair<String, Locale>(pattern, locale);
+		MessagePattern mp = _patterns.get(key);
+		if (mp == null)
+			_patterns.put(key, mp = new MessagePattern(pattern, locale));
+		return mp;
 	}
 	private static final Locale getLocale() {
 		return Locales.getCurrent();
@@ -75,7 +117,8 @@ public class MessageFormats {
 	 */
 	public static final StringBuffer format(
 	StringBuffer result, String pattern, Object[] args, Locale locale) {
-		return getFormat(pattern, locale).format(args, result, null);
+		return result.append(getPattern(pattern, locale)
+			.format(new StringBuilder(pattern.length() + 32), args));
 	}
 	/** Creates a MessageFormat with the given pattern and uses it to
 	 * format the given arguments, by use of StringBuffer and
@@ -172,7 +215,9 @@ public class MessageFormats {
 	 */
 	public static final String
 	formatByName(String pattern, Map<String, ?> mapping, Locale locale) {
-		final NameInfo ni = parseByName(pattern);
+		NameInfo ni = _names.get(pattern);
+		if (ni == null)
+			_names.put(pattern, ni = parseByName(pattern));
 		final Object[] args = new Object[ni.names.length];
 		for (int j = args.length; --j >= 0;)
 			args[j] = mapping.get(ni.names[j]);
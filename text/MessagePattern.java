@@ -0,0 +1,146 @@
+/* MessagePattern.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 20:21:54     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.text;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A compiled pattern of java.text.MessageFormat. It is immutable and
+ * thread-safe, so it can be cached and shared ({@link MessageFormats}).
+ *
+ * <p>If the pattern has only plain arguments (such as <code>{0}</code>),
+ * it is formatted directly, with the same rule as MessageFormat.
+ * Otherwise (such as <code>{0,number,#.##}</code>), a copy of
+ * MessageFormat is borrowed to format it.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ final class MessagePattern {
+	private final Locale _locale;
+	/** The literal texts. The i-th text precedes the i-th argument,
+	 * and the last text follows the last argument.
+	 * It is null if the pattern has to be formatted by MessageFormat. */
+	private final String[] _texts;
+	/** The argument indexes. */
+	private final int[] _args;
+	/** The MessageFormat (if _texts is null). */
+	private final FormatCache.Entry _format;
+
+	/*package*/ MessagePattern(String pattern, Locale locale) {
+		_locale = locale;
+
+		final List<String> texts = new ArrayList<String>();
+		final List<Integer> args = new ArrayList<Integer>();
+		if (compile(pattern, texts, args)) {
+			_texts = texts.toArray(new String[texts.size()]);
+			_args = new int[args.size()];
+			for (int j = _args.length; --j >= 0;)
+				_args[j] = args.get(j).intValue();
+			_format = null;
+		} else {
+			_texts = null;
+			_args = null;
+			_format = new FormatCache.Entry(new MessageFormat(pattern, locale));
+		}
+	}
+	/** Splits the pattern into texts and arguments.
+	 * @return false if the pattern is too complex to handle.
+	 */
+	private static boolean compile(String pattern,
+	List<String> texts, List<Integer> args) {
+		final StringBuilder sb = new StringBuilder(pattern.length());
+		boolean quoted = false;
+		for (int j = 0, len = pattern.length(); j < len; ++j) {
+			final char cc = pattern.charAt(j);
+			if (cc == '\'') {
+				if (j + 1 < len && pattern.charAt(j + 1) == '\'') {
+					sb.append('\''); //'' means a single quote
+					++j;
+				} else {
+					quoted = !quoted;
+				}
+			} else if (cc == '{' && !quoted) {
+				int k = j + 1, index = 0;
+				for (; k < len; ++k) {
+					final char c = pattern.charAt(k);
+					if (c < '0' || c > '9' || k - j > 6)
+						break;
+					index = index * 10 + (c - '0');
+				}
+				if (k == j + 1 || k >= len || pattern.charAt(k) != '}')
+					return false; //with format type, or malformed
+
+				texts.add(sb.toString());
+				args.add(new Integer(index));
+				sb.setLength(0);
+				j = k;
+			} else {
+				sb.append(cc);
+			}
+		}
+		texts.add(sb.toString());
+		return true;
+	}
+
+	/** Formats the given arguments, and appends the result to the given
+	 * string builder.
+	 */
+	/*package*/ StringBuilder format(StringBuilder sb, Object[] args) {
+		if (_texts == null) {
+			final int j = _format.index();
+			final MessageFormat mf = (MessageFormat)_format.borrow(j);
+			try {
+				sb.append(mf.format(args, new StringBuffer(), null));
+			} finally {
+				_format.release(j, mf);
+			}
+			return sb;
+		}
+
+		for (int j = 0; j < _args.length; ++j) {
+			sb.append(_texts[j]);
+			final int index = _args[j];
+			if (args == null || index >= args.length) {
+				sb.append('{').append(index).append('}');
+				continue;
+			}
+
+			//the same as MessageFormat's default formats
+			final Object arg = args[index];
+			if (arg == null) {
+				sb.append("null");
+			} else if (arg instanceof Number) {
+				sb.append(FormatCache.formatNumber(arg, null, _locale));
+			} else if (arg instanceof Date) {
+				sb.append(FormatCache.formatDate((Date)arg,
+					DateFormat.SHORT, DateFormat.SHORT, _locale, null));
+			} else if (arg instanceof String) {
+				sb.append((String)arg);
+			} else {
+				final String s = arg.toString();
+				sb.append(s != null ? s: "null");
+			}
+		}
+		return sb.append(_texts[_args.length]);
+	}
+}
@@ -40,6 +40,11 @@ import org.zkoss.lang.Objects;
  * <p>If the criteria is totally independent of GC, you could override
  * {@link #shallExpunge} to always return true
  * (rather than when GC is activated).
+ * Alternatively, you could enable the incremental expunge
+ * ({@link #setExpungeSteps}), such that a few of the oldest mappings
+ * are examined in each access. Since the mappings are stored in
+ * the last-access order, expired mappings are removed in time without
+ * walking the whole map in one burst.
  *
  * <p>It is different from WeakHashMap:
  *
@@ -64,7 +69,7 @@ import org.zkoss.lang.Objects;
  *
  * @author tomyeh
  */
-public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable, Cloneable {
+public class CacheMap<K,V> implements Map<K,V>, CacheX<K,V>, java.io.Serializable, Cloneable {
 	private static final long serialVersionUID = 20070907L;
 	//private static final Logger log = LoggerFactory.getLogger(CacheMap.class);
 
@@ -81,6 +86,11 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 	/** A flag used for debug purpose. */
 	private transient boolean _inExpunge;
 	private final boolean _accessOrder;
+	/** The number of mappings to examine per access, or 0 if expunge
+	 * depends on GC. */
+	private int _expungeSteps;
+	/** The statistics, or null if not enabled. */
+	private transient CacheStatistics _stats;
 
 	/** The class to be hold in the reference (to know GC is demanding). */
 	private static class X {
@@ -196,15 +206,28 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 			|| (System.currentTimeMillis() - v.access) > getLifetime() ?
 			(EXPUNGE_YES|EXPUNGE_CONTINUE): (EXPUNGE_NO|EXPUNGE_STOP);
 	}
-	/** Expunges if {@link #shallExpunge} is true. */
-	private void tryExpunge() {
-		if (shallExpunge())
+	/** Expunges if {@link #shallExpunge} is true, or the incremental
+	 * expunge is enabled.
+	 * <p>It is called by the access methods, such as {@link #get}. A subclass
+	 * that looks up with {@link #getWithoutExpunge} (to count the statistics
+	 * on its own) shall call it after looking up.
+	 * @since 8.5.0
+	 */
+	protected void tryExpunge() {
+		if (_expungeSteps > 0 || shallExpunge())
 			doExpunge();
 	}
 	/*package*/ void doExpunge() { //FastReadCache overrides it
 		if (_inExpunge)
 			throw new IllegalStateException("expunge in expunge?");
+		if (_expungeSteps > 0) {
+			expunge(_expungeSteps);
+			return; //no need to detect GC
+		}
 		try {
+			final CacheStatistics stats = getStatistics();
+			if (stats != null)
+				stats.recordExpunge();
 			expunge();
 		} finally {
 			newRef();
@@ -217,18 +240,33 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 	 * @since 3.6.1
 	 */
 	public int expunge() {
+		return expunge(Integer.MAX_VALUE);
+	}
+	/** Expunges items that exceeds the maximal allowed number or lifetime,
+	 * but examines at most the given number of mappings.
+	 * @param maxSteps the maximal number of mappings to examine.
+	 * @return number of items left ({@link #size}) after expunged
+	 */
+	private int expunge(int maxSteps) {
 		if (_inExpunge || _map.isEmpty()) return _map.size(); //nothing to do
 
 		_inExpunge = true;
 		try {
+			final CacheStatistics stats = getStatistics();
 			//dennis, bug 1815633, remove some control code here
 			int size = _map.size();
 			for (final Iterator<Map.Entry<K, Value<V>>> it = _map.entrySet().iterator();
-			it.hasNext();) {
+			it.hasNext() && --maxSteps >= 0;) {
 				final Map.Entry<K, Value<V>> entry = it.next();
 				final Value<V> v = entry.getValue();
 				final int result = canExpunge(size, v);
 				if ((result & EXPUNGE_YES) != 0) {
+					if (stats != null)
+						stats.recordEviction(size > getMaxSize() ?
+							CacheStatistics.EVICTION_SIZE:
+						(System.currentTimeMillis() - v.access) > getLifetime() ?
+							CacheStatistics.EVICTION_LIFETIME:
+							CacheStatistics.EVICTION_OTHER);
 					--size;
 					removeInExpunge(it, entry.getKey()); //remove it
 					onExpunge(v);
@@ -342,7 +380,8 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 	 * An mapping won't be removed by GC unless the minimal lifetime
 	 * or the maximal allowed size exceeds.
 	 * <p>Notice: getMaxSize() is only a soft limit. It takes effect only if
-	 * GC takes place.
+	 * GC takes place (or the incremental expunge is enabled;
+	 * see {@link #setExpungeSteps}).
 	 * @see #getLifetime
 	 */
 	public int getMaxSize() {
@@ -355,6 +394,55 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 	public void setMaxSize(int maxsize) {
 		_maxsize = maxsize;
 	}
+	/**
+	 * Returns the maximal number of mappings to examine (and expunge
+	 * if {@link #canExpunge} allows) in each access, or 0 if the expunge
+	 * takes place only if GC was activated (default).
+	 * @see #setExpungeSteps
+	 * @since 8.5.0
+	 */
+	public int getExpungeSteps() {
+		return _expungeSteps;
+	}
+	/**
+	 * Sets the maximal number of mappings to examine in each access.
+	 * <p>If positive, the incremental expunge is enabled: each access
+	 * examines at most the given number of the oldest mappings (without
+	 * waiting for GC), and {@link #shallExpunge} is not called.
+	 * Thus, the cost of each access is bounded and the expired mappings
+	 * are released in time, no matter how often GC takes place.
+	 * Notice that it shall be larger than 1, such that the size can
+	 * shrink when {@link #getMaxSize} is exceeded.
+	 * <p>Default: 0 (i.e., expunge only if GC was activated).
+	 * @since 8.5.0
+	 */
+	public void setExpungeSteps(int steps) {
+		_expungeSteps = steps > 0 ? steps: 0;
+	}
+
+	//-- CacheX --//
+	/** Returns the statistics, or null if not enabled (default).
+	 * <p>Notice that the statistics is not serialized.
+	 * @since 8.5.0
+	 */
+	public CacheStatistics getStatistics() {
+		return _stats;
+	}
+	/** Sets whether to record the statistics.
+	 * @since 8.5.0
+	 */
+	public void setStatisticsEnabled(boolean enabled) {
+		if (!enabled)
+			_stats = null;
+		else if (_stats == null)
+			_stats = new CacheStatistics();
+	}
+	/** Sets the statistics to record to (for MultiCache to share among
+	 * its internal caches).
+	 */
+	/*package*/ void setStatistics(CacheStatistics stats) {
+		_stats = stats;
+	}
 
 	//-- Map --//
 	public boolean isEmpty() {
@@ -388,6 +476,8 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 	}
 	public V get(Object key) {
 		final V v = getWithoutExpunge(key);
+		if (_stats != null)
+			_stats.recordAccess(v != null);
 		tryExpunge(); //expunge later to increase the hit rate
 		return v;
 	}
@@ -622,6 +712,8 @@ public class CacheMap<K,V> implements Map<K,V>, Cache<K,V>, java.io.Serializable
 			clone._map.put(me.getKey(), (Value<V>)me.getValue().clone());
 		}
 
+		if (_stats != null)
+			clone._stats = new CacheStatistics();
 		clone.init();
 		return clone;
 	}
@@ -0,0 +1,193 @@
+/* CacheStatistics.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 14:20:45     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The statistics of a cache, such as the hit and miss counts.
+ * It is recorded by a cache only if the statistics is enabled
+ * (see {@link CacheX#setStatisticsEnabled}).
+ *
+ * <p>The counters are striped by thread, so recording is cheap even
+ * if the cache is accessed by many threads concurrently. On the other hand,
+ * reading a counter has to sum up all stripes, and the result is
+ * only a snapshot.
+ *
+ * <p>Thread safe.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class CacheStatistics {
+	/** The reason of an eviction: the maximal allowed size is exceeded. */
+	public static final int EVICTION_SIZE = 0;
+	/** The reason of an eviction: the lifetime is exceeded. */
+	public static final int EVICTION_LIFETIME = 1;
+	/** The reason of an eviction: other criteria, such as the criteria
+	 * implemented by a subclass of {@link CacheMap}. */
+	public static final int EVICTION_OTHER = 2;
+
+	private final Counter _hit = new Counter(), _miss = new Counter(),
+		_evictSize = new Counter(), _evictLifetime = new Counter(),
+		_evictOther = new Counter(), _expunge = new Counter(),
+		_load = new Counter(), _loadFailure = new Counter(),
+		_loadTime = new Counter();
+	private final long _created = System.currentTimeMillis();
+
+	//record//
+	/** Records a hit. */
+	public void recordHit() {
+		_hit.increment();
+	}
+	/** Records a miss. */
+	public void recordMiss() {
+		_miss.increment();
+	}
+	/** Records a hit if found is true, or a miss if false. */
+	public void recordAccess(boolean found) {
+		(found ? _hit: _miss).increment();
+	}
+	/** Records an eviction.
+	 * @param reason one of {@link #EVICTION_SIZE}, {@link #EVICTION_LIFETIME}
+	 * and {@link #EVICTION_OTHER}.
+	 */
+	public void recordEviction(int reason) {
+		switch (reason) {
+		case EVICTION_SIZE: _evictSize.increment(); break;
+		case EVICTION_LIFETIME: _evictLifetime.increment(); break;
+		default: _evictOther.increment();
+		}
+	}
+	/** Records that the cache is examined for expunging. For {@link CacheMap},
+	 * it happens when GC was activated (unless the incremental
+	 * expunge is enabled).
+	 */
+	public void recordExpunge() {
+		_expunge.increment();
+	}
+	/** Records a load of a value that is not in the cache.
+	 * @param nanos the time spent in loading, unit=nanoseconds
+	 * @param success whether the load is successful
+	 */
+	public void recordLoad(long nanos, boolean success) {
+		(success ? _load: _loadFailure).increment();
+		_loadTime.add(nanos);
+	}
+
+	//query//
+	/** Returns the number of hits. */
+	public long getHitCount() {
+		return _hit.sum();
+	}
+	/** Returns the number of misses. */
+	public long getMissCount() {
+		return _miss.sum();
+	}
+	/** Returns the ratio of hits to all accesses, or 1 if
+	 * never accessed. */
+	public double getHitRate() {
+		final long hit = getHitCount(), total = hit + getMissCount();
+		return total == 0 ? 1.0: (double)hit / total;
+	}
+	/** Returns the number of evictions of the given reason.
+	 * @param reason one of {@link #EVICTION_SIZE}, {@link #EVICTION_LIFETIME}
+	 * and {@link #EVICTION_OTHER}.
+	 */
+	public long getEvictionCount(int reason) {
+		switch (reason) {
+		case EVICTION_SIZE: return _evictSize.sum();
+		case EVICTION_LIFETIME: return _evictLifetime.sum();
+		default: return _evictOther.sum();
+		}
+	}
+	/** Returns the number of evictions of all reasons. */
+	public long getEvictionCount() {
+		return _evictSize.sum() + _evictLifetime.sum() + _evictOther.sum();
+	}
+	/** Returns how many times the cache is examined for expunging.
+	 * @see #recordExpunge
+	 */
+	public long getExpungeCount() {
+		return _expunge.sum();
+	}
+	/** Returns the number of successful loads. */
+	public long getLoadCount() {
+		return _load.sum();
+	}
+	/** Returns the number of failed loads. */
+	public long getLoadFailureCount() {
+		return _loadFailure.sum();
+	}
+	/** Returns the total time spent in loading, unit=nanoseconds. */
+	public long getTotalLoadTime() {
+		return _loadTime.sum();
+	}
+	/** Returns the average time spent in a load, unit=nanoseconds,
+	 * or 0 if never loaded. */
+	public double getAverageLoadPenalty() {
+		final long cnt = _load.sum() + _loadFailure.sum();
+		return cnt == 0 ? 0: (double)_loadTime.sum() / cnt;
+	}
+	/** Returns when the statistics started, unit=milliseconds. */
+	public long getCreationTime() {
+		return _created;
+	}
+
+	public String toString() {
+		return new StringBuilder(128).append("[hit=").append(getHitCount())
+			.append(", miss=").append(getMissCount())
+			.append(", evictSize=").append(_evictSize.sum())
+			.append(", evictLifetime=").append(_evictLifetime.sum())
+			.append(", evictOther=").append(_evictOther.sum())
+			.append(", expunge=").append(getExpungeCount())
+			.append(", load=").append(getLoadCount())
+			.append(", loadFailure=").append(getLoadFailureCount())
+			.append(", avgLoadPenalty=").append((long)getAverageLoadPenalty())
+			.append("ns]").toString();
+	}
+
+	/** A counter striped by thread to reduce contention. */
+	private static class Counter {
+		/** The number of longs between two stripes, such that they
+		 * won't be in the same cache line. */
+		private static final int PAD = 8;
+		private static final int STRIPES;
+		static {
+			final int ncpu = Runtime.getRuntime().availableProcessors();
+			int n = 1;
+			while (n < ncpu && n < 16)
+				n <<= 1;
+			STRIPES = n;
+		}
+		private final AtomicLongArray _cells = new AtomicLongArray(STRIPES * PAD);
+
+		private void increment() {
+			add(1);
+		}
+		private void add(long delta) {
+			_cells.addAndGet(
+				((int)Thread.currentThread().getId() & (STRIPES - 1)) * PAD, delta);
+		}
+		private long sum() {
+			long sum = 0;
+			for (int j = 0; j < STRIPES; ++j)
+				sum += _cells.get(j * PAD);
+			return sum;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/* CacheX.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 14:32:10     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util;
+
+/**
+ * An extended cache that is able to record the statistics
+ * ({@link CacheStatistics}).
+ *
+ * @author agent
+ * @since 8.5.0
+ * @see Caches
+ */
+public interface CacheX<K,V> extends Cache<K,V> {
+	/** Returns the statistics, or null if the statistics is not enabled.
+	 * @see #setStatisticsEnabled
+	 */
+	public CacheStatistics getStatistics();
+	/** Sets whether to record the statistics.
+	 * <p>Default: false. Nothing is recorded unless enabled.
+	 * <p>Notice that enabling an enabled cache won't reset the statistics.
+	 */
+	public void setStatisticsEnabled(boolean enabled);
+	/** Returns the number of mappings without trying to expunge first.
+	 * If the cache is not thread safe, the value is only a hint.
+	 */
+	public int sizeWithoutExpunge();
+}
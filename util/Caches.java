@@ -0,0 +1,256 @@
+/* Caches.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 14:45:02     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.lang.Library;
+
+/**
+ * The registry of named caches, such that their statistics
+ * ({@link CacheStatistics}) can be monitored.
+ *
+ * <p>The caches used internally (such as the method caches of
+ * {@link org.zkoss.lang.Classes}) are registered with the statistics enabled,
+ * if the library property called
+ * <code>org.zkoss.util.Caches.statistics.enabled</code> is true.
+ *
+ * <p>If the library property called <code>org.zkoss.util.Caches.jmx.enabled</code>
+ * is true, each registered cache is also exported as a MBean to the platform
+ * MBean server, with the object name
+ * <code>org.zkoss.util:type=Cache,name=<i>name</i></code>.
+ * Since the platform MBean server is shared by the whole JVM, the MBeans
+ * are unregistered by {@link Cleanups#cleanup}, which ZK invokes when
+ * the application is stopping; otherwise, the class loader of a
+ * re-deployed application would never be released. Also notice that
+ * the object names don't depend on the application, so enable it only
+ * if there is one application in the JVM (otherwise, the applications
+ * replace each other's MBeans).
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class Caches {
+	private static final Logger log = LoggerFactory.getLogger(Caches.class);
+	private static final Map<String, CacheX<?, ?>> _caches = new LinkedHashMap<String, CacheX<?, ?>>();
+	private static Boolean _statsEnabled, _jmxEnabled;
+	/** Unregisters the MBeans when the application is stopping. */
+	private static final Cleanups.Cleanup _jmxCleanup = new Cleanups.Cleanup() {
+		public void cleanup() {
+			for (String name: getNames())
+				unregisterMBean(name);
+		}
+	};
+
+	private Caches() {}
+
+	/** Returns whether the statistics of the caches used internally
+	 * shall be enabled.
+	 * It is controlled by the library property called
+	 * <code>org.zkoss.util.Caches.statistics.enabled</code>.
+	 */
+	public static boolean isStatisticsEnabled() {
+		if (_statsEnabled == null)
+			_statsEnabled = Boolean.valueOf("true".equals(
+				Library.getProperty("org.zkoss.util.Caches.statistics.enabled")));
+		return _statsEnabled.booleanValue();
+	}
+	private static boolean isJMXEnabled() {
+		if (_jmxEnabled == null)
+			_jmxEnabled = Boolean.valueOf("true".equals(
+				Library.getProperty("org.zkoss.util.Caches.jmx.enabled")));
+		return _jmxEnabled.booleanValue();
+	}
+
+	/** Registers a cache with the given name, and enables its statistics
+	 * if {@link #isStatisticsEnabled}.
+	 * If the cache is not an instance of {@link CacheX}, nothing happens.
+	 * @param name the name of the cache. If there is a cache with the same
+	 * name, it will be replaced.
+	 * @return the given cache
+	 */
+	public static <C extends Cache<?, ?>> C register(String name, C cache) {
+		if (name == null || cache == null)
+			throw new IllegalArgumentException();
+		if (cache instanceof CacheX) {
+			final CacheX<?, ?> cachex = (CacheX<?, ?>)cache;
+			if (isStatisticsEnabled())
+				cachex.setStatisticsEnabled(true);
+			synchronized (_caches) {
+				_caches.put(name, cachex);
+			}
+			if (isJMXEnabled())
+				registerMBean(name, cachex);
+		}
+		return cache;
+	}
+	/** Unregisters the cache of the given name.
+	 * @return the cache being unregistered, or null if not found
+	 */
+	public static CacheX<?, ?> unregister(String name) {
+		final CacheX<?, ?> cache;
+		synchronized (_caches) {
+			cache = _caches.remove(name);
+		}
+		if (cache != null && isJMXEnabled())
+			unregisterMBean(name);
+		return cache;
+	}
+	/** Returns the cache of the given name, or null if not found.
+	 */
+	public static CacheX<?, ?> getCache(String name) {
+		synchronized (_caches) {
+			return _caches.get(name);
+		}
+	}
+	/** Returns the names of the registered caches (readonly).
+	 */
+	public static Set<String> getNames() {
+		synchronized (_caches) {
+			return Collections.unmodifiableSet(new LinkedHashSet<String>(_caches.keySet()));
+		}
+	}
+	/** Returns the statistics of the cache of the given name,
+	 * or null if not found or the statistics is not enabled.
+	 */
+	public static CacheStatistics getStatistics(String name) {
+		final CacheX<?, ?> cache = getCache(name);
+		return cache != null ? cache.getStatistics(): null;
+	}
+
+	private static ObjectName toObjectName(String name) throws Exception {
+		return new ObjectName("org.zkoss.util:type=Cache,name=" + ObjectName.quote(name));
+	}
+	private static void registerMBean(String name, CacheX<?, ?> cache) {
+		try {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName oname = toObjectName(name);
+			if (server.isRegistered(oname))
+				server.unregisterMBean(oname);
+			server.registerMBean(
+				new StandardMBean(new CacheInfo(cache), CacheInfoMBean.class), oname);
+			Cleanups.add(_jmxCleanup); //ignored if added
+		} catch (Throwable ex) {
+			log.warn("Failed to register MBean for " + name, ex);
+		}
+	}
+	private static void unregisterMBean(String name) {
+		try {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName oname = toObjectName(name);
+			if (server.isRegistered(oname))
+				server.unregisterMBean(oname);
+		} catch (Throwable ex) {
+			log.warn("Failed to unregister MBean for " + name, ex);
+		}
+	}
+
+	/** The management interface of a registered cache.
+	 * The counters are zero if the statistics is not enabled.
+	 */
+	public static interface CacheInfoMBean {
+		public boolean isStatisticsEnabled();
+		public void setStatisticsEnabled(boolean enabled);
+		public int getSize();
+		public int getMaxSize();
+		public int getLifetime();
+		public long getHitCount();
+		public long getMissCount();
+		public double getHitRate();
+		public long getSizeEvictionCount();
+		public long getLifetimeEvictionCount();
+		public long getOtherEvictionCount();
+		public long getExpungeCount();
+		public long getLoadCount();
+		public long getLoadFailureCount();
+		public double getAverageLoadPenalty();
+	}
+	/** The MBean of a registered cache. */
+	private static class CacheInfo implements CacheInfoMBean {
+		private final CacheX<?, ?> _cache;
+		private CacheInfo(CacheX<?, ?> cache) {
+			_cache = cache;
+		}
+		public boolean isStatisticsEnabled() {
+			return _cache.getStatistics() != null;
+		}
+		public void setStatisticsEnabled(boolean enabled) {
+			_cache.setStatisticsEnabled(enabled);
+		}
+		public int getSize() {
+			return _cache.sizeWithoutExpunge();
+		}
+		public int getMaxSize() {
+			return _cache.getMaxSize();
+		}
+		public int getLifetime() {
+			return _cache.getLifetime();
+		}
+		public long getHitCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getHitCount(): 0;
+		}
+		public long getMissCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getMissCount(): 0;
+		}
+		public double getHitRate() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getHitRate(): 0;
+		}
+		public long getSizeEvictionCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getEvictionCount(CacheStatistics.EVICTION_SIZE): 0;
+		}
+		public long getLifetimeEvictionCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getEvictionCount(CacheStatistics.EVICTION_LIFETIME): 0;
+		}
+		public long getOtherEvictionCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getEvictionCount(CacheStatistics.EVICTION_OTHER): 0;
+		}
+		public long getExpungeCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getExpungeCount(): 0;
+		}
+		public long getLoadCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getLoadCount(): 0;
+		}
+		public long getLoadFailureCount() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getLoadFailureCount(): 0;
+		}
+		public double getAverageLoadPenalty() {
+			final CacheStatistics stats = _cache.getStatistics();
+			return stats != null ? stats.getAverageLoadPenalty(): 0;
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/* ConcurrentCache.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 10:12:31     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Cache} designed for heavy concurrent access, where both reads and
+ * writes are frequent.
+ *
+ * <p>Unlike {@link FastReadCache}, it doesn't copy the whole cache when
+ * a miss occurs, and unlike {@link MultiCache}, it doesn't synchronize
+ * on any monitor when accessing a mapping. The mappings are stored
+ * in a {@link ConcurrentHashMap} (which is internally striped), so
+ * {@link #get} and {@link #put} take constant time.
+ *
+ * <p>The maximal allowed size is enforced by an approximate LRU algorithm
+ * (known as CLOCK or second-chance): each access marks the mapping as
+ * referenced, and the evictor sweeps the mappings in a round-robin
+ * fashion, removing the first mapping that is not referenced since the last
+ * sweep (and clearing the mark of the others). To keep {@link #put} in
+ * constant time, at most a few referenced mappings are skipped per eviction.
+ * Only one thread sweeps at a time; the others don't wait for it unless
+ * the size goes far beyond the maximal allowed size.
+ *
+ * <p>The lifetime is the maximal idle time: a mapping is dropped if it
+ * is not accessed for longer than {@link #getLifetime}.
+ * Unlike {@link CacheMap}, the criteria are checked without waiting for GC.
+ *
+ * <p>Note: null is not a valid key or value.
+ *
+ * <p>Thread safe.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class ConcurrentCache<K, V> implements CacheX<K, V>, java.io.Serializable, Cloneable {
+	private static final long serialVersionUID = 20261017L;
+	/** The number of puts to trigger a sweep of expired mappings. */
+	private static final int SWEEP_INTERVAL = 64;
+	/** The number of mappings examined per sweep of expired mappings. */
+	private static final int SWEEP_STEPS = 16;
+	/** The maximal number of referenced mappings to skip before evicting one.
+	 * It bounds the cost of a put even if all mappings are hot. */
+	private static final int MAX_SECOND_CHANCES = 16;
+	/** The granularity (unit: milliseconds) of updating the access time. */
+	private static final int ACCESS_GRANULARITY = 1000;
+
+	private final ConcurrentHashMap<K, Value<V>> _map;
+	/** The number of mappings (ConcurrentHashMap.size() is not cheap). */
+	private final AtomicInteger _size = new AtomicInteger();
+	/** Used to let only one thread to evict. */
+	private final ReentrantLock _evictLock = new ReentrantLock();
+	/** The clock hand. Accessed only when _evictLock is held. */
+	private transient Iterator<Map.Entry<K, Value<V>>> _hand;
+	private transient int _putCnt;
+	private volatile int _maxsize, _lifetime;
+	/** The statistics, or null if not enabled. */
+	private transient volatile CacheStatistics _stats;
+
+	/** The class to hold the value. */
+	private static final class Value<V> implements java.io.Serializable {
+		private static final long serialVersionUID = 20261017L;
+		private final V value;
+		private volatile long access;
+		private volatile boolean referenced;
+
+		private Value(V value, long now) {
+			this.value = value;
+			this.access = now;
+			this.referenced = true; //so it won't be evicted right after put
+		}
+		/** Marks as accessed. It writes the volatile fields only if
+		 * necessary, such that concurrent reads won't thrash the cache line.
+		 */
+		private void touch(long now) {
+			if (!this.referenced)
+				this.referenced = true;
+			if (now - this.access > ACCESS_GRANULARITY)
+				this.access = now;
+		}
+	}
+
+	/** Constructs a cache with {@link #DEFAULT_MAX_SIZE} and
+	 * {@link #DEFAULT_LIFETIME}.
+	 */
+	public ConcurrentCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_LIFETIME);
+	}
+	/** Constructs a cache with the specified max size and lifetime.
+	 * @param maxSize the maximal allowed size
+	 * @param lifetime the maximal idle time, unit=milliseconds
+	 */
+	public ConcurrentCache(int maxSize, int lifetime) {
+		this(maxSize, lifetime, 16);
+	}
+	/** Constructs a cache with the specified max size, lifetime and
+	 * the estimated number of concurrently updating threads.
+	 * @param maxSize the maximal allowed size
+	 * @param lifetime the maximal idle time, unit=milliseconds
+	 * @param concurrencyLevel the estimated number of concurrently
+	 * updating threads.
+	 */
+	public ConcurrentCache(int maxSize, int lifetime, int concurrencyLevel) {
+		_maxsize = maxSize;
+		_lifetime = lifetime;
+		_map = new ConcurrentHashMap<K, Value<V>>(
+			Math.min(Math.max(maxSize, 16), 1024) * 4 / 3 + 1, 0.75f,
+			concurrencyLevel > 0 ? concurrencyLevel: 16);
+	}
+
+	//Cache//
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+	public V get(Object key) {
+		final CacheStatistics stats = _stats;
+		final Value<V> v = _map.get(key);
+		if (v == null) {
+			if (stats != null)
+				stats.recordMiss();
+			return null;
+		}
+
+		final long now = System.currentTimeMillis();
+		if (isExpired(v, now)) {
+			removeValue(key, v, CacheStatistics.EVICTION_LIFETIME);
+			if (stats != null)
+				stats.recordMiss();
+			return null;
+		}
+		v.touch(now);
+		if (stats != null)
+			stats.recordHit();
+		return v.value;
+	}
+	public V put(K key, V value) {
+		if (value == null)
+			throw new IllegalArgumentException("null value");
+
+		final Value<V> old = _map.put(key, new Value<V>(value, System.currentTimeMillis()));
+		if (old == null) {
+			if (_size.incrementAndGet() > _maxsize)
+				evict();
+		}
+		if ((++_putCnt & (SWEEP_INTERVAL - 1)) == 0) //racy but only a hint
+			sweep();
+		return old != null ? old.value: null;
+	}
+	public V remove(Object key) {
+		final Value<V> v = _map.remove(key);
+		if (v != null) {
+			_size.decrementAndGet();
+			return v.value;
+		}
+		return null;
+	}
+	public void clear() {
+		for (final Iterator<K> it = _map.keySet().iterator(); it.hasNext();)
+			remove(it.next());
+	}
+
+	/** Returns the number of mappings, including the mappings that
+	 * are expired but not removed yet.
+	 */
+	public int size() {
+		return Math.max(_size.get(), 0);
+	}
+
+	private boolean isExpired(Value<V> v, long now) {
+		return now - v.access > _lifetime;
+	}
+	/** Removes the mapping if it is not changed.
+	 * @param reason the reason of the eviction (see {@link CacheStatistics}).
+	 */
+	private void removeValue(Object key, Value<V> v, int reason) {
+		if (_map.remove(key, v)) {
+			_size.decrementAndGet();
+			final CacheStatistics stats = _stats;
+			if (stats != null)
+				stats.recordEviction(reason);
+		}
+	}
+	/** Evicts mappings until the size is no more than the maximal allowed
+	 * size. If another thread is evicting, it returns immediately, unless
+	 * the size is far beyond the limit (i.e., the evicting thread can't keep
+	 * up with the adding threads).
+	 */
+	private void evict() {
+		//another thread might add more after we unlock (and its
+		//tryLock failed), so loop until it is within the limit
+		for (int sz; (sz = _size.get()) > _maxsize;) {
+			if (sz > _maxsize + (_maxsize >> 3) + 16)
+				_evictLock.lock(); //too many: wait (rare)
+			else if (!_evictLock.tryLock())
+				return; //another thread is doing it
+			try {
+				final long now = System.currentTimeMillis();
+				for (int cnt = 0; _size.get() > _maxsize;) {
+					final Map.Entry<K, Value<V>> me = advance();
+					if (me == null)
+						return; //empty
+					final Value<V> v = me.getValue();
+					final boolean expired = isExpired(v, now);
+					if (v.referenced && !expired
+					&& ++cnt <= MAX_SECOND_CHANCES) {
+						v.referenced = false; //second chance
+					} else {
+						removeValue(me.getKey(), v, expired ?
+							CacheStatistics.EVICTION_LIFETIME: CacheStatistics.EVICTION_SIZE);
+						cnt = 0;
+					}
+				}
+			} finally {
+				_evictLock.unlock();
+			}
+		}
+	}
+	/** Removes the expired mappings incrementally. */
+	private void sweep() {
+		if (!_evictLock.tryLock())
+			return;
+		try {
+			final long now = System.currentTimeMillis();
+			for (int cnt = SWEEP_STEPS; --cnt >= 0;) {
+				final Map.Entry<K, Value<V>> me = advance();
+				if (me == null)
+					break;
+				final Value<V> v = me.getValue();
+				if (isExpired(v, now))
+					removeValue(me.getKey(), v, CacheStatistics.EVICTION_LIFETIME);
+			}
+		} finally {
+			_evictLock.unlock();
+		}
+	}
+	/** Advances the clock hand and returns the next mapping, or null if empty.
+	 * <p>_evictLock must be held before calling this method.
+	 */
+	private Map.Entry<K, Value<V>> advance() {
+		if (_hand == null || !_hand.hasNext()) {
+			_hand = _map.entrySet().iterator();
+			if (!_hand.hasNext())
+				return null;
+		}
+		return _hand.next();
+	}
+
+	public int getLifetime() {
+		return _lifetime;
+	}
+	public void setLifetime(int lifetime) {
+		_lifetime = lifetime;
+	}
+	public int getMaxSize() {
+		return _maxsize;
+	}
+	public void setMaxSize(int maxsize) {
+		_maxsize = maxsize;
+		if (_size.get() > maxsize)
+			evict();
+	}
+
+	//CacheX//
+	public CacheStatistics getStatistics() {
+		return _stats;
+	}
+	public void setStatisticsEnabled(boolean enabled) {
+		if (!enabled)
+			_stats = null;
+		else if (_stats == null)
+			_stats = new CacheStatistics();
+	}
+	/** Sets the statistics to record to (for ShardedCache to share among
+	 * internal caches).
+	 */
+	/*package*/ void setStatistics(CacheStatistics stats) {
+		_stats = stats;
+	}
+	/** Returns the number of mappings. It is the same as {@link #size}.
+	 */
+	public int sizeWithoutExpunge() {
+		return size();
+	}
+
+	//Cloneable//
+	public Object clone() {
+		final ConcurrentCache<K, V> clone =
+			new ConcurrentCache<K, V>(_maxsize, _lifetime);
+		copyTo(clone);
+		return clone;
+	}
+	/** Puts the mappings that are not expired to the given cache.
+	 */
+	/*package*/ void copyTo(Cache<K, V> cache) {
+		final long now = System.currentTimeMillis();
+		for (Map.Entry<K, Value<V>> me: _map.entrySet()) {
+			final Value<V> v = me.getValue();
+			if (!isExpired(v, now))
+				cache.put(me.getKey(), v.value);
+		}
+	}
+	public String toString() {
+		return "ConcurrentCache[size=" + size() + ", maxSize=" + _maxsize
+			+ ", lifetime=" + _lifetime + ']';
+	}
+}
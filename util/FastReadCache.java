@@ -25,13 +25,15 @@ import org.zkoss.lang.Objects;
  * @author tomyeh
  * @since 6.0.0
  */
-public class FastReadCache<K, V> implements Cache<K, V>, java.io.Serializable, Cloneable {
+public class FastReadCache<K, V> implements CacheX<K, V>, java.io.Serializable, Cloneable {
 	private InnerCache _cache;
 	private Map<K, V> _writeCache;
 	private transient short _missCnt;
 	private transient short _maxMissCnt = 100;
 	/** whether _writeCache is different from _cache. */
 	private boolean _moreInWriteCache;
+	/** The statistics, or null if not enabled. */
+	private transient CacheStatistics _stats;
 
 	/** Constructor.
 	 */
@@ -71,6 +73,8 @@ public class FastReadCache<K, V> implements Cache<K, V>, java.io.Serializable, C
 				if (_writeCache != null && (val = _writeCache.get(key)) != null)
 					missed();
 			}
+		if (_stats != null)
+			_stats.recordAccess(val != null);
 		return val;
 	}
 	
@@ -167,6 +171,32 @@ public class FastReadCache<K, V> implements Cache<K, V>, java.io.Serializable, C
 		_cache.setMaxSize(maxsize);
 	}
 
+	//CacheX//
+	/** Returns the statistics, or null if not enabled (default).
+	 * @since 8.5.0
+	 */
+	public CacheStatistics getStatistics() {
+		return _stats;
+	}
+	/** Sets whether to record the statistics.
+	 * @since 8.5.0
+	 */
+	public void setStatisticsEnabled(boolean enabled) {
+		if (!enabled)
+			_stats = null;
+		else if (_stats == null)
+			_stats = new CacheStatistics();
+	}
+	/** Returns the number of mappings without trying to expunge first.
+	 * It is only a hint since it is not synchronized.
+	 * @since 8.5.0
+	 */
+	public int sizeWithoutExpunge() {
+		final Map<K, V> writeCache = _writeCache;
+		return _moreInWriteCache && writeCache != null ?
+			writeCache.size(): _cache.sizeWithoutExpunge();
+	}
+
 	private class InnerCache extends CacheMap<K, V> {
 		private List<K> _removed;
 
@@ -202,6 +232,13 @@ public class FastReadCache<K, V> implements Cache<K, V>, java.io.Serializable, C
 			}
 		}
 		
+		/** Returns the statistics of {@link FastReadCache}, such that
+		 * the evictions are recorded to it.
+		 * The hits and misses are recorded by {@link FastReadCache}.
+		 */
+		public CacheStatistics getStatistics() {
+			return _stats;
+		}
 		public Object clone() {
 			final InnerCache clone = (InnerCache)super.clone();
 			clone._removed = null;
@@ -25,14 +25,22 @@ import org.zkoss.lang.Objects;
  * the internal caches, and then distributes the access across them.
  * Thus, the performance is proportional to the number of internal caches.
  *
+ * <p>Notice that, by default, the same key might be stored in several
+ * internal caches (see {@link #getInnerCacheHashCode}), and the maximal
+ * allowed size is applied to each internal cache. If the cache is accessed
+ * by many threads, consider {@link ShardedCache} instead.
+ *
  * <p>Thread safe.
  *
  * @author tomyeh
  * @since 3.0.0
+ * @see ShardedCache
  */
-public class MultiCache<K, V> implements Cache<K, V>, java.io.Serializable, Cloneable {
+public class MultiCache<K, V> implements CacheX<K, V>, java.io.Serializable, Cloneable {
 	private final CacheMap<K, V>[] _caches;
 	private int _maxsize, _lifetime;
+	/** The statistics shared by all internal caches, or null if not enabled. */
+	private transient CacheStatistics _stats;
 
 	/** Constructs a multi cache with 17 initial caches.
 	 */
@@ -124,6 +132,7 @@ public class MultiCache<K, V> implements Cache<K, V>, java.io.Serializable, Clon
 					cache = new CacheMap<K, V>(4);
 					cache.setMaxSize(_maxsize);
 					cache.setLifetime(_lifetime);
+					cache.setStatistics(_stats);
 					_caches[j] = cache;
 				}
 			}
@@ -155,6 +164,44 @@ public class MultiCache<K, V> implements Cache<K, V>, java.io.Serializable, Clon
 				}
 	}
 
+	//CacheX//
+	/** Returns the statistics, or null if not enabled (default).
+	 * It is shared by all internal caches.
+	 * @since 8.5.0
+	 */
+	public CacheStatistics getStatistics() {
+		return _stats;
+	}
+	/** Sets whether to record the statistics.
+	 * @since 8.5.0
+	 */
+	public void setStatisticsEnabled(boolean enabled) {
+		synchronized (this) {
+			if (enabled == (_stats != null))
+				return; //nothing changed
+			_stats = enabled ? new CacheStatistics(): null;
+		}
+
+		for (int j = 0; j < _caches.length; ++j)
+			if (_caches[j] != null)
+				synchronized (_caches[j]) {
+					_caches[j].setStatistics(_stats);
+				}
+	}
+	/** Returns the total number of mappings of all internal caches
+	 * without trying to expunge first.
+	 * @since 8.5.0
+	 */
+	public int sizeWithoutExpunge() {
+		int size = 0;
+		for (int j = 0; j < _caches.length; ++j)
+			if (_caches[j] != null)
+				synchronized (_caches[j]) {
+					size += _caches[j].sizeWithoutExpunge();
+				}
+		return size;
+	}
+
 	//Cloneable//
 	public Object clone() {
 		MultiCache clone = new MultiCache(_caches.length, _maxsize, _lifetime);
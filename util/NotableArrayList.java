@@ -0,0 +1,114 @@
+/* NotableArrayList.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 23:58:41     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+*/
+package org.zkoss.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Array implementation of the <tt>List</tt> interface
+ * that provides the callback methods such as {@link #onAdd}, {@link #onSet}
+ * and {@link #onRemove}.
+ * It is the same as {@link NotableLinkedList}, except the elements are
+ * stored in an array, so it is faster to access an element by index,
+ * and takes less memory.
+ * @author agent
+ * @since 8.5.0
+ */
+public class NotableArrayList<E> extends AbstractList<E>
+implements List<E>, RandomAccess, java.io.Serializable {
+	private static final long serialVersionUID = 20261017L;
+
+	private Object[] _ary;
+	private int _size;
+
+	public NotableArrayList() {
+		this(4);
+	}
+	/** Constructs an empty list with the specified initial capacity. */
+	public NotableArrayList(int initialCapacity) {
+		_ary = new Object[initialCapacity > 0 ? initialCapacity: 1];
+	}
+
+	public int size() {
+		return _size;
+	}
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		checkIndex(index, _size);
+		return (E)_ary[index];
+	}
+	public E set(int index, E element) {
+		final E old = get(index);
+		onSet(element, old);
+		_ary[index] = element;
+		return old;
+	}
+	@SuppressWarnings("unchecked")
+	public void add(int index, E element) {
+		checkIndex(index, _size + 1);
+		onAdd(element, index < _size ? (E)_ary[index]: null);
+
+		if (_size == _ary.length)
+			_ary = Arrays.copyOf(_ary, _size + (_size >> 1) + 1);
+		System.arraycopy(_ary, index, _ary, index + 1, _size - index);
+		_ary[index] = element;
+		++_size;
+		++modCount;
+	}
+	public E remove(int index) {
+		final E old = get(index);
+		onRemove(old);
+
+		System.arraycopy(_ary, index + 1, _ary, index, _size - index - 1);
+		_ary[--_size] = null;
+		++modCount;
+		return old;
+	}
+	private static void checkIndex(int index, int size) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+	}
+
+	/** Called each time an new element is about being added into the array.
+	 *
+	 * <p>Deriving classes usually put checking codes here.
+	 * And, throws exception if failure and nothing will be affected.
+	 *
+	 * @param newElement the element to be added
+	 * @param followingElement the element that will 'follow' the new element.
+	 * In other words, newElement will be inserted <b>before</b>
+	 * followingElement. If null, it means newElement is appended at the end
+	 */
+	protected void onAdd(E newElement, E followingElement) {
+	}
+	/** Called each time an element is about being assigned into the array
+	 * and replace an existence one (by {@link #set}).
+	 *
+	 * <p>Deriving classes usually put checking codes here.
+	 * And, throws exception if failure and nothing will be affected.
+	 *
+	 * @param newElement the element to be added
+	 * @param replaced the element to be replaced
+	 */
+	protected void onSet(E newElement, E replaced) {
+	}
+	/** Called each time an element is about being removed from the array.
+	 * Deriving classes usually put checking codes here.
+	 * And, throws exception if failure.
+	 */
+	protected void onRemove(E element) {
+	}
+}
@@ -0,0 +1,199 @@
+/* ShardedCache.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 19:05:22     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util;
+
+import org.zkoss.lang.Objects;
+
+/**
+ * A cache that distributes the mappings across multiple internal caches
+ * by key only.
+ *
+ * <p>Unlike {@link MultiCache}, which mixes the current thread into
+ * the choice of the internal cache (so the same key might be stored
+ * in several internal caches), a key is always stored in exactly one
+ * internal cache. In addition, the maximal allowed size is the budget of
+ * all internal caches (and each of them is given an equal share),
+ * rather than the size of each of them.
+ * Thus, the hit rate and the memory footprint don't depend on the number
+ * of accessing threads.
+ *
+ * <p>The internal caches are {@link ConcurrentCache}, so {@link #get}
+ * doesn't synchronize on any monitor, and the threads adding the keys
+ * of different internal caches don't contend for the same eviction lock.
+ * Since the keys are evenly distributed, the number of internal caches
+ * shall be much less than the maximal allowed size. If the maximal allowed
+ * size is less than the number of internal caches, each internal cache
+ * still keeps one mapping.
+ *
+ * <p>Note: null is not a valid key or value.
+ *
+ * <p>Thread safe.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class ShardedCache<K, V> implements CacheX<K, V>, java.io.Serializable, Cloneable {
+	private static final long serialVersionUID = 20261017L;
+
+	private final ConcurrentCache<K, V>[] _caches;
+	private volatile int _maxsize, _lifetime;
+	/** The statistics shared by all internal caches, or null if not enabled. */
+	private transient volatile CacheStatistics _stats;
+
+	/** Constructs a sharded cache with 16 internal caches,
+	 * {@link #DEFAULT_MAX_SIZE} and {@link #DEFAULT_LIFETIME}.
+	 */
+	public ShardedCache() {
+		this(16, DEFAULT_MAX_SIZE, DEFAULT_LIFETIME);
+	}
+	/** Constructs a sharded cache with 16 internal caches,
+	 * the max size and the lifetime.
+	 * @param maxSize the maximal allowed size of all internal caches
+	 * @param lifetime the maximal idle time, unit=milliseconds
+	 */
+	public ShardedCache(int maxSize, int lifetime) {
+		this(16, maxSize, lifetime);
+	}
+	/** Constructs a sharded cache with the specified number of internal caches,
+	 * the max size and the lifetime.
+	 *
+	 * @param nCache the positive number of the internal caches.
+	 * @param maxSize the maximal allowed size of all internal caches
+	 * (rather than each of them)
+	 * @param lifetime the maximal idle time, unit=milliseconds
+	 */
+	@SuppressWarnings("unchecked")
+	public ShardedCache(int nCache, int maxSize, int lifetime) {
+		if (nCache <= 0)
+			throw new IllegalArgumentException();
+		_caches = new ConcurrentCache[nCache];
+		_maxsize = maxSize;
+		_lifetime = lifetime;
+		for (int j = 0; j < nCache; ++j)
+			_caches[j] = new ConcurrentCache<K, V>(getShare(j), lifetime, 4);
+	}
+	/** Returns the maximal allowed size of the given internal cache,
+	 * such that the sum of all internal caches is {@link #getMaxSize}.
+	 * <p>Each internal cache is given at least 1 if {@link #getMaxSize}
+	 * is positive (otherwise, the keys of an internal cache with 0 are
+	 * never cached), so the sum might exceed it if it is less than
+	 * the number of internal caches.
+	 */
+	private int getShare(int j) {
+		final int n = _caches.length;
+		final int share = _maxsize / n + (j < _maxsize % n ? 1: 0);
+		return share > 0 || _maxsize <= 0 ? share: 1;
+	}
+
+	//Cache//
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+	public V get(Object key) {
+		return getCache(key).get(key);
+	}
+	public V put(K key, V value) {
+		return getCache(key).put(key, value);
+	}
+	public V remove(Object key) {
+		return getCache(key).remove(key);
+	}
+	public void clear() {
+		for (int j = 0; j < _caches.length; ++j)
+			_caches[j].clear();
+	}
+
+	/** Returns the total number of mappings of all internal caches,
+	 * including the mappings that are expired but not removed yet.
+	 */
+	public int size() {
+		int size = 0;
+		for (int j = 0; j < _caches.length; ++j)
+			size += _caches[j].size();
+		return size;
+	}
+
+	/** Returns an integer used to identify the instance of inner caches to use.
+	 * By default, it is the hash code of the given key, scrambled such
+	 * that the keys of an internal cache don't share the same lower bits
+	 * (which the hash table of the internal cache relies on).
+	 * Unlike {@link MultiCache#getInnerCacheHashCode}, it must depend
+	 * on the key only.
+	 */
+	protected int getInnerCacheHashCode(Object key) {
+		final int h = Objects.hashCode(key) * 0x9e3779b9; //golden ratio
+		return h ^ (h >>> 16);
+	}
+	private ConcurrentCache<K, V> getCache(Object key) {
+		return _caches[(getInnerCacheHashCode(key) & 0x7fffffff) % _caches.length];
+	}
+
+	public int getLifetime() {
+		return _lifetime;
+	}
+	public void setLifetime(int lifetime) {
+		_lifetime = lifetime;
+		for (int j = 0; j < _caches.length; ++j)
+			_caches[j].setLifetime(lifetime);
+	}
+	public int getMaxSize() {
+		return _maxsize;
+	}
+	/** Sets the maximal allowed size of all internal caches.
+	 */
+	public void setMaxSize(int maxsize) {
+		_maxsize = maxsize;
+		for (int j = 0; j < _caches.length; ++j)
+			_caches[j].setMaxSize(getShare(j));
+	}
+
+	//CacheX//
+	/** Returns the statistics, or null if not enabled (default).
+	 * It is shared by all internal caches.
+	 */
+	public CacheStatistics getStatistics() {
+		return _stats;
+	}
+	public void setStatisticsEnabled(boolean enabled) {
+		synchronized (this) {
+			if (enabled == (_stats != null))
+				return; //nothing changed
+			_stats = enabled ? new CacheStatistics(): null;
+		}
+
+		for (int j = 0; j < _caches.length; ++j)
+			_caches[j].setStatistics(_stats);
+	}
+	/** Returns the number of mappings. It is the same as {@link #size}.
+	 */
+	public int sizeWithoutExpunge() {
+		return size();
+	}
+
+	//Cloneable//
+	public Object clone() {
+		final ShardedCache<K, V> clone =
+			new ShardedCache<K, V>(_caches.length, _maxsize, _lifetime);
+		for (int j = 0; j < _caches.length; ++j)
+			_caches[j].copyTo(clone);
+		return clone;
+	}
+	public String toString() {
+		return "ShardedCache[size=" + size() + ", maxSize=" + _maxsize
+			+ ", lifetime=" + _lifetime + ", nCache=" + _caches.length + ']';
+	}
+}
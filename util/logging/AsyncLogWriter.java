@@ -0,0 +1,205 @@
+/* AsyncLogWriter.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 22:58:04     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.zkoss.lang.Library;
+import org.zkoss.util.Cleanups;
+
+/**
+ * Dispatches the log records of {@link Log} asynchronously.
+ * The records are put into a bounded ring buffer without locking, and then
+ * a single daemon thread passes them to the loggers (and handlers).
+ *
+ * <p>The size of the ring buffer is specified by the library property called
+ * <code>org.zkoss.util.logging.async.bufferSize</code> (default: 1024).
+ * If the buffer is full, the record is logged by the caller's thread
+ * directly, so no record is lost.
+ *
+ * <p>The writer is shut down by {@link Cleanups#cleanup}, which ZK invokes
+ * when the application is stopping, so neither the thread nor the shutdown
+ * hook keeps the class loader of a re-deployed application.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ class AsyncLogWriter implements Runnable {
+	private static AsyncLogWriter _writer;
+	/** Shuts down the writer when the application is stopping. */
+	private static final Cleanups.Cleanup _cleanup = new Cleanups.Cleanup() {
+		public void cleanup() {
+			final AsyncLogWriter writer;
+			synchronized (AsyncLogWriter.class) {
+				writer = _writer;
+			}
+			if (writer != null)
+				writer.shutdown();
+		}
+	};
+
+	private final AtomicReferenceArray<Record> _ring;
+	private final int _mask;
+	/** The next slot to put (by producers). */
+	private final AtomicLong _tail = new AtomicLong();
+	/** The next slot to take (by the writer thread only). */
+	private volatile long _head;
+	private final Thread _thread, _hook;
+	/** Whether the writer thread is parked (or about to). */
+	private volatile boolean _parked;
+	/** Whether {@link #shutdown} is called. */
+	private volatile boolean _closed;
+
+	/** Returns the writer, and starts it if necessary. */
+	/*package*/ static synchronized AsyncLogWriter getInstance() {
+		if (_writer == null) {
+			_writer = new AsyncLogWriter(Library.getIntProperty(
+				"org.zkoss.util.logging.async.bufferSize", 1024));
+			Cleanups.add(_cleanup); //ignored if added
+		}
+		return _writer;
+	}
+	private AsyncLogWriter(int size) {
+		int cap = 16;
+		while (cap < size)
+			cap <<= 1;
+		_ring = new AtomicReferenceArray<Record>(cap);
+		_mask = cap - 1;
+
+		//not to keep the loader of the caller (such as a web application)
+		final ClassLoader cl = AsyncLogWriter.class.getClassLoader();
+		_thread = new Thread(this, "Log-async-writer");
+		_thread.setDaemon(true);
+		_thread.setContextClassLoader(cl);
+		_thread.start();
+
+		Thread hook = new Thread(new Runnable() {
+			public void run() {
+				drain();
+			}
+		}, "Log-async-writer-hook");
+		hook.setContextClassLoader(cl);
+		try {
+			Runtime.getRuntime().addShutdownHook(hook);
+		} catch (Throwable ex) { //ignore (shutting down or not allowed)
+			hook = null;
+		}
+		_hook = hook;
+	}
+	/** Writes the remaining records, stops the writer thread, and removes
+	 * the shutdown hook. The records logged afterwards are written by
+	 * the caller's thread directly (until {@link #getInstance} starts
+	 * another writer).
+	 */
+	/*package*/ void shutdown() {
+		synchronized (AsyncLogWriter.class) {
+			if (_writer == this)
+				_writer = null;
+		}
+		_closed = true;
+		LockSupport.unpark(_thread);
+		try {
+			_thread.join(1000);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		drain(); //in case the thread doesn't stop in time
+
+		if (_hook != null) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(_hook);
+			} catch (Throwable ex) { //ignore (shutting down)
+			}
+		}
+	}
+
+	/** Logs a record asynchronously. */
+	/*package*/ void log(Logger logger, Level level, String cname, String mname,
+	String msg, Throwable t) {
+		final Record rec = new Record(logger, level, msg);
+		rec.setSourceClassName(cname);
+		rec.setSourceMethodName(mname);
+		rec.setThrown(t);
+		rec.setLoggerName(logger.getName());
+
+		for (;;) {
+			final long tail = _tail.get();
+			if (_closed || tail - _head >= _ring.length()) { //closed or full
+				logger.log(rec);
+				return;
+			}
+			if (_tail.compareAndSet(tail, tail + 1)) {
+				_ring.set((int)tail & _mask, rec);
+				break;
+			}
+		}
+		if (_closed)
+			drain(); //the writer thread might have stopped
+		else if (_parked)
+			LockSupport.unpark(_thread);
+	}
+
+	public void run() {
+		while (!_closed) {
+			if (!drain()) {
+				_parked = true;
+				if (_tail.get() == _head) //check again after flagged
+					LockSupport.parkNanos(this, 100L * 1000 * 1000);
+				_parked = false;
+			}
+		}
+		drain();
+	}
+	/** Writes all records in the buffer.
+	 * @return whether any record is written
+	 */
+	private synchronized boolean drain() {
+		boolean found = false;
+		for (long head = _head;; ++head) {
+			final int j = (int)head & _mask;
+			final Record rec = _ring.get(j);
+			if (rec == null) {
+				if (head == _tail.get())
+					return found;
+				Thread.yield(); //the slot is claimed but not set yet
+				--head;
+				continue;
+			}
+			_ring.set(j, null);
+			_head = head + 1;
+			found = true;
+			try {
+				rec.logger.log(rec);
+			} catch (Throwable ex) { //ignore (don't kill the thread)
+			}
+		}
+	}
+
+	private static class Record extends LogRecord {
+		private static final long serialVersionUID = 20261017L;
+		private final transient Logger logger;
+		private Record(Logger logger, Level level, String msg) {
+			super(level, msg);
+			this.logger = logger;
+		}
+	}
+}
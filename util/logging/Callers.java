@@ -0,0 +1,122 @@
+/* Callers.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 22:41:36     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.logging;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+
+/**
+ * Used to find the caller of {@link Log}, i.e., the first stack frame
+ * that is not part of the logging utilities.
+ *
+ * <p>If java.lang.StackWalker is available (JDK 9 or later), it is used
+ * (by reflection), so only the top few frames are examined. Otherwise,
+ * the stack trace of a throwable is used.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ class Callers {
+	private static final String LOG = Log.class.getName(),
+		CALLERS = Callers.class.getName();
+
+	/** StackWalker, StackWalker.walk(Function), and the proxy of Function. */
+	private static final Object _walker, _finder;
+	private static final Method _walk;
+	/** BaseStream.iterator(), and StackFrame's getClassName(), getMethodName()
+	 * and getLineNumber(). */
+	private static Method _iterator, _getClassName, _getMethodName, _getLineNumber;
+	static {
+		Object walker = null, finder = null;
+		Method walk = null;
+		try {
+			final Class<?> wcls = Class.forName("java.lang.StackWalker");
+			final Class<?> fncls = Class.forName("java.util.function.Function");
+			final Class<?> frcls = Class.forName("java.lang.StackWalker$StackFrame");
+			_iterator = Class.forName("java.util.stream.BaseStream").getMethod("iterator");
+			_getClassName = frcls.getMethod("getClassName");
+			_getMethodName = frcls.getMethod("getMethodName");
+			_getLineNumber = frcls.getMethod("getLineNumber");
+			walk = wcls.getMethod("walk", fncls);
+			walker = wcls.getMethod("getInstance").invoke(null);
+			finder = Proxy.newProxyInstance(Callers.class.getClassLoader(),
+				new Class<?>[] {fncls}, new Finder());
+		} catch (Throwable ex) { //ignore (JDK 8 or earlier)
+			walker = finder = walk = null;
+		}
+		_walker = walker;
+		_finder = finder;
+		_walk = walk;
+	}
+
+	/** Returns the class name and the method name (with the line number)
+	 * of the caller, or null if not found.
+	 */
+	/*package*/ static String[] find() {
+		if (_walker != null) {
+			try {
+				return (String[])_walk.invoke(_walker, _finder);
+			} catch (Throwable ex) { //ignore and try the other
+			}
+		}
+
+		//We cannot skip the first few frames because optimizer might
+		//preserve all frames
+		final StackTraceElement[] stack = new Throwable().getStackTrace();
+		for (int j = 0; j < stack.length; ++j) {
+			final String cname = stack[j].getClassName();
+			if (!isLogging(cname))
+				return new String[] {cname,
+					stack[j].getMethodName() + ':' + stack[j].getLineNumber()};
+		}
+		return null;
+	}
+	private static boolean isLogging(String cname) {
+		return LOG.equals(cname) || CALLERS.equals(cname);
+	}
+
+	/** The implementation of java.util.function.Function that iterates
+	 * the stream of stack frames until the caller is found.
+	 */
+	private static class Finder implements InvocationHandler {
+		public Object invoke(Object proxy, Method method, Object[] args)
+		throws Throwable {
+			final String name = method.getName();
+			if ("apply".equals(name)) {
+				for (Iterator<?> it = (Iterator<?>)_iterator.invoke(args[0]);
+				it.hasNext();) {
+					final Object frame = it.next();
+					final String cname = (String)_getClassName.invoke(frame);
+					if (!isLogging(cname))
+						return new String[] {cname,
+							_getMethodName.invoke(frame) + ":"
+							+ _getLineNumber.invoke(frame)};
+				}
+				return null;
+			}
+			if ("equals".equals(name))
+				return Boolean.valueOf(proxy == args[0]);
+			if ("hashCode".equals(name))
+				return new Integer(System.identityHashCode(proxy));
+			if ("toString".equals(name))
+				return "Callers.Finder";
+			throw new UnsupportedOperationException(name);
+		}
+	}
+}
@@ -71,6 +71,14 @@ import org.zkoss.mesg.Messages;
  *  ... do massive testing and/or printing (use finer)
  *}</code></pre>
  *
+ * <p>To find the caller (i.e., the source class and method of a log record)
+ * is costly. It can be turned off by setting the library property called
+ * <code>org.zkoss.util.logging.caller</code> to false, and then
+ * the name of the logger is used as the source class. In addition,
+ * if the library property called <code>org.zkoss.util.logging.async</code>
+ * is true, the records are passed to the handlers by a background thread
+ * (since 8.5.0).
+ *
  * @author tomyeh
  * @deprecated As of release 7.0.0, use SLF4J API for logging instead.
  */
@@ -227,6 +235,11 @@ public class Log {
 	}
 	private static Boolean _hierarchyDisabled;
 
+	private static final Library.BooleanProperty CALLER =
+		new Library.BooleanProperty("org.zkoss.util.logging.caller", true);
+	private static final Library.BooleanProperty ASYNC =
+		new Library.BooleanProperty("org.zkoss.util.logging.async", false);
+
 	/**
 	 * Gets the logger based on the class.
 	 * @param cls the class that identifies the logger.
@@ -364,21 +377,19 @@ public class Log {
 		if (logger.isLoggable(level)) {
 			//We have to unveil the stack frame to find the real source
 			//Otherwise, Logger.log will report the wrong source
-			//We cannot skip the first few frames because optimizer might
-			//preserve all frames
-			StackTraceElement[] stack = new Throwable().getStackTrace();
-			String cname = "", mname = "";
-			for (int j = 0; j < stack.length; ++j) {
-				if (!stack[j].getClassName()
-				.equals("org.zkoss.util.logging.Log")) {
-					cname = stack[j].getClassName();
-					mname = stack[j].getMethodName() + ':'
-						+ stack[j].getLineNumber();
-					break;
-				}
+			String cname, mname;
+			if (CALLER.get()) {
+				final String[] caller = Callers.find();
+				cname = caller != null ? caller[0]: "";
+				mname = caller != null ? caller[1]: "";
+			} else {
+				cname = _name;
+				mname = null;
 			}
 
-			if (t != null)
+			if (ASYNC.get())
+				AsyncLogWriter.getInstance().log(logger, level, cname, mname, msg, t);
+			else if (t != null)
 				logger.logp(level, cname, mname, msg, t);
 			else
 				logger.logp(level, cname, mname, msg);
@@ -452,7 +463,8 @@ public class Log {
 	 * @since 6.0.0
 	 */
 	public void error(String format,Object... args){
-		error(format(format,args));
+		if (errorable()) //format only if necessary
+			error(format(format,args));
 	}
 	/**
 	 * Logs an error message and a throwable object.
@@ -534,7 +546,8 @@ public class Log {
 	 * @since 6.0.0
 	 */
 	public void warning(String format,Object... args){
-		warning(format(format,args));
+		if (warningable()) //format only if necessary
+			warning(format(format,args));
 	}
 	/**
 	 * Logs a warning message and a throwable object.
@@ -616,7 +629,8 @@ public class Log {
 	 * @since 6.0.0
 	 */
 	public void info(String format,Object... args){
-		info(format(format,args));
+		if (infoable()) //format only if necessary
+			info(format(format,args));
 	}
 	/**
 	 * Logs an info message and a throwable object.
@@ -699,7 +713,8 @@ public class Log {
 	 * @since 6.0.0
 	 */
 	public void debug(String format,Object... args){
-		debug(format(format,args));
+		if (debugable()) //format only if necessary
+			debug(format(format,args));
 	}
 	/**
 	 * Logs a debug message and a throwable object.
@@ -781,7 +796,8 @@ public class Log {
 	 * @since 6.0.0
 	 */
 	public void finer(String format,Object... args){
-		finer(format(format,args));
+		if (finerable()) //format only if necessary
+			finer(format(format,args));
 	}
 	/**
 	 * Logs a finer message and a throwable object.
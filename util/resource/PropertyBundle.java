@@ -59,8 +59,10 @@ public class PropertyBundle {
 	/** The cache to hold bundles (Key, PropertyBundle). */
 	private static final Cache<Key, PropertyBundle> _cache;
 	static {
-		_cache = new CacheMap<Key, PropertyBundle>();
-		_cache.setMaxSize(100);
+		final CacheMap<Key, PropertyBundle> cache = new CacheMap<Key, PropertyBundle>();
+		cache.setMaxSize(100);
+		cache.setExpungeSteps(ResourceCache.getInitExpungeSteps());
+		_cache = cache;
 	}
 
 	/** The map of properties. */
@@ -16,13 +16,24 @@ Copyright (C) 2005 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.util.resource;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.lang.Library;
 import org.zkoss.lang.PotentialDeadLockException;
 import org.zkoss.lang.SystemException;
 import org.zkoss.util.CacheMap;
+import org.zkoss.util.CacheStatistics;
 import org.zkoss.util.WaitLock;
+import org.zkoss.util.resource.impl.DefaultResourceWatcher;
 
 /**
  * Used to cache resources.
@@ -35,6 +46,34 @@ import org.zkoss.util.WaitLock;
  * <p>The default check period depends on the library property called
  * org.zkoss.util.resource.checkPeriod (unit: second). If not specified, 5 seconds are assumed
  *
+ * <p>By default, the cached resources are expunged only if GC was activated.
+ * If the library property called org.zkoss.util.resource.expungeSteps
+ * is specified with a positive number, the incremental expunge is enabled
+ * (see {@link CacheMap#setExpungeSteps}).
+ *
+ * <p>If the statistics is enabled ({@link #setStatisticsEnabled}),
+ * the time spent in {@link Loader#load} is recorded, too.
+ *
+ * <p>By default, when it is time to check whether a resource is modified
+ * (see {@link #getCheckPeriod}), the check and the reload are done
+ * in the calling thread, and the other threads requesting the same resource
+ * wait until it is reloaded.
+ * If the asynchronous refresh is enabled ({@link #setAsyncRefresh}, or
+ * the library property called org.zkoss.util.resource.asyncRefresh is true),
+ * the cached resource keeps being returned, while a background thread
+ * checks and reloads it. Only one refresh is scheduled per resource at a time.
+ * The number of background threads is specified by the library property
+ * called org.zkoss.util.resource.asyncRefresh.threads (default: 2),
+ * and the refreshes are skipped (and tried later) if too many are pending.
+ *
+ * <p>If a watcher is assigned ({@link #setWatcher}, or the library property
+ * called org.zkoss.util.resource.watch is true), the cached resources are
+ * invalidated (or, if the asynchronous refresh is enabled, reloaded in
+ * background) when the watcher notifies they are changed, and
+ * {@link Loader#getLastModified} is no longer polled for them.
+ * The resources that the watcher doesn't support are still checked
+ * periodically as described above.
+ *
  * @author tomyeh
  */
 public class ResourceCache<K, V> extends CacheMap<Object, Object> {
@@ -44,6 +83,13 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 	protected final Loader<K, V> _loader;
 	/** unit=milliseconds. */
 	private int _checkPeriod;
+	private boolean _asyncRefresh;
+	/** The watcher being used, or null if not watched. */
+	private volatile ResourceWatcher _watcher;
+	/** The executor to refresh resources asynchronously (shared by all caches).
+	 * The context class loader of the thread scheduling a refresh is used
+	 * to run it. */
+	private static ThreadPoolExecutor _refresher;
 
 	/** Constructor.
 	 * @param loader the loader to load resource
@@ -53,6 +99,9 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 			throw new NullPointerException();
 		_loader = loader;
 		_checkPeriod = getInitCheckPeriod();
+		_asyncRefresh = getInitAsyncRefresh();
+		setExpungeSteps(getInitExpungeSteps());
+		initWatcher();
 	}
 	/** Constructor.
 	 * @param loader the loader to load resource
@@ -64,11 +113,28 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 			throw new NullPointerException();
 		_loader = loader;
 		_checkPeriod = getInitCheckPeriod();
+		_asyncRefresh = getInitAsyncRefresh();
+		setExpungeSteps(getInitExpungeSteps());
+		initWatcher();
+	}
+	private void initWatcher() {
+		if ("true".equals(Library.getProperty("org.zkoss.util.resource.watch")))
+			setWatcher(DefaultResourceWatcher.getInstance());
 	}
 	private static int getInitCheckPeriod() {
 		final int v = Library.getIntProperty("org.zkoss.util.resource.checkPeriod", 5);
 		return v > 0 ? v * 1000: v;
 	}
+	private static boolean getInitAsyncRefresh() {
+		return "true".equals(Library.getProperty("org.zkoss.util.resource.asyncRefresh"));
+	}
+	/** Returns the number of mappings to examine per access, specified
+	 * by the library property called org.zkoss.util.resource.expungeSteps.
+	 * @since 8.5.0
+	 */
+	/*package*/ static int getInitExpungeSteps() {
+		return Library.getIntProperty("org.zkoss.util.resource.expungeSteps", 0);
+	}
 
 	/** Returns the loader.
 	 */
@@ -88,6 +154,48 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 		_checkPeriod = checkPeriod;
 		return this;
 	}
+	/** Returns whether to check and reload the modified resources
+	 * in a background thread.
+	 * <p>Default: false, unless the library property called
+	 * org.zkoss.util.resource.asyncRefresh is true.
+	 * @since 8.5.0
+	 */
+	public boolean isAsyncRefresh() {
+		return _asyncRefresh;
+	}
+	/** Sets whether to check and reload the modified resources
+	 * in a background thread.
+	 * If true, {@link #get} returns the cached resource even if it is
+	 * being reloaded, so the caller never waits for the reload.
+	 * @return this object
+	 * @since 8.5.0
+	 */
+	public ResourceCache setAsyncRefresh(boolean asyncRefresh) {
+		_asyncRefresh = asyncRefresh;
+		return this;
+	}
+	/** Returns the watcher used to get notified when the cached resources
+	 * are changed, or null if not watched.
+	 * <p>Default: null, unless the library property called
+	 * org.zkoss.util.resource.watch is true (then
+	 * {@link DefaultResourceWatcher#getInstance} is used).
+	 * @since 8.5.0
+	 */
+	public ResourceWatcher getWatcher() {
+		return _watcher;
+	}
+	/** Sets the watcher used to get notified when the cached resources
+	 * are changed.
+	 * It affects only the resources loaded afterwards.
+	 * @param watcher the watcher, or null to check the last modified time
+	 * periodically (see {@link #setCheckPeriod}).
+	 * @return this object
+	 * @since 8.5.0
+	 */
+	public ResourceCache setWatcher(ResourceWatcher watcher) {
+		_watcher = watcher;
+		return this;
+	}
 	
 	//-- Map --//
 	/** Returns the resource, or null if not found.
@@ -98,27 +206,41 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 		for (;;) {
 			Info ri = null;
 			synchronized (this) {
-				Object o = super.get(src);
+				//the statistics is counted here rather than by super.get,
+				//since a lock or an invalid info is not a hit
+				Object o = super.getWithoutExpunge(src);
+				tryExpunge();
 				if (o instanceof WaitLock) {
 					lock = (WaitLock)o;
 				} else if (o != null) { //was loaded
 					ri = (Info)o;
 				} else {
 					super.put(src, lock = new WaitLock());
+					recordAccess(false);
 					break; //then, load it
 				}
 			} //sync(this)
 
 			//check whether cached is valid
 			if (ri != null) {
+				final Watch watch = ri._watch;
+				if (watch != null && watch.watcher == _watcher) {
+					recordAccess(true);
+					return ri.getResource(); //invalidated by the watcher
+				}
+				if (_asyncRefresh) {
+					ri.refreshIfNecessary();
+					recordAccess(true);
+					return ri.getResource(); //stale until refreshed
+				}
 				synchronized (ri) {
-					if (ri.isValid())
+					if (ri.isValid()) {
+						recordAccess(true);
 						return ri.getResource(); //reuse cached
+					}
 				}
 				//invalid, so remove it (if not updated by others)
-				synchronized (this) {
-					if (super.get(src) == ri) super.remove(src);
-				}
+				replace(src, ri, null);
 			} else if (!lock.waitUntilUnlock(300*1000)) { //5 minute
 				final PotentialDeadLockException ex =
 					new PotentialDeadLockException(
@@ -130,26 +252,17 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 
 		//load it
 		try {
-			boolean cache;
-			final Info ri = new Info((K)src);
-			V resource = ri.getResource();
-
-			if (resource instanceof Loader.Resource) {
-				final Loader.Resource lr = (Loader.Resource)resource;
-				resource = (V)lr.resource;
-				cache = lr.cacheable;
-			} else
-				cache = resource != null;
-			
+			final Info ri = newInfo((K)src);
 			synchronized (this) {
-				if (cache) {
+				if (ri.isCacheable()) {
 					super.put(src, ri);
 				} else {
 					super.remove(src); //remove lock
 				}
 			}
+			watch(ri);
 
-			return resource;
+			return ri.getResource();
 		} catch (Throwable ex) {
 			synchronized (this) {
 				super.remove(src); //remove lock
@@ -159,6 +272,117 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 			lock.unlock();
 		}
 	}
+	/** Records a hit (a cached resource is reused) or a miss
+	 * (it is going to be loaded) if the statistics is enabled. */
+	private void recordAccess(boolean hit) {
+		final CacheStatistics stats = getStatistics();
+		if (stats != null)
+			stats.recordAccess(hit);
+	}
+	/** Loads the resource, and records the statistics if enabled. */
+	private Info newInfo(K src) throws Exception {
+		final CacheStatistics stats = getStatistics();
+		final long start = stats != null ? System.nanoTime(): 0;
+		try {
+			final Info ri = new Info(src);
+			if (stats != null)
+				stats.recordLoad(System.nanoTime() - start, true);
+			return ri;
+		} catch (Exception ex) {
+			if (stats != null)
+				stats.recordLoad(System.nanoTime() - start, false);
+			throw ex;
+		} catch (Error ex) {
+			if (stats != null)
+				stats.recordLoad(System.nanoTime() - start, false);
+			throw ex;
+		}
+	}
+	/** Replaces the cached info with the reloaded one (or removes it if
+	 * ri is null), unless it has been changed by others.
+	 */
+	private void replace(Object src, Info old, Info ri) {
+		synchronized (this) {
+			if (super.getWithoutExpunge(src) != old)
+				return;
+			if (ri != null) super.put(src, ri);
+			else super.remove(src);
+		}
+		unwatch(old);
+	}
+	/** Starts watching the given (cached) info if a watcher is assigned.
+	 * Each info has its own listener, so unwatching an info won't affect
+	 * the info reloaded from the same source.
+	 */
+	private void watch(Info ri) {
+		final ResourceWatcher watcher = _watcher;
+		if (watcher != null && ri.isCacheable() && ri._lastModified != -1) {
+			//assign it first, so a change notified right after registering
+			//is not taken as a stale watch (and lost)
+			final Watch watch = new Watch(this, watcher);
+			ri._watch = watch;
+			if (!watcher.watch(ri._src, watch)) {
+				ri._watch = null; //not supported: polled
+			} else if (ri._lastModified != _loader.getLastModified(ri._src)) {
+				//changed between loading and watching: polled (and reloaded soon)
+				ri._watch = null;
+				watcher.unwatch(ri._src, watch);
+			}
+		}
+	}
+	/** Stops watching the given info if it is watched.
+	 * @param o the value that is no longer cached
+	 */
+	@SuppressWarnings("unchecked")
+	private void unwatch(Object o) {
+		if (o instanceof ResourceCache.Info) {
+			final Info ri = (Info)o;
+			final Watch watch = ri._watch;
+			if (watch != null)
+				watch.watcher.unwatch(ri._src, watch);
+		}
+	}
+	/** Called when the watcher notifies the given source is changed. */
+	@SuppressWarnings("unchecked")
+	private void onChange(Object src, Watch watch) {
+		final Object o;
+		synchronized (this) {
+			o = super.getWithoutExpunge(src);
+		}
+		if (!(o instanceof ResourceCache.Info) || ((Info)o)._watch != watch) {
+			watch.watcher.unwatch(src, watch); //no longer cached (or polled)
+			return;
+		}
+
+		final Info ri = (Info)o;
+		log.info("Source is changed: "+src);
+		if (!_asyncRefresh || !ri.refreshNow())
+			replace(src, ri, null); //reload at next access
+	}
+	protected void onExpunge(Value<Object> v) {
+		unwatch(v.getValue());
+	}
+	private static synchronized ThreadPoolExecutor getRefresher() {
+		if (_refresher == null) {
+			final int nthd = Math.max(1, Library.getIntProperty(
+				"org.zkoss.util.resource.asyncRefresh.threads", 2));
+			_refresher = new ThreadPoolExecutor(nthd, nthd,
+				60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(256),
+				new ThreadFactory() {
+					private final AtomicInteger _cnt = new AtomicInteger();
+					public Thread newThread(Runnable r) {
+						final Thread t = new Thread(r,
+							"ResourceCache-refresh-" + _cnt.incrementAndGet());
+						t.setDaemon(true);
+						//not to keep the loader of the creator when idle
+						t.setContextClassLoader(ResourceCache.class.getClassLoader());
+						return t;
+					}
+				});
+			_refresher.allowCoreThreadTimeOut(true);
+		}
+		return _refresher;
+	}
 	/** Don't use it.
 	 * @exception UnsupportedOperationException if called
 	 */
@@ -169,29 +393,61 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 	 * It is thread safe.
 	 */
 	public Object remove(Object src) {
+		final Object o;
 		synchronized (this) {
-			return super.remove(src);
+			o = super.remove(src);
 		}
+		unwatch(o);
+		return o;
 	}
 	/** It is OK to clear up all cached resources if you don't want to cache it.
 	 * It is thread safe.
 	 */
 	public void clear() {
+		final Object[] vals;
 		synchronized (this) {
+			vals = super.values().toArray();
 			super.clear();
 		}
+		for (int j = 0; j < vals.length; ++j)
+			unwatch(vals[j]);
 	}
 
 	//-- private --//
+	/** The listener of a watcher for a cached info. It references
+	 * the cache weakly, so the cache can be garbage-collected even if
+	 * it is watched.
+	 */
+	private static class Watch implements ResourceWatcher.Listener {
+		private final WeakReference<ResourceCache<?, ?>> _cache;
+		private final ResourceWatcher watcher;
+
+		private Watch(ResourceCache<?, ?> cache, ResourceWatcher watcher) {
+			_cache = new WeakReference<ResourceCache<?, ?>>(cache);
+			this.watcher = watcher;
+		}
+		public void onChange(Object src) {
+			final ResourceCache<?, ?> cache = _cache.get();
+			if (cache != null)
+				cache.onChange(src, this);
+			else
+				watcher.unwatch(src, this);
+		}
+	}
 	/** Providing info about a resource. */
 	private class Info {
 		/** The source. */
 		private final K _src;
 		/** The result resource. */
 		private V _resource;
+		private boolean _cacheable;
 		private long _lastModified;
 		/* When to check lastModified again. */
-		private long _nextCheck;
+		private volatile long _nextCheck;
+		/** Whether it is being refreshed asynchronously. */
+		private final AtomicBoolean _refreshing = new AtomicBoolean();
+		/** The watch notifying the changes, or null if polled. */
+		private volatile Watch _watch;
 
 		/**
 		 * @param src the source
@@ -206,6 +462,10 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 		public final V getResource() {
 			return _resource;
 		}
+		/** Returns whether the resource shall be cached. */
+		public final boolean isCacheable() {
+			return _cacheable;
+		}
 		/** Quick check whether the page is still valid. */
 		public boolean isValid() {
 			final long now = System.currentTimeMillis();
@@ -217,15 +477,90 @@ public class ResourceCache<K, V> extends CacheMap<Object, Object> {
 				return false; //reload is required
 
 			final boolean valid = lastmod == _lastModified;
-			if (!valid)
+			if (valid)
+				_nextCheck = now + _checkPeriod; //not to check again until then
+			else
 				log.info("Source is changed: "+_src);
-			//else if (log.finerable()) log.finer("Source not changed: "+_src);
 			return valid;
 		}
+		/** Schedules a background refresh if it is time to check
+		 * and no refresh is pending. */
+		public void refreshIfNecessary() {
+			final long now = System.currentTimeMillis();
+			if (!_loader.shallCheck(_src, now - _nextCheck)
+			|| !_refreshing.compareAndSet(false, true))
+				return;
+
+			_nextCheck = now + _checkPeriod; //not to check again until then
+			schedule(false);
+		}
+		/** Schedules a background reload since the source is known to be
+		 * changed.
+		 * @return false if it is too busy (or being refreshed) to schedule.
+		 */
+		public boolean refreshNow() {
+			return _refreshing.compareAndSet(false, true) && schedule(true);
+		}
+		private boolean schedule(final boolean changed) {
+			//the threads are shared by all caches (and applications), so
+			//load with the context class loader of the caller
+			final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+			try {
+				getRefresher().execute(new Runnable() {
+					public void run() {
+						final Thread thd = Thread.currentThread();
+						final ClassLoader old = thd.getContextClassLoader();
+						thd.setContextClassLoader(cl);
+						try {
+							refresh(changed);
+						} finally {
+							thd.setContextClassLoader(old);
+						}
+					}
+				});
+				return true;
+			} catch (RejectedExecutionException ex) {
+				_refreshing.set(false); //too busy; try again later
+				return false;
+			}
+		}
+		/** Checks and reloads the resource (in a background thread).
+		 * @param changed whether the source is known to be changed
+		 */
+		private void refresh(boolean changed) {
+			try {
+				if (!changed) {
+					final long lastmod = _loader.getLastModified(_src);
+					if (lastmod != -1 && lastmod == _lastModified)
+						return; //not changed
+					log.info("Source is changed: "+_src);
+				}
+
+				final Info ri = newInfo(_src);
+				replace(_src, this, ri.isCacheable() ? ri: null);
+				if (ri.isCacheable())
+					watch(ri);
+			} catch (Throwable ex) {
+				//remove it, so the next get reloads it and reports the error
+				log.warn("Failed to reload "+_src, ex);
+				replace(_src, this, null);
+			} finally {
+				_refreshing.set(false);
+			}
+		}
 		/** Loads the file. */
+		@SuppressWarnings("unchecked")
 		protected void load() throws Exception {
-			_resource = _loader.load(_src);
-			if (_resource != null) {
+			final Object resource = _loader.load(_src);
+			if (resource instanceof Loader.Resource) {
+				final Loader.Resource lr = (Loader.Resource)resource;
+				_resource = (V)lr.resource;
+				_cacheable = lr.cacheable;
+			} else {
+				_resource = (V)resource;
+				_cacheable = resource != null;
+			}
+			if (resource != null) {
 				_lastModified = _loader.getLastModified(_src);
 				_nextCheck = System.currentTimeMillis() + _checkPeriod;
 			}
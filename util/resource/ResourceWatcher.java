@@ -0,0 +1,55 @@
+/* ResourceWatcher.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 18:02:47     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource;
+
+/**
+ * A source of the change notifications of resources. It is used by
+ * {@link ResourceCache} to invalidate or refresh the cached resources
+ * when they are modified, rather than polling {@link Loader#getLastModified}
+ * in the calling thread.
+ *
+ * @author agent
+ * @since 8.5.0
+ * @see ResourceCache#setWatcher
+ * @see org.zkoss.util.resource.impl.DefaultResourceWatcher
+ */
+public interface ResourceWatcher {
+	/** Starts watching the given source.
+	 * Watching the same source with the same listener twice has no effect.
+	 * @param src the source, such as a File or an URL
+	 * @return whether the source is watched. If false (such as the source
+	 * is not supported), the caller has to poll it by itself.
+	 */
+	public boolean watch(Object src, Listener listener);
+	/** Stops watching the given source for the given listener.
+	 */
+	public void unwatch(Object src, Listener listener);
+	/** Stops watching all sources, and releases the resources, such as
+	 * the background thread. Once closed, {@link #watch} returns false.
+	 * It is usually called when the application is stopping.
+	 */
+	public void close();
+
+	/** The listener to be notified when a watched source is changed.
+	 */
+	public static interface Listener {
+		/** Called (in a background thread) when the source is modified
+		 * or removed.
+		 */
+		public void onChange(Object src);
+	}
+}
@@ -0,0 +1,100 @@
+/* DefaultResourceWatcher.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 18:40:13     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.lang.Library;
+import org.zkoss.util.Cleanups;
+import org.zkoss.util.resource.ResourceWatcher;
+
+/**
+ * The default resource watcher. The local files are watched with
+ * {@link FileResourceWatcher} (if JVM 7 or above), and the others
+ * (such as the entries of JAR files) are polled with
+ * {@link PollingResourceWatcher}.
+ *
+ * <p>The polling period is specified by the library property called
+ * <code>org.zkoss.util.resource.watch.pollPeriod</code> (unit: second;
+ * default: 5).
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class DefaultResourceWatcher implements ResourceWatcher {
+	private static final Logger log = LoggerFactory.getLogger(DefaultResourceWatcher.class);
+	private static DefaultResourceWatcher _instance;
+
+	/** The watcher for local files, or null if not available. */
+	private final ResourceWatcher _file;
+	private final ResourceWatcher _polling;
+
+	/** Returns the default instance (shared by all caches).
+	 * <p>It is closed by {@link Cleanups#cleanup}, which ZK invokes when
+	 * the application is stopping, so its threads won't keep the class
+	 * loader of a re-deployed application.
+	 */
+	public static synchronized ResourceWatcher getInstance() {
+		if (_instance == null) {
+			_instance = new DefaultResourceWatcher();
+			Cleanups.add(_cleanup); //ignored if added
+		}
+		return _instance;
+	}
+	/** Closes the default instance when the application is stopping. */
+	private static final Cleanups.Cleanup _cleanup = new Cleanups.Cleanup() {
+		public void cleanup() {
+			final ResourceWatcher watcher;
+			synchronized (DefaultResourceWatcher.class) {
+				watcher = _instance;
+				_instance = null;
+			}
+			if (watcher != null)
+				watcher.close();
+		}
+	};
+
+	public DefaultResourceWatcher() {
+		ResourceWatcher file = null;
+		try {
+			Class.forName("java.nio.file.WatchService");
+			file = new FileResourceWatcher();
+		} catch (Throwable ex) {
+			log.debug("File watch service not available; polling instead", ex);
+		}
+		_file = file;
+		_polling = new PollingResourceWatcher(
+			Library.getIntProperty("org.zkoss.util.resource.watch.pollPeriod", 5) * 1000);
+	}
+
+	//ResourceWatcher//
+	public boolean watch(Object src, Listener listener) {
+		return (_file != null && _file.watch(src, listener))
+			|| _polling.watch(src, listener);
+	}
+	public void unwatch(Object src, Listener listener) {
+		if (_file != null)
+			_file.unwatch(src, listener);
+		_polling.unwatch(src, listener);
+	}
+	public void close() {
+		if (_file != null)
+			_file.close();
+		_polling.close();
+	}
+}
@@ -0,0 +1,227 @@
+/* FileResourceWatcher.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 18:25:40     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.util.resource.ResourceWatcher;
+
+/**
+ * A resource watcher based on {@link WatchService}, i.e., the change
+ * notifications of the file system. Only local files (File and
+ * <code>file:</code> URLs) are supported.
+ *
+ * <p>It requires JVM 7 or above.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class FileResourceWatcher implements ResourceWatcher, Runnable {
+	private static final Logger log = LoggerFactory.getLogger(FileResourceWatcher.class);
+
+	private final WatchService _service;
+	private final Thread _thread;
+	private volatile boolean _closed;
+	/** Map(Path dir, Dir). */
+	private final Map<Path, Dir> _dirs = new HashMap<Path, Dir>();
+
+	/** The watched files in a directory. */
+	private static class Dir {
+		private final WatchKey key;
+		/** Map(Path filename, Map(Object src, Set(Listener))). */
+		private final Map<Path, Map<Object, Set<Listener>>> files =
+			new HashMap<Path, Map<Object, Set<Listener>>>();
+
+		private Dir(WatchKey key) {
+			this.key = key;
+		}
+	}
+
+	public FileResourceWatcher() throws IOException {
+		_service = FileSystems.getDefault().newWatchService();
+		_thread = new Thread(this, "FileResourceWatcher");
+		_thread.setDaemon(true);
+		//not to keep the loader of the caller (such as a web application)
+		_thread.setContextClassLoader(FileResourceWatcher.class.getClassLoader());
+		_thread.start();
+	}
+
+	//ResourceWatcher//
+	public boolean watch(Object src, Listener listener) {
+		final File file = src instanceof File ? (File)src:
+			src instanceof URL ? PollingResourceWatcher.toFile((URL)src): null;
+		if (file == null)
+			return false;
+
+		final Path path = file.getAbsoluteFile().toPath();
+		final Path dirpath = path.getParent(), name = path.getFileName();
+		if (dirpath == null || name == null)
+			return false;
+
+		synchronized (_dirs) {
+			if (_closed)
+				return false;
+			Dir dir = _dirs.get(dirpath);
+			if (dir == null) {
+				try {
+					_dirs.put(dirpath, dir = new Dir(dirpath.register(_service,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY)));
+				} catch (Throwable ex) { //not exist, or not supported
+					return false;
+				}
+			}
+			Map<Object, Set<Listener>> srcs = dir.files.get(name);
+			if (srcs == null)
+				dir.files.put(name, srcs = new HashMap<Object, Set<Listener>>(2));
+			Set<Listener> listeners = srcs.get(src);
+			if (listeners == null)
+				srcs.put(src, listeners = new LinkedHashSet<Listener>(2));
+			listeners.add(listener);
+		}
+		return true;
+	}
+	public void unwatch(Object src, Listener listener) {
+		final File file = src instanceof File ? (File)src:
+			src instanceof URL ? PollingResourceWatcher.toFile((URL)src): null;
+		if (file == null)
+			return;
+
+		final Path path = file.getAbsoluteFile().toPath();
+		final Path dirpath = path.getParent(), name = path.getFileName();
+		synchronized (_dirs) {
+			final Dir dir = _dirs.get(dirpath);
+			if (dir == null)
+				return;
+			final Map<Object, Set<Listener>> srcs = dir.files.get(name);
+			if (srcs == null)
+				return;
+			final Set<Listener> listeners = srcs.get(src);
+			if (listeners == null || !listeners.remove(listener) || !listeners.isEmpty())
+				return;
+			srcs.remove(src);
+			if (srcs.isEmpty()) {
+				dir.files.remove(name);
+				if (dir.files.isEmpty()) {
+					dir.key.cancel();
+					_dirs.remove(dirpath);
+				}
+			}
+		}
+	}
+
+	public void close() {
+		synchronized (_dirs) {
+			_closed = true;
+			_dirs.clear();
+		}
+		try {
+			_service.close(); //take() then throws ClosedWatchServiceException
+		} catch (Throwable ex) {
+			log.warn("Failed to close the file watch service", ex);
+		}
+		_thread.interrupt();
+	}
+
+	//Runnable//
+	public void run() {
+		for (;;) {
+			final WatchKey key;
+			try {
+				key = _service.take();
+			} catch (InterruptedException ex) {
+				return;
+			} catch (Throwable ex) { //closed
+				if (!_closed)
+					log.warn("File watch service stopped", ex);
+				return;
+			}
+
+			try {
+				final Path dirpath = (Path)key.watchable();
+				final Map<Object, Set<Listener>> changed =
+					new HashMap<Object, Set<Listener>>();
+				for (WatchEvent<?> ev: key.pollEvents()) {
+					final Object ctx = ev.context();
+					collect(dirpath,
+						ev.kind() == StandardWatchEventKinds.OVERFLOW
+						|| !(ctx instanceof Path) ? null: (Path)ctx, changed);
+				}
+				if (!key.reset()) { //the directory is no longer accessible
+					collect(dirpath, null, changed);
+					synchronized (_dirs) {
+						_dirs.remove(dirpath);
+					}
+				}
+
+				for (Map.Entry<Object, Set<Listener>> me: changed.entrySet())
+					for (Listener listener: me.getValue())
+						try {
+							listener.onChange(me.getKey());
+						} catch (Throwable ex) {
+							log.warn("Failed to notify "+listener, ex);
+						}
+			} catch (Throwable ex) {
+				log.warn("Failed to handle file changes", ex);
+			}
+		}
+	}
+	/** Collects the sources (and their listeners) that are changed.
+	 * @param name the file name, or null for all files in the directory.
+	 */
+	private void collect(Path dirpath, Path name,
+	Map<Object, Set<Listener>> changed) {
+		synchronized (_dirs) {
+			final Dir dir = _dirs.get(dirpath);
+			if (dir == null)
+				return;
+			if (name != null) {
+				final Map<Object, Set<Listener>> srcs = dir.files.get(name);
+				if (srcs != null)
+					copy(srcs, changed);
+			} else {
+				for (Map<Object, Set<Listener>> srcs: dir.files.values())
+					copy(srcs, changed);
+			}
+		}
+	}
+	private static void copy(Map<Object, Set<Listener>> srcs,
+	Map<Object, Set<Listener>> changed) {
+		for (Map.Entry<Object, Set<Listener>> me: srcs.entrySet()) {
+			Set<Listener> listeners = changed.get(me.getKey());
+			if (listeners == null)
+				changed.put(me.getKey(), listeners = new LinkedHashSet<Listener>(2));
+			listeners.addAll(me.getValue());
+		}
+	}
+}
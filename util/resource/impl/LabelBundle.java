@@ -0,0 +1,353 @@
+/* LabelBundle.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 21:34:47     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.lang.Library;
+import org.zkoss.util.Locales;
+
+/**
+ * A precompiled bundle of the labels of a locale that are loaded from
+ * the modules (i.e., <code>metainfo/zk-label*.properties</code>).
+ * The bundle is a binary file that is read into a buffer at once, and
+ * {@link #get} reads the label directly from the buffer, so the properties
+ * files don't have to be parsed again when the application restarts.
+ * The file is not memory-mapped, since a mapped file can't be replaced
+ * (on Windows) until the mapping is garbage-collected.
+ *
+ * <p>The bundle records the URL and the last modified time (or the checksum,
+ * if the last modified time is not available) of each properties file.
+ * If any of them is changed, the bundle is stale and will be re-compiled.
+ *
+ * <p>To enable it, specify the directory to store the bundles with
+ * the library property called <code>org.zkoss.util.label.bundle.dir</code>.
+ * Then, the bundle is compiled at the first time the labels of a locale
+ * are loaded. The bundles can be compiled offline, too:
+ * <pre><code>java org.zkoss.util.resource.impl.LabelBundle dir [locale...]</code></pre>
+ *
+ * <p>Format (big-endian): magic, version, charset, the sources
+ * (URL and stamp), the number of labels, the capacity of the index
+ * (a power of 2), the index (the offset of the label in each slot, or -1
+ * if empty; open-addressed with the hash code of the key), and then
+ * the labels (key and value). A string is stored as its length followed
+ * by UTF-16 chars.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public final class LabelBundle extends AbstractMap<String, String> {
+	private static final Logger log = LoggerFactory.getLogger(LabelBundle.class);
+
+	private static final int MAGIC = 0x5a4b4c42; //ZKLB
+	private static final int VERSION = 1;
+
+	private final ByteBuffer _buf;
+	private final int _size, _mask, _index, _data;
+
+	private LabelBundle(ByteBuffer buf, int pos) {
+		_buf = buf;
+		_size = buf.getInt(pos);
+		_mask = buf.getInt(pos + 4) - 1;
+		_index = pos + 8;
+		_data = _index + ((_mask + 1) << 2);
+	}
+
+	/** Returns the file of the bundle of the given locale, or null if
+	 * the bundle is not enabled (default).
+	 * @see LabelBundle
+	 */
+	/*package*/ static File getFile(Locale locale) {
+		final String dir = Library.getProperty("org.zkoss.util.label.bundle.dir");
+		return dir != null && dir.length() > 0 ?
+			new File(dir, locale == null ? "zk-label.bin":
+				"zk-label_" + locale + ".bin"): null;
+	}
+	/** Opens the bundle, or returns null if the bundle is not found,
+	 * corrupted or stale.
+	 * @param srcs the URLs of the properties files the labels are loaded from
+	 * @param charset the charset used to load the properties files
+	 */
+	/*package*/ static LabelBundle open(File file, List<URL> srcs, String charset) {
+		if (!file.isFile())
+			return null;
+
+		try {
+			final ByteBuffer buf;
+			final RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				final FileChannel fc = raf.getChannel();
+				final long size = fc.size();
+				if (size < 16 || size > Integer.MAX_VALUE)
+					return null;
+				buf = ByteBuffer.allocate((int)size);
+				while (buf.hasRemaining() && fc.read(buf) >= 0)
+					;
+				buf.flip();
+			} finally {
+				raf.close();
+			}
+
+			if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION
+			|| buf.getInt(8) != buf.limit() || !equals(buf, 12, charset))
+				return null;
+			int pos = skip(buf, 12);
+			final int nsrc = buf.getInt(pos);
+			if (nsrc != srcs.size())
+				return null;
+			pos += 4;
+			final Map<File, Long> jars = new HashMap<File, Long>();
+			for (URL url: srcs) {
+				if (!equals(buf, pos, url.toExternalForm()))
+					return null;
+				pos = skip(buf, pos);
+				if (buf.getLong(pos) != getStamp(url, jars)) {
+					log.info("Labels changed: "+url);
+					return null;
+				}
+				pos += 8;
+			}
+			return new LabelBundle(buf, pos);
+		} catch (Throwable ex) {
+			log.warn("Ignored corrupted "+file, ex);
+			return null;
+		}
+	}
+	/** Compiles the labels into a bundle.
+	 * The file is written to a temporary file first, and then renamed,
+	 * such that the bundle being read won't be affected.
+	 * @param srcs the URLs of the properties files the labels are loaded from
+	 * @param charset the charset used to load the properties files
+	 */
+	/*package*/ static void write(File file, List<URL> srcs, String charset,
+	Map<String, String> labels) throws IOException {
+		int cap = 4;
+		while (cap < labels.size() * 2)
+			cap <<= 1;
+		final int mask = cap - 1;
+
+		//header
+		final ByteArrayOutputStream hdbuf = new ByteArrayOutputStream(1024);
+		final DataOutputStream hd = new DataOutputStream(hdbuf);
+		hd.writeInt(MAGIC);
+		hd.writeInt(VERSION);
+		hd.writeInt(0); //total length (filled later)
+		writeString(hd, charset);
+		hd.writeInt(srcs.size());
+		final Map<File, Long> jars = new HashMap<File, Long>();
+		for (URL url: srcs) {
+			writeString(hd, url.toExternalForm());
+			hd.writeLong(getStamp(url, jars));
+		}
+		hd.writeInt(labels.size());
+		hd.writeInt(cap);
+		hd.flush();
+
+		//labels and index
+		final int data = hd.size() + (cap << 2);
+		final int[] index = new int[cap];
+		for (int j = 0; j < cap; ++j)
+			index[j] = -1;
+		final ByteArrayOutputStream dtbuf = new ByteArrayOutputStream(labels.size() * 64);
+		final DataOutputStream dt = new DataOutputStream(dtbuf);
+		for (Map.Entry<String, String> me: labels.entrySet()) {
+			final String key = me.getKey();
+			int j = hash(key) & mask;
+			while (index[j] >= 0)
+				j = (j + 1) & mask;
+			index[j] = data + dt.size();
+			writeString(dt, key);
+			writeString(dt, me.getValue());
+		}
+		for (int j = 0; j < cap; ++j)
+			hd.writeInt(index[j]);
+		dt.flush();
+
+		final byte[] head = hdbuf.toByteArray();
+		final int len = head.length + dtbuf.size();
+		head[8] = (byte)(len >>> 24);
+		head[9] = (byte)(len >>> 16);
+		head[10] = (byte)(len >>> 8);
+		head[11] = (byte)len;
+
+		final File dir = file.getParentFile();
+		if (dir != null)
+			dir.mkdirs();
+		final File tmp = File.createTempFile("zk-label", ".tmp", dir);
+		try {
+			final FileOutputStream out = new FileOutputStream(tmp);
+			try {
+				out.write(head);
+				dtbuf.writeTo(out);
+			} finally {
+				out.close();
+			}
+			if (!tmp.renameTo(file)) {
+				file.delete(); //some OS doesn't overwrite
+				if (!tmp.renameTo(file))
+					throw new IOException("Unable to write "+file);
+			}
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	/** Returns the stamp of the source: the last modified time,
+	 * or a negative checksum of the content if the time is not available.
+	 */
+	private static long getStamp(URL url, Map<File, Long> jars)
+	throws IOException {
+		final long lastModified = PollingResourceWatcher.getLastModified(url, jars);
+		if (lastModified > 0)
+			return lastModified;
+
+		final CRC32 crc = new CRC32();
+		final InputStream is = url.openStream();
+		try {
+			final byte[] bs = new byte[8192];
+			for (int v; (v = is.read(bs)) >= 0;)
+				crc.update(bs, 0, v);
+		} finally {
+			is.close();
+		}
+		return -1 - crc.getValue();
+	}
+	private static int hash(Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+	private static void writeString(DataOutputStream out, String s)
+	throws IOException {
+		out.writeInt(s.length());
+		out.writeChars(s);
+	}
+	/** Returns the position following the string at the given position. */
+	private static int skip(ByteBuffer buf, int pos) {
+		return pos + 4 + (buf.getInt(pos) << 1);
+	}
+	private static String readString(ByteBuffer buf, int pos) {
+		final char[] cs = new char[buf.getInt(pos)];
+		pos += 4;
+		for (int j = 0; j < cs.length; ++j, pos += 2)
+			cs[j] = buf.getChar(pos);
+		return new String(cs);
+	}
+	/** Compares the string at the given position without creating it. */
+	private static boolean equals(ByteBuffer buf, int pos, String s) {
+		final int len = s.length();
+		if (buf.getInt(pos) != len)
+			return false;
+		pos += 4;
+		for (int j = 0; j < len; ++j, pos += 2)
+			if (buf.getChar(pos) != s.charAt(j))
+				return false;
+		return true;
+	}
+
+	/** Returns the offset of the label of the given key, or -1 if not found. */
+	private int find(Object key) {
+		if (!(key instanceof String))
+			return -1;
+		final String s = (String)key;
+		for (int j = hash(s) & _mask;; j = (j + 1) & _mask) {
+			final int pos = _buf.getInt(_index + (j << 2));
+			if (pos < 0 || equals(_buf, pos, s))
+				return pos;
+		}
+	}
+
+	//Map//
+	public String get(Object key) {
+		final int pos = find(key);
+		return pos >= 0 ? readString(_buf, skip(_buf, pos)): null;
+	}
+	public boolean containsKey(Object key) {
+		return find(key) >= 0;
+	}
+	public int size() {
+		return _size;
+	}
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+			public int size() {
+				return _size;
+			}
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new Iterator<Map.Entry<String, String>>() {
+					private int _pos = _data, _left = _size;
+					public boolean hasNext() {
+						return _left > 0;
+					}
+					public Map.Entry<String, String> next() {
+						if (_left <= 0)
+							throw new NoSuchElementException();
+						final String key = readString(_buf, _pos);
+						_pos = skip(_buf, _pos);
+						final String value = readString(_buf, _pos);
+						_pos = skip(_buf, _pos);
+						--_left;
+						return new SimpleImmutableEntry<String, String>(key, value);
+					}
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	/** Compiles the bundles of the given locales (and their super locales)
+	 * with the labels found in the classpath.
+	 * <p>Usage: <code>java org.zkoss.util.resource.impl.LabelBundle dir [locale...]</code>
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: java "+LabelBundle.class.getName()+" dir [locale...]");
+			return;
+		}
+		Library.setProperty("org.zkoss.util.label.bundle.dir", args[0]);
+		final LabelLoaderImpl loader = new LabelLoaderImpl();
+		loader.getLabel(null, "");
+		for (int j = 1; j < args.length; ++j)
+			loader.getLabel(Locales.getLocale(args[j]), "");
+	}
+}
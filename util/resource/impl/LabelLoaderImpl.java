@@ -14,6 +14,7 @@ Copyright (C) 2006 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.util.resource.impl;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -31,6 +32,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.lang.Library;
+import org.zkoss.lang.Objects;
 import org.zkoss.lang.SystemException;
 import org.zkoss.util.FilterMap;
 import org.zkoss.util.Locales;
@@ -62,18 +64,20 @@ import org.zkoss.xel.util.SimpleXelContext;
 public class LabelLoaderImpl implements LabelLoader {
 	private static final Logger log = LoggerFactory.getLogger(LabelLoaderImpl.class);
 
-	/** A map of (Locale l, Map(String key, ExValue label)).
+	/** A map of (Locale l, LabelTable(String key, ExValue label)).
 	 * We use two maps to speed up the access of labels.
 	 * _labels allows concurrent access without synchronization.
 	 * _syncLabels requires synchronization and used for update.
+	 * Both _labels and _segLabels are copied on write, and only the entry of
+	 * the locale being loaded is changed.
 	 */
-	private Map<Locale, Map<String, ExValue>> _labels = Collections.emptyMap();
+	private volatile Map<Locale, LabelTable<ExValue>> _labels = Collections.emptyMap();
 	/** A map of (Locale 1, Map<String key1, Map<String key2...> or ExValue label>)
 	 * It is used by variable resolver and allows ${labels.key1.key2}.
 	 * _segLabels allows concurrent access without synchronization.
 	 * See also {@link #getSegmentedLabels}.
 	 */
-	private Map<Locale, Map<String, Object>> _segLabels = Collections.emptyMap();
+	private volatile Map<Locale, Map<String, Object>> _segLabels = Collections.emptyMap();
 	/** Map<Locale, Map<String, String>>.
 	 */
 	private final Map<Locale, Object> _syncLabels = new HashMap<Locale, Object>(8);
@@ -84,6 +88,10 @@ public class LabelLoaderImpl implements LabelLoader {
 	private String _jarcharset, _warcharset;
 	private final ExpressionFactory _expf;
 	private final FilterMap.Filter _fmfilter;
+	/** The generation of the labels and the variable resolver.
+	 * It is increased when they are changed, such that the memorized
+	 * values of expressions ({@link ExValue}) are invalidated. */
+	private volatile int _gen;
 
 	public LabelLoaderImpl() {
 		_fmfilter = new FilterMap.Filter() {
@@ -113,7 +121,7 @@ public class LabelLoaderImpl implements LabelLoader {
 	 * @since 5.0.7
 	 */
 	public String getLabel(Locale locale, String key) {
-		Map<String, ExValue> map = _labels.get(locale);
+		LabelTable<ExValue> map = _labels.get(locale);
 		if (map == null)
 			map = loadLabels(locale);
 		final ExValue exVal = map.get(key);
@@ -163,6 +171,7 @@ public class LabelLoaderImpl implements LabelLoader {
 		final Resolver resolver = (Resolver)_xelc.getVariableResolver();
 		final VariableResolver old = resolver.custom;
 		resolver.custom = resolv;
+		++_gen; //memorized values are invalid
 		return old;
 	}
 	/** Registers a locator which is used to load the Locale-dependent labels
@@ -197,6 +206,7 @@ public class LabelLoaderImpl implements LabelLoader {
 			_syncLabels.clear();
 			_segLabels = Collections.emptyMap();
 			_labels = Collections.emptyMap();
+			++_gen;
 		}
 	}
 
@@ -204,7 +214,7 @@ public class LabelLoaderImpl implements LabelLoader {
 	/** Returns Map(String key, ExValue label) of the specified locale.
 	 */
 	@SuppressWarnings("unchecked")
-	private final Map<String, ExValue> loadLabels(Locale locale) {
+	private final LabelTable<ExValue> loadLabels(Locale locale) {
 		WaitLock lock = null;
 		for (;;) {
 			final Object o;
@@ -214,8 +224,8 @@ public class LabelLoaderImpl implements LabelLoader {
 					_syncLabels.put(locale, lock = new WaitLock()); //lock it
 			}
 
-			if (o instanceof Map)
-				return (Map)o;
+			if (o instanceof LabelTable)
+				return (LabelTable<ExValue>)o;
 			if (o == null)
 				break; //go to load the page
 
@@ -237,16 +247,35 @@ public class LabelLoaderImpl implements LabelLoader {
 			//get the class name
 			if (locale != null)
 				log.info("Loading labels for "+locale);
-			Map labels = new HashMap(512);
+			Map labels;
 
-			//1. load from modules
+			//1. load from modules (or the precompiled bundle if up-to-date)
 			final ClassLocator locator = new ClassLocator();
-			for (Enumeration en = locator.getResources(
+			final List<URL> urls = new LinkedList<URL>();
+			for (Enumeration<URL> en = locator.getResources(
 				locale == null ? "metainfo/zk-label.properties":
 				"metainfo/zk-label_" + locale + ".properties");
-			en.hasMoreElements();) {
-				final URL url = (URL)en.nextElement();
-				load(labels, url, _jarcharset);
+			en.hasMoreElements();)
+				urls.add(en.nextElement());
+
+			final File bundleFile = LabelBundle.getFile(locale);
+			final LabelBundle bundle = bundleFile != null ?
+				LabelBundle.open(bundleFile, urls, _jarcharset): null;
+			if (bundle != null) {
+				labels = new HashMap(Math.max(512, bundle.size() * 4 / 3 + 1));
+				labels.putAll(bundle);
+			} else {
+				labels = new HashMap(512);
+				for (URL url: urls)
+					load(labels, url, _jarcharset);
+
+				if (bundleFile != null) {
+					try {
+						LabelBundle.write(bundleFile, urls, _jarcharset, labels);
+					} catch (Throwable ex) {
+						log.warn("Failed to compile labels to "+bundleFile, ex);
+					}
+				}
 			}
 
 			//2. load from extra resource
@@ -278,12 +307,11 @@ public class LabelLoaderImpl implements LabelLoader {
 				final String lang = locale.getLanguage();
 				final String cnty = locale.getCountry();
 				final String var = locale.getVariant();
-				final Map superlabels = loadLabels(
+				final LabelTable<ExValue> superlabels = loadLabels(
 					var != null && var.length() > 0 ? new Locale(lang, cnty):
 					cnty != null && cnty.length() > 0 ? new Locale(lang, ""): null);
 				if (labels.isEmpty()) {
-					labels = superlabels.isEmpty() ?
-						Collections.EMPTY_MAP: superlabels;
+					labels = superlabels;
 				} else if (!superlabels.isEmpty()) {
 					Map combined = new HashMap(superlabels);
 					combined.putAll(labels);
@@ -292,15 +320,18 @@ public class LabelLoaderImpl implements LabelLoader {
 			}
 
 			//add to map
+			final LabelTable<ExValue> table = labels instanceof LabelTable ?
+				(LabelTable<ExValue>)labels: new LabelTable<ExValue>(labels);
+			final Map<String, Object> segLabels = segment(table);
 			synchronized (_syncLabels) {
-				_syncLabels.put(locale, labels);
-				cloneLables();
+				_syncLabels.put(locale, table);
+				publish(locale, table, segLabels);
 			}
-			return labels;
+			return table;
 		} catch (Throwable ex) {
 			synchronized (_syncLabels) {
 				_syncLabels.remove(locale);
-				cloneLables();
+				publish(locale, null, null);
 			}
 			throw SystemException.Aide.wrap(ex);
 		} finally {
@@ -349,22 +380,26 @@ public class LabelLoaderImpl implements LabelLoader {
 		return value;
 	}
 
-	//Copy _syncLabels to _labels. It must be called in synchronized(_syncLabels)
-	@SuppressWarnings("unchecked")
-	private void cloneLables() {
-		final Map labels = new HashMap(),
-			segLabels = new HashMap();
-		for (Iterator it = _syncLabels.entrySet().iterator(); it.hasNext();) {
-			final Map.Entry me = (Map.Entry)it.next();
-			final Object value = me.getValue();
-			if (value instanceof Map) {
-				final Object key = me.getKey();
-				labels.put(key, value);
-				segLabels.put(key, segment((Map)value));
-			}
+	/** Publishes the labels of the given locale to _labels and _segLabels
+	 * (copy on write). Other locales are not affected.
+	 * It must be called in synchronized(_syncLabels).
+	 * @param labels the labels, or null to remove
+	 */
+	private void publish(Locale locale, LabelTable<ExValue> labels,
+	Map<String, Object> segLabels) {
+		final Map<Locale, LabelTable<ExValue>> lbs =
+			new HashMap<Locale, LabelTable<ExValue>>(_labels);
+		final Map<Locale, Map<String, Object>> sgs =
+			new HashMap<Locale, Map<String, Object>>(_segLabels);
+		if (labels != null) {
+			lbs.put(locale, labels);
+			sgs.put(locale, segLabels);
+		} else {
+			lbs.remove(locale);
+			sgs.remove(locale);
 		}
-		_labels = labels;
-		_segLabels = segLabels;
+		_labels = lbs;
+		_segLabels = sgs;
 	}
 	@SuppressWarnings("unchecked")
 	private Map segment(Map map) {
@@ -430,6 +465,8 @@ public class LabelLoaderImpl implements LabelLoader {
 	private class ExValue {
 		private Expression _expr;
 		private String _val;
+		/** The memorized value of the expression, or null if not evaluated. */
+		private volatile Memo _memo;
 		public ExValue(String val) {
 			int j;
 			if ((j = val.indexOf("${")) >= 0 && val.indexOf('}', j + 2) >= 0) {
@@ -444,11 +481,40 @@ public class LabelLoaderImpl implements LabelLoader {
 			_val = val;
 		}
 		public String getValue() {
-			return _expr != null ? (String)_expr.evaluate(_xelc): _val;
+			if (_expr == null)
+				return _val;
+
+			//Without a custom resolver, the expression depends only on
+			//the labels of the current locale, which won't change until reset
+			final Resolver resolver = (Resolver)_xelc.getVariableResolver();
+			if (resolver.custom != null)
+				return (String)_expr.evaluate(_xelc);
+
+			final int gen = _gen;
+			final Locale locale = Locales.getCurrent();
+			final Memo memo = _memo;
+			if (memo != null && memo.gen == gen && Objects.equals(memo.locale, locale))
+				return memo.value;
+
+			final String val = (String)_expr.evaluate(_xelc);
+			if (resolver.custom == null)
+				_memo = new Memo(locale, gen, val);
+			return val;
+		}
+	}
+	/** The value of an expression evaluated for a locale. */
+	private static class Memo {
+		private final Locale locale;
+		private final int gen;
+		private final String value;
+		private Memo(Locale locale, int gen, String value) {
+			this.locale = locale;
+			this.gen = gen;
+			this.value = value;
 		}
 	}
 	private class Resolver implements VariableResolver {
-		private VariableResolver custom;
+		private volatile VariableResolver custom;
 		public Object resolveVariable(String name) {
 			if (custom != null) {
 				final Object o = custom instanceof VariableResolverX ?
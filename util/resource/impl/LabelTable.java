@@ -0,0 +1,130 @@
+/* LabelTable.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 20:52:09     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of labels of a locale.
+ * The keys and values are stored in a single open-addressed table
+ * (with at least half of the slots empty), so {@link #get} is usually
+ * a single probe without allocating any object.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+/*package*/ final class LabelTable<V> extends AbstractMap<String, V> {
+	/** The keys and values: key at 2*i, value at 2*i+1. */
+	private final Object[] _table;
+	private final int _mask, _size;
+
+	/*package*/ LabelTable(Map<String, ? extends V> map) {
+		int cap = 4;
+		while (cap < map.size() * 2)
+			cap <<= 1;
+		_mask = cap - 1;
+		_table = new Object[cap * 2];
+		int size = 0;
+		for (Map.Entry<String, ? extends V> me: map.entrySet()) {
+			final String key = me.getKey();
+			if (key == null)
+				continue; //not possible for labels
+
+			int j = hash(key) & _mask;
+			for (Object k; (k = _table[j << 1]) != null; j = (j + 1) & _mask)
+				if (key.equals(k))
+					break;
+			if (_table[j << 1] == null)
+				++size;
+			_table[j << 1] = key;
+			_table[(j << 1) + 1] = me.getValue();
+		}
+		_size = size;
+	}
+	private static int hash(Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (key == null)
+			return null;
+		for (int j = hash(key) & _mask;; j = (j + 1) & _mask) {
+			final Object k = _table[j << 1];
+			if (k == null)
+				return null;
+			if (k == key || k.equals(key))
+				return (V)_table[(j << 1) + 1];
+		}
+	}
+	public boolean containsKey(Object key) {
+		if (key == null)
+			return false;
+		for (int j = hash(key) & _mask;; j = (j + 1) & _mask) {
+			final Object k = _table[j << 1];
+			if (k == null)
+				return false;
+			if (k == key || k.equals(key))
+				return true;
+		}
+	}
+	public int size() {
+		return _size;
+	}
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+	public Set<Map.Entry<String, V>> entrySet() {
+		return new AbstractSet<Map.Entry<String, V>>() {
+			public int size() {
+				return _size;
+			}
+			public Iterator<Map.Entry<String, V>> iterator() {
+				return new Iterator<Map.Entry<String, V>>() {
+					private int _j = advance(0);
+					private int advance(int j) {
+						while (j < _table.length && _table[j] == null)
+							j += 2;
+						return j;
+					}
+					public boolean hasNext() {
+						return _j < _table.length;
+					}
+					@SuppressWarnings("unchecked")
+					public Map.Entry<String, V> next() {
+						if (_j >= _table.length)
+							throw new NoSuchElementException();
+						final Map.Entry<String, V> me =
+							new SimpleImmutableEntry<String, V>(
+								(String)_table[_j], (V)_table[_j + 1]);
+						_j = advance(_j + 2);
+						return me;
+					}
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+}
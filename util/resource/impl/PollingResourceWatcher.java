@@ -0,0 +1,242 @@
+/* PollingResourceWatcher.java
+
+	Purpose:
+
+	Description:
+
+	History:
+		Sat Oct 17 18:10:05     2026, Created by agent
+
+Copyright (C) 2026 Potix Corporation. All Rights Reserved.
+
+{{IS_RIGHT
+	This program is distributed under LGPL Version 2.1 in the hope that
+	it will be useful, but WITHOUT ANY WARRANTY.
+}}IS_RIGHT
+*/
+package org.zkoss.util.resource.impl;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.zkoss.util.resource.ResourceWatcher;
+
+/**
+ * A resource watcher that polls the last modified time of the watched
+ * sources (File and URL) in a background thread.
+ *
+ * <p>The sources are checked in batch: for the URLs of the entries
+ * in a JAR file (<code>jar:file:...!/...</code>), the JAR file is examined
+ * only once per poll, no matter how many entries are watched.
+ * Only the local files (File and <code>file:</code> URLs) and the entries
+ * of the local JAR files are supported. The other URLs (such as
+ * <code>http:</code>) are not watched, so the caller keeps checking them
+ * on its own.
+ *
+ * @author agent
+ * @since 8.5.0
+ */
+public class PollingResourceWatcher implements ResourceWatcher, Runnable {
+	private static final Logger log = LoggerFactory.getLogger(PollingResourceWatcher.class);
+
+	/** Map(Object key, Watch), where key is the source if it is a File,
+	 * or the external form if it is a URL (since URL.equals might resolve
+	 * the host name).
+	 */
+	private final Map<Object, Watch> _watches = new LinkedHashMap<Object, Watch>();
+	/** unit=milliseconds. */
+	private final int _period;
+	private Thread _thread;
+	private boolean _closed;
+
+	private static class Watch {
+		private final Object src;
+		private final Set<Listener> listeners = new LinkedHashSet<Listener>(4);
+		private long lastModified;
+
+		private Watch(Object src) {
+			this.src = src;
+		}
+	}
+
+	/** Constructor.
+	 * @param period how often to poll (unit=milliseconds)
+	 */
+	public PollingResourceWatcher(int period) {
+		_period = period > 0 ? period: 5000;
+	}
+
+	//ResourceWatcher//
+	public boolean watch(Object src, Listener listener) {
+		final Object key = getKey(src);
+		if (key == null)
+			return false;
+
+		final long lastmod = getLastModified(src, null);
+		synchronized (_watches) {
+			if (_closed)
+				return false;
+			Watch w = _watches.get(key);
+			if (w == null) {
+				_watches.put(key, w = new Watch(src));
+				w.lastModified = lastmod;
+			}
+			w.listeners.add(listener);
+
+			if (_thread == null) {
+				_thread = new Thread(this, "PollingResourceWatcher");
+				_thread.setDaemon(true);
+				//not to keep the loader of the caller (such as a web application)
+				_thread.setContextClassLoader(PollingResourceWatcher.class.getClassLoader());
+				_thread.start();
+			}
+		}
+		return true;
+	}
+	public void unwatch(Object src, Listener listener) {
+		final Object key = getKey(src);
+		if (key == null)
+			return;
+		synchronized (_watches) {
+			final Watch w = _watches.get(key);
+			if (w != null && w.listeners.remove(listener) && w.listeners.isEmpty())
+				_watches.remove(key);
+		}
+	}
+	/** Returns the key of the given source, or null if it is not supported.
+	 */
+	private static Object getKey(Object src) {
+		if (src instanceof File)
+			return src;
+		if (src instanceof URL) {
+			final URL url = (URL)src;
+			if (toFile(url) != null || getJarFile(url) != null)
+				return url.toExternalForm();
+		}
+		return null;
+	}
+
+	public void close() {
+		final Thread thread;
+		synchronized (_watches) {
+			_closed = true;
+			_watches.clear();
+			thread = _thread;
+			_thread = null;
+		}
+		if (thread != null)
+			thread.interrupt();
+	}
+
+	//Runnable//
+	public void run() {
+		for (;;) {
+			try {
+				Thread.sleep(_period);
+				synchronized (_watches) {
+					if (_closed)
+						return;
+				}
+				poll();
+			} catch (InterruptedException ex) {
+				return;
+			} catch (Throwable ex) {
+				log.warn("Failed to poll resources", ex);
+			}
+		}
+	}
+	/** Checks all watched sources, and notifies the listeners of the changed ones.
+	 */
+	protected void poll() {
+		final List<Watch> watches;
+		synchronized (_watches) {
+			watches = new ArrayList<Watch>(_watches.values());
+		}
+
+		final Map<File, Long> jars = new HashMap<File, Long>(); //cache per poll
+		for (Watch w: watches) {
+			final Object src = w.src;
+			final long lastmod = getLastModified(src, jars);
+			final Listener[] listeners;
+			synchronized (_watches) {
+				if (lastmod == w.lastModified)
+					continue;
+				w.lastModified = lastmod;
+				listeners = w.listeners.toArray(new Listener[w.listeners.size()]);
+			}
+			for (int j = 0; j < listeners.length; ++j) {
+				try {
+					listeners[j].onChange(src);
+				} catch (Throwable ex) {
+					log.warn("Failed to notify "+listeners[j], ex);
+				}
+			}
+		}
+	}
+	/** Returns the last modified time of the source, or 0 if not found.
+	 * @param jars the last modified time of the JAR files that
+	 * have been examined (in this poll), or null if not to cache.
+	 */
+	/*package*/ static long getLastModified(Object src, Map<File, Long> jars) {
+		if (src instanceof File)
+			return ((File)src).lastModified();
+
+		final URL url = (URL)src;
+		final File jar = getJarFile(url);
+		if (jar != null) {
+			Long v = jars != null ? jars.get(jar): null;
+			if (v == null) {
+				v = new Long(jar.lastModified());
+				if (jars != null)
+					jars.put(jar, v);
+			}
+			return v.longValue();
+		}
+
+		final File file = toFile(url);
+		if (file != null)
+			return file.lastModified();
+		try {
+			return url.openConnection().getLastModified();
+		} catch (Throwable ex) {
+			return 0;
+		}
+	}
+	/** Returns the JAR file if the URL is an entry of a local JAR file,
+	 * or null if not.
+	 */
+	private static File getJarFile(URL url) {
+		if (!"jar".equals(url.getProtocol()))
+			return null;
+		final String path = url.getPath(); //file:/xxx.jar!/entry
+		final int j = path.indexOf("!/");
+		if (j < 0)
+			return null;
+		try {
+			return toFile(new URL(path.substring(0, j)));
+		} catch (Throwable ex) {
+			return null;
+		}
+	}
+	/** Returns the file if the URL is a local file (file:), or null if not.
+	 */
+	/*package*/ static File toFile(URL url) {
+		if (!"file".equals(url.getProtocol()))
+			return null;
+		try {
+			return new File(url.toURI());
+		} catch (Throwable ex) {
+			return new File(url.getPath());
+		}
+	}
+}
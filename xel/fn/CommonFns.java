@@ -17,9 +17,6 @@ Copyright (C) 2005 Potix Corporation. All Rights Reserved.
 package org.zkoss.xel.fn;
 
 import java.text.DateFormat;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.ListIterator;
@@ -38,10 +35,10 @@ import org.zkoss.lang.Classes;
 import org.zkoss.lang.Objects;
 import org.zkoss.mesg.Messages;
 import org.zkoss.util.Locales;
-import org.zkoss.util.TimeZones;
 import org.zkoss.util.resource.Labels;
 
 import org.zkoss.text.DateFormats;
+import org.zkoss.text.FormatCache;
 import org.zkoss.text.MessageFormats;
 
 /**
@@ -455,7 +452,10 @@ public class CommonFns {
 	 * @since 6.0.0
 	 */
 	public static final String formatDate(Date date, String pattern, Locale locale, TimeZone timezone, String dateStyle, String timeStyle) {
-		return getDateFormat(pattern, locale, timezone, dateStyle, timeStyle).format(date);
+		if (locale == null)
+			locale = Locales.getCurrent();
+		return FormatCache.formatDate(date,
+			getRealFormat(pattern, locale, dateStyle, timeStyle), locale, timezone);
 	}
 	/**
 	 * Parses text from the beginning of the given string to produce a date.
@@ -473,7 +473,10 @@ public class CommonFns {
 	 * @since 6.0.0
 	 */
 	public static final Date parseDate(String source, String pattern, Locale locale, TimeZone timezone, String dateStyle, String timeStyle) throws Exception {
-		return getDateFormat(pattern, locale, timezone, dateStyle, timeStyle).parse(source);
+		if (locale == null)
+			locale = Locales.getCurrent();
+		return FormatCache.parseDate(source,
+			getRealFormat(pattern, locale, dateStyle, timeStyle), locale, timezone);
 	}
 	/**
 	 * Formats a number (Integer, BigDecimal...) into a string.
@@ -488,7 +491,7 @@ public class CommonFns {
 	 * @since 6.0.1
 	 */
 	public static final String formatNumber (Object number, String pattern, Locale locale) {
-		return getDecimalFormat(pattern, locale).format(number);
+		return FormatCache.formatNumber(number, pattern, locale);
 	}
 	/**
 	 * Parses text from the beginning of the given string to produce a number.
@@ -502,25 +505,7 @@ public class CommonFns {
 	 * @since 6.0.1
 	 */
 	public static final Number parseNumber (String source, String pattern, Locale locale) throws Exception {
-		return getDecimalFormat(pattern, locale).parse(source);
-	}
-	private static final DecimalFormat getDecimalFormat (String pattern, Locale locale) {
-		final DecimalFormat df = (DecimalFormat)
-			NumberFormat.getInstance(locale != null ? locale : Locales.getCurrent());
-		if (pattern != null)
-			df.applyPattern(pattern);
-		return df;
-	}
-	private static final DateFormat getDateFormat (String pattern, Locale locale, TimeZone timezone, String dateStyle, String timeStyle) {
-		if (locale == null)
-			locale = Locales.getCurrent();
-		if (timezone == null)
-			timezone = TimeZones.getCurrent();
-		pattern = getRealFormat(pattern, locale, dateStyle, timeStyle);
-		final DateFormat df = new SimpleDateFormat(pattern,
-				locale);
-		df.setTimeZone(timezone);
-		return df;
+		return FormatCache.parseNumber(source, pattern, locale);
 	}
 	private static final String getRealFormat (String pattern, Locale locale, String dateStyle, String timeStyle) {
 		int ts, ds;
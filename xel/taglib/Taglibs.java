@@ -32,6 +32,7 @@ import org.zkoss.idom.Element;
 import org.zkoss.idom.input.SAXBuilder;
 import org.zkoss.idom.util.IDOMs;
 import org.zkoss.lang.Classes;
+import org.zkoss.util.Caches;
 import org.zkoss.util.IllegalSyntaxException;
 import org.zkoss.util.resource.AbstractLoader;
 import org.zkoss.util.resource.ClassLocator;
@@ -277,6 +278,7 @@ public class Taglibs {
 		try {
  			_reces = new ResourceCache<URL, TaglibDefinition>(new TaglibLoader());
  			_reces.setCheckPeriod(30*60*1000);
+ 			Caches.register("org.zkoss.xel.taglib.Taglibs.definitions", _reces);
  		} catch (Exception ex) {
 			throw XelException.Aide.wrap(ex);
 		}
@@ -18,6 +18,7 @@ package org.zkoss.xel.util;
 
 import java.lang.reflect.Method;
 
+import org.zkoss.lang.reflect.FastInvoker;
 import org.zkoss.lang.reflect.SerializableMethod;
 import org.zkoss.xel.Function;
 
@@ -30,6 +31,9 @@ import org.zkoss.xel.Function;
  * @since 3.0.0
  */
 public class MethodFunction extends SerializableMethod implements Function {
+	/** The invoker bound to the method (retrieved on demand). */
+	private transient FastInvoker _invoker;
+
 	public MethodFunction(Method method) {
 		super(method);
 	}
@@ -41,7 +45,10 @@ public class MethodFunction extends SerializableMethod implements Function {
 		return getMethod().getReturnType();
 	}
 	public Object invoke(Object obj, Object... args) throws Exception {
-		return getMethod().invoke(obj, args);
+		FastInvoker invoker = _invoker;
+		if (invoker == null)
+			_invoker = invoker = FastInvoker.getInstance(getMethod());
+		return invoker.invoke(obj, args);
 	}
 	public Method toMethod() {
 		return getMethod();
@@ -14,19 +14,47 @@ Copyright (C) 2011 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.xel.zel;
 
+import org.zkoss.lang.Library;
+import org.zkoss.util.Cache;
+import org.zkoss.util.Caches;
+import org.zkoss.util.ConcurrentCache;
 import org.zkoss.xel.Expression;
 import org.zkoss.xel.ExpressionFactory;
+import org.zkoss.xel.FunctionMapper;
 import org.zkoss.xel.XelContext;
 import org.zkoss.xel.XelException;
 import org.zkoss.zel.ELContext;
+import org.zkoss.zel.ValueExpression;
 
 /**
  * An XEL ExpressionFactory implementation based on ZEL ExpressionFactory.
  *
+ * <p>The parsed expressions are cached and shared among all instances
+ * of the same class, such that the same expression needs not to be parsed
+ * again. They are keyed by the expression, the expected type and
+ * the function mapper (by identity) of the given XEL context, since
+ * the functions are resolved when parsing.
+ * The maximal number of cached expressions is controlled by the library
+ * property called <code>org.zkoss.xel.zel.ELFactory.cache.maxSize</code>
+ * (default: 2000; 0 means no cache). The cache is registered in
+ * {@link Caches} as <code>org.zkoss.xel.zel.ELFactory.expressions</code>,
+ * so its hit rate can be monitored.
+ *
  * @author henrichen
  * @since 6.0.0
  */
 public class ELFactory implements ExpressionFactory {
+	/** The cache of parsed expressions, or null if not cached. */
+	private static final Cache<ExprKey, ValueExpression> _exprs;
+	static {
+		final int maxSize = Library.getIntProperty(
+			"org.zkoss.xel.zel.ELFactory.cache.maxSize", 2000);
+		_exprs = maxSize > 0 ?
+			Caches.register("org.zkoss.xel.zel.ELFactory.expressions",
+				new ConcurrentCache<ExprKey, ValueExpression>(
+					maxSize, 4 * 60 * 60 * 1000)): null;
+	}
+
 	protected final org.zkoss.zel.ExpressionFactory _expf;
 	public ELFactory() {
 		_expf = newExpressionFactory();
@@ -40,15 +68,34 @@ public class ELFactory implements ExpressionFactory {
 	Class expectedType)
 	throws XelException {
 		return new ELXelExpression(
-			_expf.createValueExpression(
-				newELContext(xelc), expression, expectedType));
+			getValueExpression(xelc, null, expression, expectedType));
 	}
 	public Object evaluate(XelContext xelc, String expression,
 	Class expectedType)
 	throws XelException {
 		final ELContext ctx = newELContext(xelc);
-		return _expf.createValueExpression(
-				ctx, expression, expectedType).getValue(ctx);
+		return getValueExpression(xelc, ctx, expression, expectedType)
+			.getValue(ctx);
+	}
+	/** Returns the parsed expression from the cache, or parses it
+	 * if not found.
+	 * @param ctx the EL context to parse, or null to create one if necessary.
+	 */
+	private ValueExpression getValueExpression(XelContext xelc,
+	ELContext ctx, String expression, Class expectedType) {
+		if (_exprs == null || expression == null)
+			return _expf.createValueExpression(
+				ctx != null ? ctx: newELContext(xelc), expression, expectedType);
+
+		final ExprKey key = new ExprKey(getClass(), expression, expectedType,
+			xelc != null ? xelc.getFunctionMapper(): null);
+		ValueExpression expr = _exprs.get(key);
+		if (expr == null) {
+			expr = _expf.createValueExpression(
+				ctx != null ? ctx: newELContext(xelc), expression, expectedType);
+			_exprs.put(key, expr);
+		}
+		return expr;
 	}
 	protected ELContext newELContext(XelContext xelc) {
 		return new XelELContext(xelc);
@@ -60,4 +107,36 @@ public class ELFactory implements ExpressionFactory {
 	protected org.zkoss.zel.ExpressionFactory newExpressionFactory() {
 		return new org.zkoss.zel.impl.ExpressionFactoryImpl();
 	}
+
+	/** The key of a parsed expression. */
+	private static final class ExprKey {
+		private final Class<?> _factoryClass;
+		private final String _expr;
+		private final Class<?> _expectedType;
+		private final FunctionMapper _mapper;
+		private final int _hash;
+
+		private ExprKey(Class<?> factoryClass, String expr,
+		Class<?> expectedType, FunctionMapper mapper) {
+			_factoryClass = factoryClass;
+			_expr = expr;
+			_expectedType = expectedType;
+			_mapper = mapper;
+			_hash = expr.hashCode() ^ System.identityHashCode(mapper)
+				^ (expectedType != null ? expectedType.hashCode(): 0);
+		}
+		public int hashCode() {
+			return _hash;
+		}
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof ExprKey))
+				return false;
+			final ExprKey k = (ExprKey)o;
+			return _hash == k._hash && _factoryClass == k._factoryClass
+				&& _mapper == k._mapper && _expectedType == k._expectedType
+				&& _expr.equals(k._expr);
+		}
+	}
 }
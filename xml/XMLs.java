@@ -15,6 +15,9 @@ Copyright (C) 2001 Potix Corporation. All Rights Reserved.
 */
 package org.zkoss.xml;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.zkoss.idom.Verifier;
 
 /**
@@ -48,28 +51,92 @@ public class XMLs {
 		return sb != null ? sb.toString(): name;
 	}
 
-	/** Encodes a value such that it could be used as XML attribute.
+	//Encoding tables: the replacement of a character (indexed by the
+	//character), or null if it is not special.
+	private static final String[] ATTR_TABLE = newTable(
+		new char[] {'"', '&'}, new String[] {"&quot;", "&amp;"});
+	private static final String[] TEXT_TABLE = newTable(
+		new char[] {'<', '>', '&', '"'},
+		new String[] {"&lt;", "&gt;", "&amp;", "&quot;"});
+	private static final String[] ESCAPE_TABLE = newTable(
+		new char[] {'"', '\'', '>', '<', '&'},
+		new String[] {"&#034;", "&#039;", "&gt;", "&lt;", "&amp;"});
+	private static String[] newTable(char[] ccs, String[] reps) {
+		final String[] table = new String[128];
+		for (int j = ccs.length; --j >= 0;)
+			table[ccs[j]] = reps[j];
+		return table;
+	}
+	/** Returns the index of the first special character, or -1 if not found. */
+	private static int indexOfSpecial(String[] table, CharSequence value,
+	int begin, int end) {
+		for (int j = begin; j < end; ++j) {
+			final char cc = value.charAt(j);
+			if (cc < 128 && table[cc] != null)
+				return j;
+		}
+		return -1;
+	}
+	/** Encodes the given range with the table and appends to the output.
+	 * The runs of non-special characters are appended at once.
 	 */
-	public static final String encodeAttribute(String value) {
-		StringBuffer sb = null;
-		for (int j = 0, len = value.length(); j < len; ++j) {
+	private static void encode(String[] table, Appendable out,
+	CharSequence value, int begin, int end) throws IOException {
+		int k = begin;
+		for (int j = begin; j < end; ++j) {
 			final char cc = value.charAt(j);
 			final String rep;
-			switch (cc) {
-			case '"': rep = "&quot;"; break;
-			case '&': rep = "&amp;"; break;
-			default:
-				if (sb != null) sb.append(cc);
-				continue;
+			if (cc < 128 && (rep = table[cc]) != null) {
+				if (k < j)
+					appendRun(out, value, k, j);
+				out.append(rep);
+				k = j + 1;
 			}
+		}
+		if (k < end)
+			appendRun(out, value, k, end);
+	}
+	/** Appends the given range to the output without creating
+	 * a substring if possible.
+	 */
+	private static void appendRun(Appendable out, CharSequence value,
+	int begin, int end) throws IOException {
+		if (out instanceof Writer && value instanceof String)
+			((Writer)out).write((String)value, begin, end - begin);
+		else
+			out.append(value, begin, end);
+	}
+	/** Encodes the value with the table, or returns the value itself if
+	 * nothing to encode. */
+	private static String encode(String[] table, String value) {
+		final int len = value.length(),
+			j = indexOfSpecial(table, value, 0, len);
+		if (j < 0)
+			return value;
 
-			if (sb == null) {
-				sb = new StringBuffer(len + 8);
-				if (j > 0) sb.append(value.substring(0, j));
-			}
-			sb.append(rep);
+		final StringBuilder sb = new StringBuilder(len + 16).append(value, 0, j);
+		try {
+			encode(table, sb, value, j, len);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
 		}
-		return sb != null ? sb.toString(): value;
+		return sb.toString();
+	}
+
+	/** Encodes a value such that it could be used as XML attribute.
+	 */
+	public static final String encodeAttribute(String value) {
+		return encode(ATTR_TABLE, value);
+	}
+	/** Encodes a value and appends it to the given output (such as
+	 * StringBuilder and Writer), such that it could be used as XML attribute.
+	 * It is the same as {@link #encodeAttribute(String)}, except
+	 * no intermediate string is created.
+	 * @since 8.5.0
+	 */
+	public static final void writeAttribute(Appendable out, CharSequence value)
+	throws IOException {
+		encode(ATTR_TABLE, out, value, 0, value.length());
 	}
 
 	/** Encodes a value such that it could be enclosed by an XML element.
@@ -79,27 +146,29 @@ public class XMLs {
 	 * the string by this method.
 	 */
 	public static final String encodeText(String value) {
-		StringBuffer sb = null;
-		for (int j = 0, len = value.length(); j < len; ++j) {
-			final char cc = value.charAt(j);
-			final String rep;
-			switch (cc) {
-			case '<': rep = "&lt;"; break;
-			case '>': rep = "&gt;"; break;
-			case '&': rep = "&amp;"; break;
-			case '"': rep = "&quot;"; break;
-			default:
-				if (sb != null) sb.append(cc);
-				continue;
-			}
-
-			if (sb == null) {
-				sb = new StringBuffer(len + 8);
-				if (j > 0) sb.append(value.substring(0, j));
-			}
-			sb.append(rep);
-		}
-		return sb != null ? sb.toString(): value;
+		return encode(TEXT_TABLE, value);
+	}
+	/** Encodes a value and appends it to the given output (such as
+	 * StringBuilder and Writer), such that it could be enclosed by
+	 * an XML element.
+	 * It is the same as {@link #encodeText(String)}, except
+	 * no intermediate string is created.
+	 * @since 8.5.0
+	 */
+	public static final void writeText(Appendable out, CharSequence value)
+	throws IOException {
+		encode(TEXT_TABLE, out, value, 0, value.length());
+	}
+	/** Encodes a value of the specified range and appends it to the given
+	 * output (such as StringBuilder and Writer), such that it could be
+	 * enclosed by an XML element.
+	 * @param begin the beginning index, inclusive
+	 * @param end the ending index, exclusive
+	 * @since 8.5.0
+	 */
+	public static final void writeText(Appendable out, CharSequence value,
+	int begin, int end) throws IOException {
+		encode(TEXT_TABLE, out, value, begin, Math.min(end, value.length()));
 	}
 	/** Encodes a value and appends it to a string buffer,
 	 * such that it could be enclosed by an XML element.
@@ -110,20 +179,7 @@ public class XMLs {
 	 */
 	public static final
 	StringBuffer encodeText(StringBuffer sb, String value) {
-		int len = value.length();
-		if (sb == null) sb = new StringBuffer(len);
-		for (int j = 0; j < len; ++j) {
-			final char cc = value.charAt(j);
-			final String rep;
-			switch (cc) {
-			case '<': sb.append("&lt;"); break;
-			case '>': sb.append("&gt;"); break;
-			case '&': sb.append("&amp;"); break;
-			case '"': sb.append("&quot;"); break;
-			default: sb.append(cc); break;
-			}
-		}
-		return sb;
+		return encodeText(sb, value, 0, value.length());
 	}
 	/** Encodes a value of the specified range,
 	 * and appends it to a string buffer,
@@ -142,16 +198,10 @@ public class XMLs {
 	StringBuffer encodeText(StringBuffer sb, String value, int begin, int end) {
 		if (end > value.length()) end = value.length();
 		if (sb == null) sb = new StringBuffer(end - begin + 8);
-		for (int j = begin; j < end; ++j) {
-			final char cc = value.charAt(j);
-			final String rep;
-			switch (cc) {
-			case '<': sb.append("&lt;"); break;
-			case '>': sb.append("&gt;"); break;
-			case '&': sb.append("&amp;"); break;
-			case '"': sb.append("&quot;"); break;
-			default: sb.append(cc); break;
-			}
+		try {
+			encode(TEXT_TABLE, sb, value, begin, end);
+		} catch (IOException ex) { //not possible
+			throw new IllegalStateException(ex);
 		}
 		return sb;
 	}
@@ -170,15 +220,20 @@ public class XMLs {
 	 * @return the escaped string, or an empty string if s is null
 	 */
 	public static final String escapeXML(String s) {
-		if (s == null) return "";
-		final StringBuffer sb = new StringBuffer(s.length() + 16);
-		for (int j = 0, len = s.length(); j < len; ++j) {
-			final char cc = s.charAt(j);
-			final String esc = escapeXML(cc);
-			if (esc != null) sb.append(esc);
-			else sb.append(cc);
-		}
-		return s.length() == sb.length() ? s: sb.toString();
+		return s != null ? encode(ESCAPE_TABLE, s): "";
+	}
+	/** Escapes a string and appends it to the given output (such as
+	 * StringBuilder and Writer), such that the special characters are
+	 * quoted to be compatible with HTML/XML.
+	 * It is the same as {@link #escapeXML(String)}, except no intermediate
+	 * string is created.
+	 * @param s the string to quote; null is OK (nothing appended)
+	 * @since 8.5.0
+	 */
+	public static final void writeEscapedXML(Appendable out, CharSequence s)
+	throws IOException {
+		if (s != null)
+			encode(ESCAPE_TABLE, out, s, 0, s.length());
 	}
 	/** Escapes a character into a string if it is a special XML character,
 	 * returns null if not a special character.